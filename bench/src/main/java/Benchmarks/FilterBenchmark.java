@@ -0,0 +1,270 @@
+package Benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Filters.AverageFilter;
+import Filters.FilterChain;
+import Filters.FloatAverageFilter;
+import Filters.FloatMedianFilter;
+import Filters.HampelFilter;
+import Filters.MedianFilter;
+
+/**
+ * Benchmarks of the Filters package. Every filter is fed from a pre-generated
+ * stream so only the cost of filtering one sample is measured.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FilterBenchmark {
+
+	/**
+	 * Number of samples in a block for the block benchmarks
+	 */
+	public static final int BLOCK = 256;
+
+	/**
+	 * Number of pre-generated samples, must be a power of two
+	 */
+	private static final int STREAM = 4096;
+
+	/**
+	 * Boxed average filter
+	 */
+	private AverageFilter averageFilter;
+
+	/**
+	 * Output buffer for the block benchmarks
+	 */
+	private float[] block = new float[BLOCK];
+
+	/**
+	 * Fused median and moving average
+	 */
+	private FilterChain filterChain;
+
+	/**
+	 * Primitive average filter
+	 */
+	private FloatAverageFilter floatAverageFilter;
+
+	/**
+	 * Primitive median filter
+	 */
+	private FloatMedianFilter floatMedianFilter;
+
+	/**
+	 * Hampel outlier rejection
+	 */
+	private HampelFilter hampelFilter;
+
+	/**
+	 * Boxed median filter
+	 */
+	private MedianFilter medianFilter;
+
+	/**
+	 * Index of the next sample of the stream
+	 */
+	private int next = 0;
+
+	/**
+	 * Pre-generated samples, looks like ultrasonic data with a few spikes
+	 */
+	private float[] stream = new float[STREAM];
+
+	/**
+	 * Boxed stream used by the boxed filters
+	 */
+	private Float[] streamBoxed = new Float[STREAM];
+
+	/**
+	 * Pristine window handed to computeMedian
+	 */
+	private Float[] window;
+
+	/**
+	 * Pristine primitive window handed to computeMedian
+	 */
+	private float[] windowPrimitive;
+
+	/**
+	 * Copy of the window, computeMedian reorders it in place
+	 */
+	private float[] windowWork;
+
+	/**
+	 * Size of the filter window
+	 */
+	@Param({ "3", "5", "9", "16", "33", "128", "1024" })
+	public int width;
+
+	/**
+	 * Builds the filters and the input stream
+	 */
+	@SuppressWarnings("boxing")
+	@Setup
+	public void setup() {
+		Random rnd = new Random(42);
+		for (int i = 0; i < STREAM; i++) {
+			this.stream[i] = (rnd.nextInt(50) == 0) ? 2.55f : 0.3f + 0.05f * (float) rnd.nextGaussian();
+			this.streamBoxed[i] = this.stream[i];
+		}
+
+		this.averageFilter = new AverageFilter(this.width);
+		this.medianFilter = new MedianFilter(this.width);
+		this.floatAverageFilter = new FloatAverageFilter(this.width);
+		this.floatMedianFilter = new FloatMedianFilter(this.width);
+		this.hampelFilter = new HampelFilter(Math.max(this.width, 3), 3.f);
+		this.filterChain = new FilterChain().addMedian(this.width).addAverage(this.width);
+
+		this.window = new Float[this.width];
+		this.windowPrimitive = new float[this.width];
+		this.windowWork = new float[this.width];
+		System.arraycopy(this.streamBoxed, 0, this.window, 0, this.width);
+		System.arraycopy(this.stream, 0, this.windowPrimitive, 0, this.width);
+
+		// - Fill the windows so the steady state is measured
+		for (int i = 0; i < this.width; i++) {
+			this.averageFilter.filterSample(this.streamBoxed[i]);
+			this.medianFilter.filterSample(this.streamBoxed[i]);
+			this.floatAverageFilter.filterSample(this.stream[i]);
+			this.floatMedianFilter.filterSample(this.stream[i]);
+			this.filterChain.filterSample(this.stream[i]);
+			this.hampelFilter.filterSample(this.stream[i]);
+		}
+	}
+
+	/**
+	 * @return Index of the next sample of the stream
+	 */
+	private int nextIndex() {
+		this.next = (this.next + 1) & (STREAM - 1);
+		return this.next;
+	}
+
+	/**
+	 * AverageFilter.filterSample
+	 *
+	 * @return filtered sample
+	 */
+	@Benchmark
+	public Float averageFilterSample() {
+		return this.averageFilter.filterSample(this.streamBoxed[nextIndex()]);
+	}
+
+	/**
+	 * MedianFilter.computeMedian on a window of 'width' boxed samples
+	 *
+	 * @return median
+	 */
+	@Benchmark
+	public Float computeMedian() {
+		return MedianFilter.computeMedian(this.window);
+	}
+
+	/**
+	 * MedianFilter.computeMedian on a window of 'width' primitive samples, the
+	 * copy of the window is included in the measurement
+	 *
+	 * @return median
+	 */
+	@Benchmark
+	public float computeMedianPrimitive() {
+		System.arraycopy(this.windowPrimitive, 0, this.windowWork, 0, this.width);
+		return MedianFilter.computeMedian(this.windowWork);
+	}
+
+	/**
+	 * FilterChain.filterSample with a median and a moving average stage
+	 *
+	 * @return filtered sample
+	 */
+	@Benchmark
+	public float filterChainSample() {
+		return this.filterChain.filterSample(this.stream[nextIndex()]);
+	}
+
+	/**
+	 * FloatAverageFilter.filterBlock, reported per sample
+	 *
+	 * @return last filtered sample
+	 */
+	@Benchmark
+	@OperationsPerInvocation(BLOCK)
+	public float floatAverageFilterBlock() {
+		int off = nextIndex() & (STREAM - BLOCK);
+		this.floatAverageFilter.filterBlock(this.stream, off, BLOCK, this.block);
+		return this.block[BLOCK - 1];
+	}
+
+	/**
+	 * FloatAverageFilter.filterSample
+	 *
+	 * @return filtered sample
+	 */
+	@Benchmark
+	public float floatAverageFilterSample() {
+		return this.floatAverageFilter.filterSample(this.stream[nextIndex()]);
+	}
+
+	/**
+	 * FloatMedianFilter.filterBlock, reported per sample
+	 *
+	 * @return last filtered sample
+	 */
+	@Benchmark
+	@OperationsPerInvocation(BLOCK)
+	public float floatMedianFilterBlock() {
+		int off = nextIndex() & (STREAM - BLOCK);
+		this.floatMedianFilter.filterBlock(this.stream, off, BLOCK, this.block);
+		return this.block[BLOCK - 1];
+	}
+
+	/**
+	 * FloatMedianFilter.filterSample
+	 *
+	 * @return filtered sample
+	 */
+	@Benchmark
+	public float floatMedianFilterSample() {
+		return this.floatMedianFilter.filterSample(this.stream[nextIndex()]);
+	}
+
+	/**
+	 * HampelFilter.filterSample
+	 *
+	 * @return filtered sample
+	 */
+	@Benchmark
+	public float hampelFilterSample() {
+		return this.hampelFilter.filterSample(this.stream[nextIndex()]);
+	}
+
+	/**
+	 * MedianFilter.filterSample
+	 *
+	 * @return filtered sample
+	 */
+	@Benchmark
+	public Float medianFilterSample() {
+		return this.medianFilter.filterSample(this.streamBoxed[nextIndex()]);
+	}
+}
@@ -0,0 +1,200 @@
+package Benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import MeasurementDevices.FieldLineIndex;
+import MeasurementDevices.OdometryModel;
+import MeasurementDevices.PoseFilter;
+import MeasurementDevices.PoseTracker;
+import Utility.Vec2D;
+
+/**
+ * Compares the odometer tick on primitive fields (OdometryModel) with the
+ * previous tick built on Vec2D, fed with the same tachometer counts of a
+ * robot driving a curve. trackerTick and fusedTick run the whole tick of the
+ * Odometer, without and with a PoseFilter: the integration under the lock,
+ * the propagation of the covariance, the sequence lock publication and the
+ * PoseHistory. Run through RunBenchmarks, gc.alloc.rate.norm must be 0 B/op
+ * for modelTick, trackerTick and fusedTick.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OdometerBenchmark {
+
+	/**
+	 * Number of pre-generated ticks, must be a power of two
+	 */
+	private static final int STREAM = 1024;
+
+	/**
+	 * Scaling factor correcting the angle of rotation
+	 */
+	private static final double ANGLE_SCALE = 1.0;
+
+	/**
+	 * Radius of the wheels [cm]
+	 */
+	private static final double RADIUS = 2.1;
+
+	/**
+	 * Distance between the wheels [cm]
+	 */
+	private static final double TRACK = 16.8;
+
+	/**
+	 * Pre-generated tachometer counts, left and right per tick
+	 */
+	private int[] counts = new int[2 * STREAM];
+
+	/**
+	 * Position delta reused by vec2dTick [cm]
+	 */
+	private Vec2D dPosition;
+
+	/**
+	 * Tachometer counts at the last Vec2D tick
+	 */
+	private Vec2D lastTacho;
+
+	/**
+	 * Tracker with a filter updated by fusedTick
+	 */
+	private PoseTracker fusedTracker;
+
+	/**
+	 * Model updated by modelTick
+	 */
+	private OdometryModel model;
+
+	/**
+	 * Index of the next tick of the stream
+	 */
+	private int next = 0;
+
+	/**
+	 * Orientation updated by vec2dTick [rad]
+	 */
+	private double orientation;
+
+	/**
+	 * Position updated by vec2dTick [cm]
+	 */
+	private Vec2D position;
+
+	/**
+	 * Time of the next tick [ms]
+	 */
+	private long time = 0;
+
+	/**
+	 * Tracker updated by trackerTick
+	 */
+	private PoseTracker tracker;
+
+	/**
+	 * Builds the models and the tachometer stream: a 5 ms tick with the left
+	 * wheel at 200 deg/s and the right one at 150 deg/s
+	 */
+	@Setup
+	public void setup() {
+		for (int i = 0; i < STREAM; i++) {
+			this.counts[2 * i] = i * 200 / 200;
+			this.counts[2 * i + 1] = i * 150 / 200;
+		}
+		this.model = new OdometryModel(RADIUS, RADIUS, TRACK, ANGLE_SCALE);
+		this.tracker = new PoseTracker(	new OdometryModel(RADIUS, RADIUS, TRACK, ANGLE_SCALE),
+										TRACK / ANGLE_SCALE);
+		this.fusedTracker = new PoseTracker(new OdometryModel(RADIUS, RADIUS, TRACK, ANGLE_SCALE),
+											TRACK / ANGLE_SCALE);
+		this.fusedTracker.setPoseFilter(new PoseFilter(FieldLineIndex.DEFAULT));
+		this.dPosition = Vec2D.getNull();
+		this.lastTacho = Vec2D.getNull();
+		this.position = Vec2D.getNull();
+		this.orientation = Math.PI / 2;
+	}
+
+	/**
+	 * @return Offset of the next tick in the stream, the counts restart from
+	 *         the beginning of the stream like a wrapping tachometer
+	 */
+	private int nextTick() {
+		this.next = (this.next + 1) & (STREAM - 1);
+		return 2 * this.next;
+	}
+
+	/**
+	 * OdometryModel.update on primitive fields
+	 *
+	 * @return orientation [rad]
+	 */
+	@Benchmark
+	public double modelTick() {
+		int off = nextTick();
+		this.model.update(this.counts[off], this.counts[off + 1]);
+		return this.model.getTheta();
+	}
+
+	/**
+	 * Odometer tick with a PoseFilter: PoseTracker.update propagating the
+	 * covariance
+	 *
+	 * @return orientation [rad]
+	 */
+	@Benchmark
+	public double fusedTick() {
+		int off = nextTick();
+		this.time += 5;
+		this.fusedTracker.update(this.counts[off], this.counts[off + 1], this.time);
+		return this.fusedTracker.getOrientation();
+	}
+
+	/**
+	 * Odometer tick without a filter: PoseTracker.update
+	 *
+	 * @return orientation [rad]
+	 */
+	@Benchmark
+	public double trackerTick() {
+		int off = nextTick();
+		this.time += 5;
+		this.tracker.update(this.counts[off], this.counts[off + 1], this.time);
+		return this.tracker.getOrientation();
+	}
+
+	/**
+	 * The previous Odometer.timedOut: tachometers read into a new Vec2D and
+	 * deltas computed with Vec2D.sub
+	 *
+	 * @return orientation [rad]
+	 */
+	@Benchmark
+	public double vec2dTick() {
+		int off = nextTick();
+		Vec2D nowTacho = Vec2D.getVector(this.counts[off], this.counts[off + 1]);
+		Vec2D distance = Vec2D.sub(nowTacho, this.lastTacho).scale(	Math.PI * RADIUS / 180,
+																	Math.PI * RADIUS / 180);
+		this.lastTacho.setVector(nowTacho);
+
+		double dDisplacement = distance.componentSum() / 2;
+		double dHeading = -distance.componentDiff() / TRACK;
+		this.orientation = Vec2D.fixAngle(this.orientation + dHeading * ANGLE_SCALE);
+		this.dPosition.setMagAngle(dDisplacement, this.orientation);
+		this.position.add(this.dPosition);
+		return this.orientation;
+	}
+}
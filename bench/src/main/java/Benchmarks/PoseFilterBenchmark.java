@@ -0,0 +1,92 @@
+package Benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import MeasurementDevices.PoseFilter;
+
+/**
+ * Cost of the steps of the pose filter: the prediction runs at every
+ * odometer tick, the updates at every line crossing or wall range. Run
+ * through RunBenchmarks, gc.alloc.rate.norm must be 0 B/op for every step.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PoseFilterBenchmark {
+
+	/**
+	 * Spacing of the grid lines [cm]
+	 */
+	private static final double GRID = 30.48;
+
+	/**
+	 * Distance between the wheels [cm]
+	 */
+	private static final double TRACK = 16.8;
+
+	/**
+	 * Correction of the last update
+	 */
+	private double[] correction = new double[3];
+
+	/**
+	 * Filter under test
+	 */
+	private PoseFilter filter;
+
+	/**
+	 * Creates the filter
+	 */
+	@Setup
+	public void setup() {
+		this.filter = new PoseFilter(GRID, -GRID, -GRID, 10 * GRID, 10 * GRID);
+	}
+
+	/**
+	 * Covariance propagation of one tick driving a curve
+	 */
+	@Benchmark
+	public void predict() {
+		this.filter.predict(1.0, 0.5, 0.01, TRACK);
+		this.filter.reset(PoseFilter.INITIAL_POSITION_VARIANCE, PoseFilter.INITIAL_HEADING_VARIANCE);
+	}
+
+	/**
+	 * Crossing of a line along x, 0.3 cm from its prediction
+	 *
+	 * @return Correction of y
+	 */
+	@Benchmark
+	public double updateLine() {
+		this.filter.updateLine(10, 2 * GRID + 11.75 - 0.3, Math.PI / 2, -11.75, this.correction);
+		this.filter.reset(PoseFilter.INITIAL_POSITION_VARIANCE, PoseFilter.INITIAL_HEADING_VARIANCE);
+		return this.correction[1];
+	}
+
+	/**
+	 * Range of the left wall 1 cm closer than predicted, the sensor 5 cm
+	 * ahead of the robot facing it
+	 *
+	 * @return Correction of x
+	 */
+	@Benchmark
+	public double updateRange() {
+		this.filter.updateRange(100, 100, Math.PI, 95 + GRID - 1, 5, 0.0, this.correction);
+		this.filter.reset(PoseFilter.INITIAL_POSITION_VARIANCE, PoseFilter.INITIAL_HEADING_VARIANCE);
+		return this.correction[0];
+	}
+}
@@ -0,0 +1,114 @@
+package Benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Filters.ExponentialFilter;
+import Filters.KalmanFilter;
+import Filters.LowPassFilter;
+
+/**
+ * Benchmarks of the recursive filters, they have no window so they are not
+ * parameterized like FilterBenchmark
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RecursiveFilterBenchmark {
+
+	/**
+	 * Number of pre-generated samples, must be a power of two
+	 */
+	private static final int STREAM = 4096;
+
+	/**
+	 * Exponential moving average
+	 */
+	private ExponentialFilter exponentialFilter;
+
+	/**
+	 * Scalar Kalman filter
+	 */
+	private KalmanFilter kalmanFilter;
+
+	/**
+	 * First-order low-pass filter
+	 */
+	private LowPassFilter lowPassFilter;
+
+	/**
+	 * Index of the next sample of the stream
+	 */
+	private int next = 0;
+
+	/**
+	 * Pre-generated samples, looks like red mode light sensor data
+	 */
+	private float[] stream = new float[STREAM];
+
+	/**
+	 * Builds the filters and the input stream
+	 */
+	@Setup
+	public void setup() {
+		Random rnd = new Random(42);
+		for (int i = 0; i < STREAM; i++)
+			this.stream[i] = 0.45f + 0.02f * (float) rnd.nextGaussian();
+
+		this.exponentialFilter = new ExponentialFilter(0.25f);
+		this.lowPassFilter = new LowPassFilter(10.f, 5.f);
+		this.kalmanFilter = new KalmanFilter(0.0001f, 0.0004f);
+	}
+
+	/**
+	 * @return Index of the next sample of the stream
+	 */
+	private int nextIndex() {
+		this.next = (this.next + 1) & (STREAM - 1);
+		return this.next;
+	}
+
+	/**
+	 * ExponentialFilter.filterSample
+	 *
+	 * @return filtered sample
+	 */
+	@Benchmark
+	public float exponentialFilterSample() {
+		return this.exponentialFilter.filterSample(this.stream[nextIndex()]);
+	}
+
+	/**
+	 * KalmanFilter.filterSample
+	 *
+	 * @return filtered sample
+	 */
+	@Benchmark
+	public float kalmanFilterSample() {
+		return this.kalmanFilter.filterSample(this.stream[nextIndex()]);
+	}
+
+	/**
+	 * LowPassFilter.filterSample
+	 *
+	 * @return filtered sample
+	 */
+	@Benchmark
+	public float lowPassFilterSample() {
+		return this.lowPassFilter.filterSample(this.stream[nextIndex()]);
+	}
+}
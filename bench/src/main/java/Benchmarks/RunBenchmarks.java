@@ -0,0 +1,27 @@
+package Benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar. Runs the benchmarks matching the command line
+ * with the GC profiler attached so the allocation rate per operation
+ * (gc.alloc.rate.norm) is reported next to the throughput and average time.
+ */
+public class RunBenchmarks {
+
+	/**
+	 * @param args JMH command line arguments, e.g. a benchmark regexp
+	 * @throws RunnerException if a benchmark fails
+	 * @throws CommandLineOptionException if the arguments are invalid
+	 */
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		new Runner(new OptionsBuilder()	.parent(new CommandLineOptions(args))
+										.addProfiler(GCProfiler.class)
+										.build()).run();
+	}
+}
@@ -2,9 +2,10 @@ package Controllers;
 
 import EV3Hardware.Robot;
 import Sensors.UltrasonicSensor;
+import Utility.ScheduledTask;
+import Utility.Scheduler;
 import Utility.TimerInterface;
 import lejos.utility.Delay;
-import lejos.utility.Timer;
 import lejos.utility.TimerListener;
 
 /**
@@ -67,7 +68,7 @@ public class PController implements TimerListener, TimerInterface {
 	/**
 	 * Timer for automatic polling
 	 */
-	private Timer pTimer;
+	private ScheduledTask pTimer;
 
 	/**
 	 * Instance of the UltraSonic sensor
@@ -89,7 +90,7 @@ public class PController implements TimerListener, TimerInterface {
 		this.us = us;
 
 		// - Create a timer
-		this.pTimer = new Timer(PController.TICK_RATE, this);
+		this.pTimer = Scheduler.CONTROL.schedule(this, PController.TICK_RATE);
 		this.pTimer.start();
 	}
 
@@ -143,8 +144,7 @@ public class PController implements TimerListener, TimerInterface {
 		if (!this.isPControlling)
 			return;
 
-		if (this.us.getSample() != null)
-			this.distance = this.us.getSample()[0];
+		this.distance = this.us.getDistanceCm();
 		int diff;
 		int distError = 0;
 
@@ -1,5 +1,6 @@
 package EV3Hardware;
 
+import Utility.MotionState;
 import Utility.Vec2D;
 import lejos.hardware.ev3.LocalEV3;
 import lejos.hardware.lcd.TextLCD;
@@ -155,6 +156,24 @@ public class Robot {
 								rightMotor.getTachoCount());
 	}
 
+	/**
+	 * Reads the left tachometer without allocating nor locking
+	 * 
+	 * @return Tachometer count of the left wheel [deg]
+	 */
+	public static int getLeftTachoCount() {
+		return Robot.leftMotor.getTachoCount();
+	}
+
+	/**
+	 * Reads the right tachometer without allocating nor locking
+	 * 
+	 * @return Tachometer count of the right wheel [deg]
+	 */
+	public static int getRightTachoCount() {
+		return Robot.rightMotor.getTachoCount();
+	}
+
 	/**
 	 * Rotate method for the square driver to turn 90 right
 	 * 
@@ -162,10 +181,37 @@ public class Robot {
 	 * @param rSpeed Right wheel's speed
 	 */
 	public static void rotateAngle(int lSpeed, int rSpeed) {
+		// - The right wheel turns backward
+		MotionState.setCommandedSpeeds(lSpeed, -rSpeed);
 		Robot.leftMotor.setSpeed(lSpeed);
 		Robot.rightMotor.setSpeed(rSpeed);
 		Robot.leftMotor.rotate(convertAngle(45), true);
 		Robot.rightMotor.rotate(-convertAngle(45), false);
+		// - The rotation is over
+		MotionState.setCommandedSpeeds(0, 0);
+	}
+
+	/**
+	 * Starts the turn of rotateAngle and returns at once, the commanded speeds
+	 * are those of the turn until the next call to setSpeeds
+	 * 
+	 * @param lSpeed Left wheel's speed
+	 * @param rSpeed Right wheel's speed
+	 */
+	public static void startRotateAngle(int lSpeed, int rSpeed) {
+		// - The right wheel turns backward
+		MotionState.setCommandedSpeeds(lSpeed, -rSpeed);
+		Robot.leftMotor.setSpeed(lSpeed);
+		Robot.rightMotor.setSpeed(rSpeed);
+		Robot.leftMotor.rotate(convertAngle(45), true);
+		Robot.rightMotor.rotate(-convertAngle(45), true);
+	}
+
+	/**
+	 * @return True while a wheel is still turning towards its target angle
+	 */
+	public static boolean isMoving() {
+		return Robot.leftMotor.isMoving() || Robot.rightMotor.isMoving();
 	}
 
 	/**
@@ -175,10 +221,13 @@ public class Robot {
 	 * @param rSpeed Right wheel's speed
 	 */
 	public static void rotateDistance(int lSpeed, int rSpeed) {
+		MotionState.setCommandedSpeeds(lSpeed, rSpeed);
 		Robot.leftMotor.setSpeed(lSpeed);
 		Robot.rightMotor.setSpeed(rSpeed);
 		Robot.leftMotor.rotate(convertDistance(60.96), true);
 		Robot.rightMotor.rotate(convertDistance(60.96), false);
+		// - The rotation is over
+		MotionState.setCommandedSpeeds(0, 0);
 	}
 
 	/**
@@ -188,10 +237,13 @@ public class Robot {
 	 * @param rSpeed Right wheel's speed
 	 */
 	public static void rotateDistanceLocalization(int lSpeed, int rSpeed) {
+		MotionState.setCommandedSpeeds(lSpeed, rSpeed);
 		Robot.leftMotor.setSpeed(lSpeed);
 		Robot.rightMotor.setSpeed(rSpeed);
 		Robot.leftMotor.rotate(convertDistance(15), true);
 		Robot.rightMotor.rotate(convertDistance(15), false);
+		// - The rotation is over
+		MotionState.setCommandedSpeeds(0, 0);
 	}
 
 	/**
@@ -201,6 +253,7 @@ public class Robot {
 	 * @param rSpeed speed of the right motor
 	 */
 	public static void setSpeeds(int lSpeed, int rSpeed) {
+		MotionState.setCommandedSpeeds(lSpeed, rSpeed);
 		Robot.leftMotor.setSpeed(lSpeed);
 		Robot.rightMotor.setSpeed(rSpeed);
 		if (lSpeed < 0.0)
@@ -0,0 +1,51 @@
+package Filters;
+
+/**
+ * Adapter exposing a FloatFilter through the Filter&lt;Float&gt; interface
+ */
+public class BoxedFloatFilter implements Filter<Float> {
+
+	/**
+	 * Primitive filter doing the actual work
+	 */
+	private final FloatFilter filter;
+
+	/**
+	 * Wraps a primitive filter
+	 * 
+	 * @param filter filter to wrap
+	 */
+	public BoxedFloatFilter(FloatFilter filter) {
+		assert(filter != null);
+		this.filter = filter;
+	}
+
+	/**
+	 * Filters a block of consecutive samples without boxing them
+	 * 
+	 * @param in samples to filter
+	 * @param off index of the first sample
+	 * @param len number of samples to filter
+	 * @param out filtered results
+	 * @see Filters.FloatFilter#filterBlock(float[], int, int, float[])
+	 */
+	public void filterBlock(float[] in, int off, int len, float[] out) {
+		this.filter.filterBlock(in, off, len, out);
+	}
+
+	/**
+	 * @return The wrapped primitive filter
+	 */
+	public FloatFilter getFloatFilter() {
+		return this.filter;
+	}
+
+	/**
+	 * This method filters the sample and returns the result
+	 */
+	@SuppressWarnings("boxing")
+	@Override
+	public Float filterSample(Float x) {
+		return this.filter.filterSample(x);
+	}
+}
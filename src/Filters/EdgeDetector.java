@@ -0,0 +1,211 @@
+package Filters;
+
+/**
+ * This class detects the edges of a sampled signal, e.g. the grid lines seen
+ * by the light sensor. It is a Schmitt trigger: the signal must go below the
+ * lower threshold to produce a falling edge and above the upper threshold to
+ * produce a rising edge, so noise between the two thresholds is ignored. An
+ * edge is only reported after 'debounce' consecutive samples beyond the
+ * threshold and carries the timestamp of the first of them.
+ * The detector is fed on the sampling thread, it does not allocate and its
+ * listener is called on that thread.
+ */
+public class EdgeDetector {
+
+	/**
+	 * Number of consecutive samples beyond the threshold
+	 */
+	private int beyond = 0;
+
+	/**
+	 * Timestamp of the first sample beyond the threshold
+	 */
+	private long candidateTime = 0;
+
+	/**
+	 * Value of the first sample beyond the threshold
+	 */
+	private float candidateValue = 0.f;
+
+	/**
+	 * Number of consecutive samples needed to report an edge
+	 */
+	private final int debounce;
+
+	/**
+	 * Number of edges detected
+	 */
+	private volatile int edges = 0;
+
+	/**
+	 * Flag indicating the signal is high, only valid once initialized
+	 */
+	private boolean high = false;
+
+	/**
+	 * Flag indicating that the first sample was received
+	 */
+	private boolean initialized = false;
+
+	/**
+	 * Direction of the last edge
+	 */
+	private volatile boolean lastRising = false;
+
+	/**
+	 * Timestamp of the last edge
+	 */
+	private volatile long lastTime = 0;
+
+	/**
+	 * Object notified of the edges, may be null
+	 */
+	private final EdgeListener listener;
+
+	/**
+	 * Threshold the signal must go below to produce a falling edge
+	 */
+	private final float lower;
+
+	/**
+	 * Flag indicating that the last sample was inside the band of hysteresis
+	 * or started an unconfirmed edge
+	 */
+	private volatile boolean pending = false;
+
+	/**
+	 * Threshold the signal must go above to produce a rising edge
+	 */
+	private final float upper;
+
+	/**
+	 * Creates an edge detector
+	 * 
+	 * @param lower threshold the signal must go below to produce a falling
+	 *            edge
+	 * @param upper threshold the signal must go above to produce a rising
+	 *            edge, at least 'lower'
+	 * @param debounce number of consecutive samples beyond a threshold needed
+	 *            to report an edge
+	 * @param listener object notified of the edges, may be null
+	 */
+	public EdgeDetector(float lower, float upper, int debounce,
+						EdgeListener listener) {
+		assert(lower <= upper);
+		assert(debounce > 0);
+		this.lower = lower;
+		this.upper = upper;
+		this.debounce = debounce;
+		this.listener = listener;
+	}
+
+	/**
+	 * Creates an edge detector with a band of hysteresis around a threshold
+	 * 
+	 * @param threshold center of the band
+	 * @param hysteresis half width of the band
+	 * @param debounce number of consecutive samples beyond a threshold needed
+	 *            to report an edge
+	 * @param listener object notified of the edges, may be null
+	 * @return Edge detector with thresholds threshold -/+ hysteresis
+	 */
+	public static EdgeDetector withHysteresis(	float threshold,
+												float hysteresis, int debounce,
+												EdgeListener listener) {
+		assert(hysteresis >= 0.f);
+		return new EdgeDetector(threshold - hysteresis, threshold + hysteresis,
+								debounce, listener);
+	}
+
+	/**
+	 * @return Number of edges detected since the creation or the last reset
+	 */
+	public int getEdgeCount() {
+		return this.edges;
+	}
+
+	/**
+	 * @return Timestamp of the last edge [ms]
+	 */
+	public long getLastEdgeTime() {
+		return this.lastTime;
+	}
+
+	/**
+	 * @return True if the signal is high, the first sample sets the state
+	 *         without producing an edge
+	 */
+	public boolean isHigh() {
+		return this.high;
+	}
+
+	/**
+	 * @return True if an edge may be about to be detected: the last sample was
+	 *         between the thresholds or beyond one without being confirmed yet
+	 */
+	public boolean isPending() {
+		return this.pending;
+	}
+
+	/**
+	 * @return True if the last edge was rising
+	 */
+	public boolean isLastEdgeRising() {
+		return this.lastRising;
+	}
+
+	/**
+	 * Feeds a sample to the detector
+	 * 
+	 * @param value sample
+	 * @param timestamp time of the sample [ms]
+	 * @return True if the sample completed an edge
+	 */
+	public boolean process(float value, long timestamp) {
+		// - The first sample sets the state of the signal
+		if (!this.initialized) {
+			this.initialized = true;
+			this.high = value > (this.lower + this.upper) / 2;
+			return false;
+		}
+
+		boolean crossing = this.high ? value < this.lower : value > this.upper;
+		if (!crossing) {
+			this.beyond = 0;
+			this.pending = value >= this.lower && value <= this.upper;
+			return false;
+		}
+		this.pending = true;
+
+		// - Remember the first sample of the run
+		if (this.beyond++ == 0) {
+			this.candidateTime = timestamp;
+			this.candidateValue = value;
+		}
+		if (this.beyond < this.debounce)
+			return false;
+
+		// - The edge is confirmed
+		this.high = !this.high;
+		this.beyond = 0;
+		this.pending = false;
+		this.lastRising = this.high;
+		this.lastTime = this.candidateTime;
+		this.edges++;
+		if (this.listener != null)
+			this.listener.onEdge(this.high, this.candidateTime,
+									this.candidateValue);
+		return true;
+	}
+
+	/**
+	 * Clears the state of the detector, the next sample sets the state of the
+	 * signal
+	 */
+	public void reset() {
+		this.initialized = false;
+		this.beyond = 0;
+		this.pending = false;
+		this.edges = 0;
+	}
+}
@@ -0,0 +1,102 @@
+package Filters;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * EdgeDetectorTest
+ */
+public class EdgeDetectorTest {
+
+	/**
+	 * Listener recording the last edge
+	 */
+	private static class Recorder implements EdgeListener {
+
+		/**
+		 * Number of edges
+		 */
+		int count = 0;
+
+		/**
+		 * Direction of the last edge
+		 */
+		boolean rising = false;
+
+		/**
+		 * Timestamp of the last edge
+		 */
+		long timestamp = 0;
+
+		/**
+		 * Value of the last edge
+		 */
+		float value = 0.f;
+
+		/**
+		 * @see Filters.EdgeListener#onEdge(boolean, long, float)
+		 */
+		@Override
+		public void onEdge(boolean pRising, long pTimestamp, float pValue) {
+			this.count++;
+			this.rising = pRising;
+			this.timestamp = pTimestamp;
+			this.value = pValue;
+		}
+	}
+
+	/**
+	 * testDebounce
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testDebounce() {
+		Recorder r = new Recorder();
+		EdgeDetector ed = new EdgeDetector(0.3f, 0.4f, 3, r);
+
+		ed.process(0.5f, 0);
+		// - A two sample glitch is ignored
+		assertFalse(ed.process(0.1f, 5));
+		assertFalse(ed.process(0.1f, 10));
+		assertFalse(ed.process(0.5f, 15));
+		assertEquals(0, r.count);
+
+		// - Three samples make an edge timed on the first one
+		assertFalse(ed.process(0.2f, 20));
+		assertFalse(ed.process(0.1f, 25));
+		assertTrue(ed.process(0.1f, 30));
+		assertEquals(1, r.count);
+		assertFalse(r.rising);
+		assertEquals(20, r.timestamp);
+		assertEquals(0.2f, r.value, 0.f);
+		assertEquals(20, ed.getLastEdgeTime());
+	}
+
+	/**
+	 * testHysteresis
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testHysteresis() {
+		Recorder r = new Recorder();
+		EdgeDetector ed = EdgeDetector.withHysteresis(0.35f, 0.05f, 1, r);
+		float[] signal = { 0.5f, 0.32f, 0.38f, 0.32f, 0.29f, 0.36f, 0.39f, 0.33f, 0.41f, 0.5f };
+
+		for (int i = 0; i < signal.length; i++)
+			ed.process(signal[i], i * 5);
+
+		// - Only the crossings of the band are edges
+		assertEquals(2, r.count);
+		assertEquals(2, ed.getEdgeCount());
+		assertTrue(r.rising);
+		assertTrue(ed.isLastEdgeRising());
+		assertTrue(ed.isHigh());
+		assertEquals(40, r.timestamp);
+
+		ed.reset();
+		assertEquals(0, ed.getEdgeCount());
+	}
+}
@@ -0,0 +1,18 @@
+package Filters;
+
+/**
+ * Interface of the objects notified of the edges found by an EdgeDetector
+ */
+public interface EdgeListener {
+
+	/**
+	 * Called on the sampling thread when an edge is detected, implementations
+	 * must return quickly
+	 * 
+	 * @param rising true when the signal went above the upper threshold and
+	 *            false when it went below the lower one
+	 * @param timestamp time of the first sample beyond the threshold [ms]
+	 * @param value first sample beyond the threshold
+	 */
+	public void onEdge(boolean rising, long timestamp, float value);
+}
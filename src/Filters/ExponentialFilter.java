@@ -0,0 +1,95 @@
+package Filters;
+
+/**
+ * This class implements an exponential moving average:
+ * y_k = y_(k-1) + alpha * (x_k - y_(k-1))
+ */
+public class ExponentialFilter implements RecursiveFilter {
+
+	/**
+	 * Smoothing factor in ]0, 1], 1 disables the filtering
+	 */
+	private final float alpha;
+
+	/**
+	 * Flag indicating that the first sample was received
+	 */
+	private boolean initialized = false;
+
+	/**
+	 * Last output of the filter
+	 */
+	private float y = 0.f;
+
+	/**
+	 * Creates an exponential moving average
+	 * 
+	 * @param alpha smoothing factor in ]0, 1]
+	 */
+	public ExponentialFilter(float alpha) {
+		assert(alpha > 0.f && alpha <= 1.f);
+		this.alpha = alpha;
+	}
+
+	/**
+	 * @see Filters.FloatFilter#filterBlock(float[], int, int, float[])
+	 */
+	@Override
+	public void filterBlock(float[] in, int off, int len, float[] out) {
+		assert(in != null && out != null);
+		if (len <= 0)
+			return;
+
+		int i = off;
+		if (!this.initialized)
+			out[i] = filterSample(in[i++]);
+
+		float a = this.alpha;
+		float v = this.y;
+		for (; i < off + len; i++) {
+			v += a * (in[i] - v);
+			out[i] = v;
+		}
+		this.y = v;
+	}
+
+	/**
+	 * This method filters the sample and returns the result
+	 */
+	@Override
+	public float filterSample(float x) {
+		// - The first sample initializes the filter to avoid a ramp from 0
+		if (!this.initialized) {
+			this.initialized = true;
+			this.y = x;
+		} else {
+			this.y += this.alpha * (x - this.y);
+		}
+
+		return this.y;
+	}
+
+	/**
+	 * @return Smoothing factor of the filter
+	 */
+	public float getAlpha() {
+		return this.alpha;
+	}
+
+	/**
+	 * The group delay of an exponential moving average is (1 - alpha) / alpha
+	 */
+	@Override
+	public float getGroupDelay() {
+		return (1.f - this.alpha) / this.alpha;
+	}
+
+	/**
+	 * @see Filters.RecursiveFilter#reset()
+	 */
+	@Override
+	public void reset() {
+		this.initialized = false;
+		this.y = 0.f;
+	}
+}
@@ -0,0 +1,84 @@
+package Filters;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * FilterBlockTest
+ */
+public class FilterBlockTest {
+
+	/**
+	 * Filters the same stream one sample at a time and in uneven chunks and
+	 * checks that both give the same results
+	 *
+	 * @param single filter used sample by sample
+	 * @param block filter used block by block
+	 */
+	private static void compareBlockWithSamples(FloatFilter single, FloatFilter block) {
+		Random rnd = new Random(11);
+		float[] in = new float[1000];
+		float[] out = new float[in.length];
+
+		for (int i = 0; i < in.length; i++)
+			in[i] = rnd.nextFloat() * 255.f;
+
+		int off = 0;
+		while (off < in.length) {
+			int len = Math.min(1 + rnd.nextInt(37), in.length - off);
+			block.filterBlock(in, off, len, out);
+			off += len;
+		}
+
+		for (int i = 0; i < in.length; i++)
+			assertEquals(Float.floatToIntBits(single.filterSample(in[i])), Float.floatToIntBits(out[i]));
+	}
+
+	/**
+	 * testAverageFilterBlock
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testAverageFilterBlock() {
+		for (int width = 1; width <= 16; width++)
+			compareBlockWithSamples(new FloatAverageFilter(width), new FloatAverageFilter(width));
+	}
+
+	/**
+	 * testExponentialFilterBlock
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testExponentialFilterBlock() {
+		compareBlockWithSamples(new ExponentialFilter(0.3f), new ExponentialFilter(0.3f));
+		compareBlockWithSamples(new KalmanFilter(0.01f, 4.f), new KalmanFilter(0.01f, 4.f));
+	}
+
+	/**
+	 * testInPlace
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testInPlace() {
+		float[] x = { 1.f, 2.f, 3.f, 4.f, 5.f, 6.f };
+		new FloatAverageFilter(2).filterBlock(x, 0, x.length, x);
+
+		assertEquals(1.f, x[0], 0.000001f);
+		assertEquals(2.f, x[1], 0.000001f);
+		assertEquals(2.5f, x[2], 0.000001f);
+		assertEquals(5.5f, x[5], 0.000001f);
+	}
+
+	/**
+	 * testMedianFilterBlock
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testMedianFilterBlock() {
+		for (int width = 1; width <= 16; width++)
+			compareBlockWithSamples(new FloatMedianFilter(width), new FloatMedianFilter(width));
+	}
+}
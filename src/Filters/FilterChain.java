@@ -0,0 +1,304 @@
+package Filters;
+
+import java.util.Arrays;
+
+/**
+ * This class implements a pipeline of filtering stages run in a single pass
+ * per sample. The history of every stage lives in one shared primitive buffer
+ * so a median followed by a moving average touches a single array and nothing
+ * is boxed or allocated while filtering.
+ * Stages are appended with the add methods, e.g.
+ * new FilterChain().addMedian(5).addAverage(3).
+ * Windowed stages work on the samples gathered so far until their window is
+ * full, so the chain produces a filtered value from the first sample.
+ */
+public class FilterChain implements FloatFilter {
+
+	/**
+	 * Moving average stage
+	 */
+	private static final int AVERAGE = 0;
+
+	/**
+	 * Clamping stage
+	 */
+	private static final int CLAMP = 1;
+
+	/**
+	 * Decimation stage
+	 */
+	private static final int DECIMATE = 2;
+
+	/**
+	 * Median stage
+	 */
+	private static final int MEDIAN = 3;
+
+	/**
+	 * Inserts x in the sorted segment buf[off, off + n[
+	 *
+	 * @param buf shared buffer
+	 * @param off offset of the sorted segment
+	 * @param n number of sorted values before the insertion
+	 * @param x value to insert
+	 */
+	static void insertSorted(float[] buf, int off, int n, float x) {
+		int i = off + n;
+		while (i > off && Float.compare(buf[i - 1], x) > 0) {
+			buf[i] = buf[i - 1];
+			i--;
+		}
+		buf[i] = x;
+	}
+
+	/**
+	 * Removes one occurrence of x from the sorted segment buf[off, off + n[
+	 *
+	 * @param buf shared buffer
+	 * @param off offset of the sorted segment
+	 * @param n number of sorted values before the removal
+	 * @param x value to remove, it must be in the segment
+	 */
+	static void removeSorted(float[] buf, int off, int n, float x) {
+		int lo = off;
+		int hi = off + n - 1;
+
+		// - Binary search of the value
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (Float.compare(buf[mid], x) < 0)
+				lo = mid + 1;
+			else
+				hi = mid;
+		}
+		assert(Float.compare(buf[lo], x) == 0);
+		System.arraycopy(buf, lo + 1, buf, lo, off + n - 1 - lo);
+	}
+
+	/**
+	 * Computes the median of the sorted segment buf[off, off + n[
+	 *
+	 * @param buf shared buffer
+	 * @param off offset of the sorted segment
+	 * @param n number of sorted values
+	 * @return Median value of the segment
+	 */
+	static float sortedMedian(float[] buf, int off, int n) {
+		assert(n > 0);
+		if ((n & 1) == 0)
+			return (buf[off + n / 2 - 1] + buf[off + n / 2]) / 2;
+		return buf[off + n / 2];
+	}
+
+	/**
+	 * Shared buffer holding the history of every stage
+	 */
+	private float[] buffer = new float[0];
+
+	/**
+	 * Number of samples in the history of each stage, or the decimation phase
+	 */
+	private int[] count = new int[0];
+
+	/**
+	 * Type of each stage
+	 */
+	private int[] kind = new int[0];
+
+	/**
+	 * Next ring slot of each stage
+	 */
+	private int[] next = new int[0];
+
+	/**
+	 * Offset of the history of each stage in the shared buffer
+	 */
+	private int[] offset = new int[0];
+
+	/**
+	 * Last value produced by the chain, repeated by decimation stages
+	 */
+	private float output = 0.f;
+
+	/**
+	 * First parameter of each stage: lower bound
+	 */
+	private float[] paramA = new float[0];
+
+	/**
+	 * Second parameter of each stage: upper bound
+	 */
+	private float[] paramB = new float[0];
+
+	/**
+	 * Number of stages
+	 */
+	private int stages = 0;
+
+	/**
+	 * Running sum of each average stage, kept in double to avoid drifting
+	 */
+	private double[] sum = new double[0];
+
+	/**
+	 * Window of each stage, or the decimation factor
+	 */
+	private int[] width = new int[0];
+
+	/**
+	 * Appends a moving average stage
+	 *
+	 * @param window size of the window
+	 * @return this
+	 */
+	public FilterChain addAverage(int window) {
+		assert(window > 0);
+		return addStage(AVERAGE, window, window, 0.f, 0.f);
+	}
+
+	/**
+	 * Appends a stage limiting the samples to [min, max]
+	 *
+	 * @param min lower bound
+	 * @param max upper bound
+	 * @return this
+	 */
+	public FilterChain addClamp(float min, float max) {
+		assert(min <= max);
+		return addStage(CLAMP, 0, 0, min, max);
+	}
+
+	/**
+	 * Appends a stage passing one sample out of 'factor' to the next stages.
+	 * The chain repeats its last output for the dropped samples.
+	 *
+	 * @param factor decimation factor
+	 * @return this
+	 */
+	public FilterChain addDecimation(int factor) {
+		assert(factor > 0);
+		return addStage(DECIMATE, factor, 0, 0.f, 0.f);
+	}
+
+	/**
+	 * Appends a median stage
+	 *
+	 * @param window size of the window
+	 * @return this
+	 */
+	public FilterChain addMedian(int window) {
+		assert(window > 0);
+		// - The ring is followed by a sorted copy of it
+		return addStage(MEDIAN, window, 2 * window, 0.f, 0.f);
+	}
+
+	/**
+	 * Adds a stage and grows the shared buffer, this is only done while the
+	 * chain is built
+	 *
+	 * @param type type of the stage
+	 * @param w window or factor of the stage
+	 * @param storage number of floats of history
+	 * @param a first parameter
+	 * @param b second parameter
+	 * @return this
+	 */
+	private FilterChain addStage(int type, int w, int storage, float a, float b) {
+		int s = this.stages++;
+		this.kind = Arrays.copyOf(this.kind, this.stages);
+		this.width = Arrays.copyOf(this.width, this.stages);
+		this.offset = Arrays.copyOf(this.offset, this.stages);
+		this.count = Arrays.copyOf(this.count, this.stages);
+		this.next = Arrays.copyOf(this.next, this.stages);
+		this.paramA = Arrays.copyOf(this.paramA, this.stages);
+		this.paramB = Arrays.copyOf(this.paramB, this.stages);
+		this.sum = Arrays.copyOf(this.sum, this.stages);
+
+		this.kind[s] = type;
+		this.width[s] = w;
+		this.offset[s] = this.buffer.length;
+		this.paramA[s] = a;
+		this.paramB[s] = b;
+		this.buffer = Arrays.copyOf(this.buffer, this.buffer.length + storage);
+		return this;
+	}
+
+	/**
+	 * @see Filters.FloatFilter#filterBlock(float[], int, int, float[])
+	 */
+	@Override
+	public void filterBlock(float[] in, int off, int len, float[] out) {
+		assert(in != null && out != null);
+		for (int i = off; i < off + len; i++)
+			out[i] = filterSample(in[i]);
+	}
+
+	/**
+	 * This method runs the sample through every stage and returns the result
+	 */
+	@Override
+	public float filterSample(float x) {
+		float[] buf = this.buffer;
+		float v = x;
+
+		for (int s = 0; s < this.stages; s++) {
+			int w = this.width[s];
+			int off = this.offset[s];
+			int n = this.count[s];
+			int slot = off + this.next[s];
+
+			switch (this.kind[s]) {
+				case AVERAGE:
+					// - Running sum over the ring
+					if (n == w)
+						this.sum[s] -= buf[slot];
+					else
+						this.count[s] = ++n;
+					buf[slot] = v;
+					this.sum[s] += v;
+					this.next[s] = (this.next[s] + 1 == w) ? 0 : this.next[s] + 1;
+					v = (float) (this.sum[s] / n);
+					break;
+
+				case CLAMP:
+					v = Math.max(this.paramA[s], Math.min(this.paramB[s], v));
+					break;
+
+				case DECIMATE:
+					// - Pass the first sample of every group of 'factor' and
+					// - drop the others for the stages that follow
+					this.count[s] = (n + 1 == w) ? 0 : n + 1;
+					if (n != 0)
+						return this.output;
+					break;
+
+				case MEDIAN:
+					// - The sorted copy follows the ring in the buffer
+					if (n == w)
+						removeSorted(buf, off + w, n--, buf[slot]);
+					insertSorted(buf, off + w, n++, v);
+					this.count[s] = n;
+					buf[slot] = v;
+					this.next[s] = (this.next[s] + 1 == w) ? 0 : this.next[s] + 1;
+					v = sortedMedian(buf, off + w, n);
+					break;
+
+				default:
+					assert(false);
+			}
+		}
+
+		this.output = v;
+		return v;
+	}
+
+	/**
+	 * Clears the history of every stage
+	 */
+	public void reset() {
+		Arrays.fill(this.count, 0);
+		Arrays.fill(this.next, 0);
+		Arrays.fill(this.sum, 0.0);
+		this.output = 0.f;
+	}
+}
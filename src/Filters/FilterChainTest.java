@@ -0,0 +1,98 @@
+package Filters;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * FilterChainTest
+ */
+public class FilterChainTest {
+
+	/**
+	 * testAverage
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testAverage() {
+		FilterChain fc = new FilterChain().addAverage(3);
+
+		assertEquals(3.f, fc.filterSample(3.f), 0.000001f);
+		assertEquals(4.f, fc.filterSample(5.f), 0.000001f);
+		assertEquals(5.f, fc.filterSample(7.f), 0.000001f);
+		assertEquals(7.f, fc.filterSample(9.f), 0.000001f);
+	}
+
+	/**
+	 * testClamp
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testClamp() {
+		FilterChain fc = new FilterChain().addClamp(0.f, 2.f);
+
+		assertEquals(0.f, fc.filterSample(-1.f), 0.f);
+		assertEquals(1.f, fc.filterSample(1.f), 0.f);
+		assertEquals(2.f, fc.filterSample(2.55f), 0.f);
+	}
+
+	/**
+	 * testDecimation
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testDecimation() {
+		FilterChain fc = new FilterChain().addDecimation(3).addAverage(2);
+
+		assertEquals(1.f, fc.filterSample(1.f), 0.000001f);
+		assertEquals(1.f, fc.filterSample(2.f), 0.000001f);
+		assertEquals(1.f, fc.filterSample(3.f), 0.000001f);
+		assertEquals(2.5f, fc.filterSample(4.f), 0.000001f);
+		assertEquals(2.5f, fc.filterSample(5.f), 0.000001f);
+	}
+
+	/**
+	 * testMedian compares the median stage with the sliding median
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testMedian() {
+		Random rnd = new Random(5);
+
+		for (int width = 1; width <= 12; width++) {
+			FilterChain fc = new FilterChain().addMedian(width);
+			SlidingMedian sm = new SlidingMedian(width);
+
+			for (int i = 0; i < 300; i++) {
+				float x = rnd.nextInt(20) * 0.25f;
+				sm.push(x);
+				assertEquals(Float.floatToIntBits(sm.median()), Float.floatToIntBits(fc.filterSample(x)));
+			}
+		}
+	}
+
+	/**
+	 * testMedianThenAverage compares the fused pipeline with separate stages
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testMedianThenAverage() {
+		Random rnd = new Random(9);
+		FilterChain fc = new FilterChain().addMedian(5).addAverage(4);
+		FilterChain median = new FilterChain().addMedian(5);
+		FilterChain average = new FilterChain().addAverage(4);
+		float[] block = new float[100];
+
+		for (int i = 0; i < block.length; i++)
+			block[i] = (rnd.nextInt(10) == 0) ? 255.f : rnd.nextFloat() * 30.f;
+
+		float[] out = new float[block.length];
+		fc.filterBlock(block, 0, block.length, out);
+
+		for (int i = 0; i < block.length; i++)
+			assertEquals(	Float.floatToIntBits(average.filterSample(median.filterSample(block[i]))),
+							Float.floatToIntBits(out[i]));
+	}
+}
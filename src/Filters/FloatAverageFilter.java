@@ -0,0 +1,122 @@
+package Filters;
+
+/**
+ * This class implements a windowed average filter over primitive floats
+ */
+public class FloatAverageFilter implements FloatFilter {
+
+	/**
+	 * Computes the moving average
+	 * 
+	 * @param pavg previous average
+	 * @param x_k current sample
+	 * @param x_kn last sample of the previous window
+	 * @param window size of the window
+	 * @return new average value
+	 */
+	public static float computeMovingAverage(	float pavg, float x_k, float x_kn,
+												int window) {
+		assert(window != 0);
+		return (pavg + (x_k - x_kn) / window);
+	}
+
+	/**
+	 * Sum of the first n samples and later the average
+	 */
+	private float average = 0.f;
+
+	/**
+	 * Number of gathered samples
+	 */
+	private int gatheredSamples = 0;
+
+	/**
+	 * Next ring slot to write, it is also the oldest one when the window is full
+	 */
+	private int next = 0;
+
+	/**
+	 * Window data holder
+	 */
+	private final float[] qnum;
+
+	/**
+	 * Width of the moving window
+	 */
+	private final int width;
+
+	/**
+	 * Creates a filter for the window of size width
+	 * 
+	 * @param width size of the window
+	 */
+	public FloatAverageFilter(int width) {
+		assert(width > 0);
+		this.width = width;
+		this.qnum = new float[width];
+	}
+
+	/**
+	 * @see Filters.FloatFilter#filterBlock(float[], int, int, float[])
+	 */
+	@Override
+	public void filterBlock(float[] in, int off, int len, float[] out) {
+		assert(in != null && out != null);
+		int end = off + len;
+		int i = off;
+
+		// - Gather samples and compute the first average one by one
+		for (; i < end && this.gatheredSamples <= this.width; i++)
+			out[i] = filterSample(in[i]);
+
+		// - Moving average on locals so the loop only touches the ring
+		float[] ring = this.qnum;
+		int w = this.width;
+		int n = this.next;
+		float avg = this.average;
+		for (; i < end; i++) {
+			float x = in[i];
+			float oldest = ring[n];
+			ring[n] = x;
+			if (++n == w)
+				n = 0;
+			avg = avg + (x - oldest) / w;
+			out[i] = avg;
+		}
+		this.next = n;
+		this.average = avg;
+	}
+
+	/**
+	 * This method filters the sample and returns the result
+	 */
+	@Override
+	public float filterSample(float x) {
+		// - Gather samples before computing the average
+		if (this.gatheredSamples < this.width) {
+			this.qnum[this.next] = x;
+			this.next = (this.next + 1 == this.width) ? 0 : this.next + 1;
+			this.gatheredSamples++;
+			return x;
+		}
+
+		// - Now, we have enough samples to compute the average, the ring has
+		// - wrapped so the newest sample is the last one
+		if (this.gatheredSamples == this.width) {
+			for (int i = this.width - 1; i >= 0; i--)
+				this.average += this.qnum[i];
+
+			this.average /= this.width;
+			this.gatheredSamples++;
+		}
+
+		// - Replace the oldest sample and compute the moving average
+		float oldest = this.qnum[this.next];
+		this.qnum[this.next] = x;
+		this.next = (this.next + 1 == this.width) ? 0 : this.next + 1;
+		this.average = computeMovingAverage(this.average, x, oldest,
+											this.width);
+
+		return this.average;
+	}
+}
@@ -0,0 +1,71 @@
+package Filters;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Deque;
+import java.util.LinkedList;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * FloatAverageFilterTest
+ */
+public class FloatAverageFilterTest {
+
+	/**
+	 * testAdapters checks that the boxed adapters and AverageFilter give the
+	 * samples of the primitive average filter
+	 */
+	@SuppressWarnings({ "static-method", "boxing" })
+	@Test
+	public void testAdapters() {
+		Random rnd = new Random(7);
+		FloatFilter direct = new FloatAverageFilter(4);
+		FloatFilter roundTrip = new UnboxedFloatFilter(new BoxedFloatFilter(new FloatAverageFilter(4)));
+		Filter<Float> boxed = new AverageFilter(4);
+
+		for (int i = 0; i < 200; i++) {
+			float x = rnd.nextFloat() * 255.f;
+			float expected = direct.filterSample(x);
+			assertEquals(Float.floatToIntBits(expected), Float.floatToIntBits(roundTrip.filterSample(x)));
+			assertEquals(Float.floatToIntBits(expected), Float.floatToIntBits(boxed.filterSample(x)));
+		}
+	}
+
+	/**
+	 * testFilterSample compares the ring buffer implementation with the
+	 * deque based moving average it replaces
+	 */
+	@SuppressWarnings({ "static-method", "boxing" })
+	@Test
+	public void testFilterSample() {
+		Random rnd = new Random(3);
+
+		for (int width = 1; width <= 9; width++) {
+			FloatAverageFilter af = new FloatAverageFilter(width);
+			Deque<Float> qnum = new LinkedList<>();
+			Float average = 0.f;
+
+			for (int i = 0; i < 300; i++) {
+				float x = rnd.nextFloat() * 255.f;
+				Float expected = x;
+
+				if (i < width) {
+					qnum.offerFirst(x);
+				} else {
+					if (i == width) {
+						for (Float e : qnum)
+							average += e;
+						average /= width;
+					}
+					qnum.offerFirst(x);
+					average = AverageFilter.computeMovingAverage(average, x, qnum.pollLast(), width);
+					expected = average;
+				}
+
+				assertEquals(Float.floatToIntBits(expected), Float.floatToIntBits(af.filterSample(x)));
+			}
+		}
+	}
+}
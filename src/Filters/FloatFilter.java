@@ -0,0 +1,30 @@
+package Filters;
+
+/**
+ * A basic interface to a filter working on primitive floats. Implementations
+ * must not allocate memory when filtering a sample or a block of samples.
+ */
+public interface FloatFilter {
+
+	/**
+	 * Filters a block of consecutive samples. The state of the filter is kept
+	 * across calls so a long stream can be processed in chunks and gives the
+	 * same results as calling filterSample on every sample. The result of
+	 * in[off + i] is written to out[off + i], in and out may be the same array.
+	 * 
+	 * @param in samples to filter
+	 * @param off index of the first sample
+	 * @param len number of samples to filter
+	 * @param out filtered results
+	 */
+	public void filterBlock(float[] in, int off, int len, float[] out);
+
+	/**
+	 * Filters a sample using a strategy defined by the implementing class
+	 * 
+	 * @param x value of the current sample
+	 * @return filtered result
+	 */
+	public float filterSample(float x);
+
+}
@@ -0,0 +1,58 @@
+package Filters;
+
+/**
+ * This class implements a windowed median filter over primitive floats.
+ */
+public class FloatMedianFilter implements FloatFilter {
+
+	/**
+	 * Sliding window holding the latest samples
+	 */
+	private final SlidingMedian window;
+
+	/**
+	 * Creates a filter for the window of size width
+	 * 
+	 * @param width size of the window
+	 */
+	public FloatMedianFilter(int width) {
+		this.window = new SlidingMedian(width);
+	}
+
+	/**
+	 * @see Filters.FloatFilter#filterBlock(float[], int, int, float[])
+	 */
+	@Override
+	public void filterBlock(float[] in, int off, int len, float[] out) {
+		assert(in != null && out != null);
+		SlidingMedian sm = this.window;
+		int end = off + len;
+		int i = off;
+
+		// - Gather samples before computing the median
+		for (; i < end && !sm.isFull(); i++) {
+			float x = in[i];
+			sm.push(x);
+			out[i] = sm.isFull() ? sm.median() : x;
+		}
+
+		for (; i < end; i++) {
+			sm.push(in[i]);
+			out[i] = sm.median();
+		}
+	}
+
+	/**
+	 * This method filters the sample and returns the result
+	 */
+	@Override
+	public float filterSample(float x) {
+		this.window.push(x);
+
+		// - Gather samples before computing the median
+		if (!this.window.isFull())
+			return x;
+
+		return this.window.median();
+	}
+}
@@ -0,0 +1,150 @@
+package Filters;
+
+/**
+ * This class implements a streaming Hampel filter. A sample is an outlier when
+ * it is further from the median of the window than 'threshold' times the
+ * scaled median absolute deviation (MAD) of the window. Outliers are replaced
+ * by the median and every other sample is passed through untouched, so a
+ * clean signal is not delayed.
+ * The median of the window is maintained incrementally by a SlidingMedian and
+ * the MAD is computed in the scratch buffer of the filter, nothing is
+ * allocated once the filter is constructed. Infinite samples, e.g. when the
+ * ultrasonic sensor gets no echo, are ordered like any other sample.
+ */
+public class HampelFilter implements FloatFilter {
+
+	/**
+	 * Scale factor making the MAD a consistent estimator of the standard
+	 * deviation for gaussian noise
+	 */
+	public static final float MAD_SCALE = 1.4826f;
+
+	/**
+	 * Minimum number of samples before outliers are rejected
+	 */
+	private static final int MIN_SAMPLES = 3;
+
+	/**
+	 * Number of samples in the window
+	 */
+	private int count = 0;
+
+	/**
+	 * Scratch buffer for the absolute deviations
+	 */
+	private final float[] deviations;
+
+	/**
+	 * Lower bound of the rejection distance, avoids rejecting everything when
+	 * the signal is flat and the MAD is 0
+	 */
+	private final float minDeviation;
+
+	/**
+	 * Next ring slot to write
+	 */
+	private int next = 0;
+
+	/**
+	 * Number of rejected samples
+	 */
+	private long outliers = 0;
+
+	/**
+	 * Copy of the window used to compute the deviations
+	 */
+	private final float[] ring;
+
+	/**
+	 * Number of scaled MADs a sample must be from the median to be rejected
+	 */
+	private final float threshold;
+
+	/**
+	 * Sliding median of the window
+	 */
+	private final SlidingMedian window;
+
+	/**
+	 * Creates a Hampel filter
+	 * 
+	 * @param width size of the window
+	 * @param threshold number of scaled MADs beyond which a sample is rejected,
+	 *            3 is the usual choice
+	 */
+	public HampelFilter(int width, float threshold) {
+		this(width, threshold, 0.f);
+	}
+
+	/**
+	 * Creates a Hampel filter
+	 * 
+	 * @param width size of the window
+	 * @param threshold number of scaled MADs beyond which a sample is rejected,
+	 *            3 is the usual choice
+	 * @param minDeviation distance from the median under which a sample is
+	 *            never rejected, in the units of the signal
+	 */
+	public HampelFilter(int width, float threshold, float minDeviation) {
+		assert(width >= MIN_SAMPLES);
+		assert(threshold > 0.f);
+		assert(minDeviation >= 0.f);
+		this.window = new SlidingMedian(width);
+		this.ring = new float[width];
+		this.deviations = new float[width];
+		this.threshold = threshold;
+		this.minDeviation = minDeviation;
+	}
+
+	/**
+	 * @see Filters.FloatFilter#filterBlock(float[], int, int, float[])
+	 */
+	@Override
+	public void filterBlock(float[] in, int off, int len, float[] out) {
+		assert(in != null && out != null);
+		for (int i = off; i < off + len; i++)
+			out[i] = filterSample(in[i]);
+	}
+
+	/**
+	 * This method filters the sample and returns the result
+	 */
+	@Override
+	public float filterSample(float x) {
+		this.window.push(x);
+		this.ring[this.next] = x;
+		this.next = (this.next + 1 == this.ring.length) ? 0 : this.next + 1;
+		if (this.count < this.ring.length)
+			this.count++;
+
+		// - Gather samples before rejecting anything
+		if (this.count < MIN_SAMPLES)
+			return x;
+
+		// - Median absolute deviation of the window
+		float median = this.window.median();
+		for (int i = 0; i < this.count; i++) {
+			float d = Math.abs(this.ring[i] - median);
+			// - A sample equal to an infinite median, e.g. no echo of the
+			// - ultrasonic sensor, does not deviate, Inf - Inf is NaN
+			this.deviations[i] = Float.isNaN(d) ? 0.f : d;
+		}
+		float mad = MedianSelect.median(this.deviations, 0, this.count);
+
+		// - Replace the outliers only
+		float limit = Math.max(this.threshold * MAD_SCALE * mad, this.minDeviation);
+		if (Math.abs(x - median) > limit) {
+			this.outliers++;
+			return median;
+		}
+
+		return x;
+	}
+
+	/**
+	 * @return Number of samples rejected so far
+	 */
+	public long getOutlierCount() {
+		return this.outliers;
+	}
+}
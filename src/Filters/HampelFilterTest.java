@@ -0,0 +1,73 @@
+package Filters;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * HampelFilterTest
+ */
+public class HampelFilterTest {
+
+	/**
+	 * testCleanSignalIsNotDelayed
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testCleanSignalIsNotDelayed() {
+		HampelFilter hf = new HampelFilter(5, 3.f, 0.5f);
+
+		// - A ramp passes through untouched, a median would lag behind
+		for (int k = 0; k < 100; k++)
+			assertEquals(k * 0.2f, hf.filterSample(k * 0.2f), 0.f);
+		assertEquals(0, hf.getOutlierCount());
+	}
+
+	/**
+	 * testNoEcho checks that a lone spike is rejected when the ultrasonic
+	 * sensor gets no echo and returns infinity
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testNoEcho() {
+		HampelFilter hf = new HampelFilter(5, 3.f, 0.02f);
+
+		for (int k = 0; k < 10; k++)
+			assertEquals(Float.POSITIVE_INFINITY, hf.filterSample(Float.POSITIVE_INFINITY), 0.f);
+		assertEquals(Float.POSITIVE_INFINITY, hf.filterSample(0.3f), 0.f);
+		assertEquals(Float.POSITIVE_INFINITY, hf.filterSample(Float.POSITIVE_INFINITY), 0.f);
+		assertEquals(1, hf.getOutlierCount());
+
+		// - Back to echoes, the window holds finite samples and infinite ones
+		// - whose deviations are infinite, a spike is still rejected
+		for (int k = 0; k < 3; k++)
+			hf.filterSample(0.5f + 0.01f * k);
+		long outliers = hf.getOutlierCount();
+		assertEquals(0.51f, hf.filterSample(0.51f), 0.f);
+		assertEquals(0.51f, hf.filterSample(3.f), 0.f);
+		assertEquals(outliers + 1, hf.getOutlierCount());
+	}
+
+	/**
+	 * testSpikeRejection
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testSpikeRejection() {
+		Random rnd = new Random(1);
+		HampelFilter hf = new HampelFilter(5, 3.f, 2.f);
+
+		for (int k = 0; k < 200; k++) {
+			float x = 30.f + rnd.nextFloat();
+			boolean spike = (k % 17 == 16);
+			float y = hf.filterSample(spike ? 255.f : x);
+
+			if (spike) {
+				assertEquals(30.5f, y, 0.5f);
+			}
+		}
+		assertEquals(200 / 17, hf.getOutlierCount());
+	}
+}
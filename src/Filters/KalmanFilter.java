@@ -0,0 +1,121 @@
+package Filters;
+
+/**
+ * This class implements a scalar Kalman filter for a slowly varying value
+ * observed through noisy measurements. The value is modeled as a random walk
+ * whose variance grows by the process noise at every sample.
+ */
+public class KalmanFilter implements RecursiveFilter {
+
+	/**
+	 * Kalman gain used for the last sample
+	 */
+	private float gain = 1.f;
+
+	/**
+	 * Flag indicating that the first sample was received
+	 */
+	private boolean initialized = false;
+
+	/**
+	 * Variance of the measurements
+	 */
+	private final float measurementNoise;
+
+	/**
+	 * Variance of the estimate
+	 */
+	private float p = 0.f;
+
+	/**
+	 * Variance added to the estimate at every sample
+	 */
+	private final float processNoise;
+
+	/**
+	 * Estimate of the value
+	 */
+	private float x = 0.f;
+
+	/**
+	 * Creates a scalar Kalman filter
+	 * 
+	 * @param processNoise variance added to the value between two samples
+	 * @param measurementNoise variance of the measurements
+	 */
+	public KalmanFilter(float processNoise, float measurementNoise) {
+		assert(processNoise >= 0.f);
+		assert(measurementNoise > 0.f);
+		this.processNoise = processNoise;
+		this.measurementNoise = measurementNoise;
+	}
+
+	/**
+	 * @see Filters.FloatFilter#filterBlock(float[], int, int, float[])
+	 */
+	@Override
+	public void filterBlock(float[] in, int off, int len, float[] out) {
+		assert(in != null && out != null);
+		for (int i = off; i < off + len; i++)
+			out[i] = filterSample(in[i]);
+	}
+
+	/**
+	 * This method filters the sample and returns the result
+	 */
+	@Override
+	public float filterSample(float z) {
+		// - The first measurement initializes the estimate
+		if (!this.initialized) {
+			this.initialized = true;
+			this.x = z;
+			this.p = this.measurementNoise;
+			this.gain = 1.f;
+			return this.x;
+		}
+
+		// - Predict
+		this.p += this.processNoise;
+
+		// - Update
+		this.gain = this.p / (this.p + this.measurementNoise);
+		this.x += this.gain * (z - this.x);
+		this.p *= (1.f - this.gain);
+
+		return this.x;
+	}
+
+	/**
+	 * @return Kalman gain used for the last sample
+	 */
+	public float getGain() {
+		return this.gain;
+	}
+
+	/**
+	 * The filter behaves like an exponential moving average whose smoothing
+	 * factor is the current gain
+	 */
+	@Override
+	public float getGroupDelay() {
+		return (1.f - this.gain) / this.gain;
+	}
+
+	/**
+	 * @return Variance of the estimate
+	 */
+	public float getVariance() {
+		return this.p;
+	}
+
+	/**
+	 * @see Filters.RecursiveFilter#reset()
+	 */
+	@Override
+	public void reset() {
+		this.initialized = false;
+		this.x = 0.f;
+		this.p = 0.f;
+		this.gain = 1.f;
+	}
+}
@@ -0,0 +1,50 @@
+package Filters;
+
+/**
+ * This class implements a first-order low-pass filter defined by its cutoff
+ * frequency and the sampling period of the signal. It is the discretized RC
+ * filter, i.e. an exponential moving average with
+ * alpha = dt / (RC + dt) and RC = 1 / (2 * PI * fc).
+ */
+public class LowPassFilter extends ExponentialFilter {
+
+	/**
+	 * Computes the smoothing factor of the discretized RC filter
+	 * 
+	 * @param cutoff cutoff frequency [Hz]
+	 * @param samplePeriod sampling period [ms]
+	 * @return smoothing factor
+	 */
+	public static float computeAlpha(float cutoff, float samplePeriod) {
+		assert(cutoff > 0.f);
+		assert(samplePeriod > 0.f);
+		double rc = 1.0 / (2.0 * Math.PI * cutoff);
+		double dt = samplePeriod / 1000.0;
+		return (float) (dt / (rc + dt));
+	}
+
+	/**
+	 * Sampling period [ms]
+	 */
+	private final float samplePeriod;
+
+	/**
+	 * Creates a low-pass filter
+	 * 
+	 * @param cutoff cutoff frequency [Hz]
+	 * @param samplePeriod sampling period [ms], e.g. LightSensor.TICK_RATE
+	 */
+	public LowPassFilter(float cutoff, float samplePeriod) {
+		super(computeAlpha(cutoff, samplePeriod));
+		this.samplePeriod = samplePeriod;
+	}
+
+	/**
+	 * Returns the group delay in time rather than in samples
+	 * 
+	 * @return delay of the output in [ms]
+	 */
+	public float getGroupDelayMs() {
+		return getGroupDelay() * this.samplePeriod;
+	}
+}
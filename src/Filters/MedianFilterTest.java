@@ -1,7 +1,10 @@
 package Filters;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Random;
+
 import org.junit.Test;
 
 import Utility.Vec2D;
@@ -11,6 +14,26 @@ import Utility.Vec2D;
  */
 public class MedianFilterTest {
 
+	/**
+	 * testAdapters checks that the boxed adapters and MedianFilter give the
+	 * samples of the primitive median filter
+	 */
+	@SuppressWarnings({ "static-method", "boxing" })
+	@Test
+	public void testAdapters() {
+		Random rnd = new Random(7);
+		FloatFilter direct = new FloatMedianFilter(5);
+		FloatFilter roundTrip = new UnboxedFloatFilter(new BoxedFloatFilter(new FloatMedianFilter(5)));
+		Filter<Float> boxed = new MedianFilter(5);
+
+		for (int i = 0; i < 200; i++) {
+			float x = rnd.nextFloat();
+			float expected = direct.filterSample(x);
+			assertEquals(Float.floatToIntBits(expected), Float.floatToIntBits(roundTrip.filterSample(x)));
+			assertEquals(Float.floatToIntBits(expected), Float.floatToIntBits(boxed.filterSample(x)));
+		}
+	}
+
 	/**
 	 * testComputeMedian
 	 */
@@ -43,6 +66,23 @@ public class MedianFilterTest {
 		assertTrue(Vec2D.isEqual(median_actual, median_expected, 0.0000001));
 	}
 
+	/**
+	 * testComputeMedianSizes checks that windows of different sizes selected
+	 * one after the other only use their own values and are left unmodified
+	 */
+	@SuppressWarnings({ "static-method", "boxing" })
+	@Test
+	public void testComputeMedianSizes() {
+		Float[] large = { 90.f, 10.f, 70.f, 30.f, 50.f, 80.f, 20.f };
+		Float[] small = { 3.f, 1.f, 2.f };
+
+		assertEquals(50.f, MedianFilter.computeMedian(large), 0.f);
+		assertEquals(2.f, MedianFilter.computeMedian(small), 0.f);
+		assertEquals(50.f, MedianFilter.computeMedian(large), 0.f);
+		assertEquals(90.f, large[0], 0.f);
+		assertEquals(3.f, small[0], 0.f);
+	}
+
 	/**
 	 * testFilterSample
 	 */
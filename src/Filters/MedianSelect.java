@@ -0,0 +1,134 @@
+package Filters;
+
+/**
+ * Selection of the median of primitive floats in place. Windows of up to
+ * MAX_NETWORK samples are ordered by optimal sorting networks made of
+ * branch-free compare-exchanges, larger windows use quickselect which runs in
+ * O(n) on average instead of the O(nlog(n)) of a full sort.
+ * The values are reordered by the selection. The even length median is the
+ * average of the two middle values.
+ * NaN values are not supported and quickselect treats -0.0 and 0.0 as equal.
+ */
+public final class MedianSelect {
+
+	/**
+	 * Largest window ordered by a sorting network
+	 */
+	public static final int MAX_NETWORK = 9;
+
+	/**
+	 * Compare-exchange pairs of the optimal sorting networks indexed by size
+	 */
+	private static final int[][] NETWORKS = {
+		{},
+		{},
+		{ 0, 1 },
+		{ 0, 2, 0, 1, 1, 2 },
+		{ 0, 1, 2, 3, 0, 2, 1, 3, 1, 2 },
+		{ 0, 3, 1, 4, 0, 2, 1, 3, 0, 1, 2, 4, 1, 2, 3, 4, 2, 3 },
+		{ 0, 5, 1, 3, 2, 4, 1, 2, 3, 4, 0, 3, 2, 5, 0, 1, 2, 3, 4, 5, 1, 2, 3, 4 },
+		{ 0, 6, 2, 3, 4, 5, 0, 2, 1, 4, 3, 6, 0, 1, 2, 5, 3, 4, 1, 2, 4, 6, 2, 3, 4, 5, 1, 2, 3, 4, 5, 6 },
+		{ 0, 2, 1, 3, 4, 6, 5, 7, 0, 4, 1, 5, 2, 6, 3, 7, 0, 1, 2, 3, 4, 5, 6, 7, 2, 4, 3, 5, 1, 4, 3, 6, 1, 2, 3, 4, 5, 6 },
+		{ 0, 3, 1, 7, 2, 5, 4, 8, 0, 7, 2, 4, 3, 8, 5, 6, 0, 2, 1, 3, 4, 5, 7, 8, 1, 4, 3, 6, 5, 7, 0, 1, 2, 4, 3, 5, 6, 8, 2, 3, 4, 5, 6, 7, 1, 2, 3, 4, 5, 6 } };
+
+	/**
+	 * Computes the median of a[off, off + len[, the values are reordered
+	 * 
+	 * @param a values
+	 * @param off index of the first value
+	 * @param len number of values
+	 * @return Median value of the range
+	 */
+	public static float median(float[] a, int off, int len) {
+		assert(a != null);
+		assert(len > 0);
+		int k = off + len / 2;
+
+		if (len <= MAX_NETWORK)
+			sortNetwork(a, off, len);
+		else
+			select(a, off, off + len - 1, k);
+
+		// - We have an odd number of samples
+		if ((len & 1) != 0)
+			return a[k];
+
+		// - We have an even number of samples, the lower middle value is the
+		// - largest value on the left of the upper one
+		float left = a[k - 1];
+		if (len > MAX_NETWORK)
+			for (int i = off; i < k - 1; i++)
+				left = Math.max(left, a[i]);
+
+		return (left + a[k]) / 2;
+	}
+
+	/**
+	 * Partially orders a[lo, hi] so a[k] holds the value it would have if the
+	 * range was sorted, smaller values are on its left and larger on its right
+	 * 
+	 * @param a values
+	 * @param lo first index of the range
+	 * @param hi last index of the range
+	 * @param k index to select
+	 * @return a[k]
+	 */
+	static float select(float[] a, int lo, int hi, int k) {
+		while (lo < hi) {
+			// - Median of three pivot
+			int mid = (lo + hi) >>> 1;
+			float x = a[lo], y = a[mid], z = a[hi];
+			float pivot = Math.max(Math.min(x, y), Math.min(Math.max(x, y), z));
+
+			// - Hoare partition around the pivot
+			int i = lo;
+			int j = hi;
+			while (i <= j) {
+				while (a[i] < pivot)
+					i++;
+				while (a[j] > pivot)
+					j--;
+				if (i <= j) {
+					float t = a[i];
+					a[i++] = a[j];
+					a[j--] = t;
+				}
+			}
+
+			// - Keep the part holding k, values between j and i equal the pivot
+			if (k <= j)
+				hi = j;
+			else if (k >= i)
+				lo = i;
+			else
+				break;
+		}
+
+		return a[k];
+	}
+
+	/**
+	 * Sorts a[off, off + len[ with a sorting network
+	 * 
+	 * @param a values
+	 * @param off index of the first value
+	 * @param len number of values, at most MAX_NETWORK
+	 */
+	static void sortNetwork(float[] a, int off, int len) {
+		int[] network = NETWORKS[len];
+		for (int c = 0; c < network.length; c += 2) {
+			int i = off + network[c];
+			int j = off + network[c + 1];
+			float x = a[i];
+			float y = a[j];
+			a[i] = Math.min(x, y);
+			a[j] = Math.max(x, y);
+		}
+	}
+
+	/**
+	 * This class only has static methods
+	 */
+	private MedianSelect() {
+	}
+}
@@ -0,0 +1,60 @@
+package Filters;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * MedianSelectTest
+ */
+public class MedianSelectTest {
+
+	/**
+	 * testMedian compares the selection with the median of a sorted copy
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testMedian() {
+		Random rnd = new Random(13);
+
+		for (int len = 1; len <= 70; len++) {
+			for (int run = 0; run < 50; run++) {
+				float[] a = new float[len + 2];
+				for (int i = 0; i < a.length; i++)
+					a[i] = (run % 2 == 0) ? rnd.nextFloat() * 100.f : rnd.nextInt(4);
+
+				float[] sorted = Arrays.copyOfRange(a, 1, len + 1);
+				Arrays.sort(sorted);
+				float expected = ((len & 1) == 0)	? (sorted[len / 2 - 1] + sorted[len / 2]) / 2
+													: sorted[len / 2];
+
+				assertEquals(	Float.floatToIntBits(expected),
+								Float.floatToIntBits(MedianSelect.median(a, 1, len)));
+			}
+		}
+	}
+
+	/**
+	 * testSortNetwork checks every network with all the 0-1 inputs, which is
+	 * enough to prove that it sorts any input
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testSortNetwork() {
+		for (int len = 1; len <= MedianSelect.MAX_NETWORK; len++) {
+			float[] a = new float[len];
+			for (int bits = 0; bits < (1 << len); bits++) {
+				for (int i = 0; i < len; i++)
+					a[i] = (bits >> i) & 1;
+
+				MedianSelect.sortNetwork(a, 0, len);
+				for (int i = 1; i < len; i++)
+					assertTrue(a[i - 1] <= a[i]);
+			}
+		}
+	}
+}
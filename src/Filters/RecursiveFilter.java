@@ -0,0 +1,21 @@
+package Filters;
+
+/**
+ * Interface to a recursive filter running in constant time and memory. The
+ * output of such a filter lags behind its input, the lag is reported so the
+ * callers can compensate for it.
+ */
+public interface RecursiveFilter extends FloatFilter {
+
+	/**
+	 * Returns the group delay of the filter for slowly varying signals
+	 * 
+	 * @return delay of the output in [samples]
+	 */
+	public float getGroupDelay();
+
+	/**
+	 * Forgets the state of the filter, the next sample initializes it
+	 */
+	public void reset();
+}
@@ -0,0 +1,82 @@
+package Filters;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * RecursiveFilterTest
+ */
+public class RecursiveFilterTest {
+
+	/**
+	 * testExponentialFilter
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testExponentialFilter() {
+		ExponentialFilter ef = new ExponentialFilter(0.5f);
+
+		assertEquals(10.f, ef.filterSample(10.f), 0.000001f);
+		assertEquals(15.f, ef.filterSample(20.f), 0.000001f);
+		assertEquals(17.5f, ef.filterSample(20.f), 0.000001f);
+		assertEquals(1.f, ef.getGroupDelay(), 0.000001f);
+
+		ef.reset();
+		assertEquals(3.f, ef.filterSample(3.f), 0.000001f);
+	}
+
+	/**
+	 * testGroupDelay checks the reported delay against the delay of a ramp
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testGroupDelay() {
+		ExponentialFilter ef = new ExponentialFilter(0.2f);
+		float y = 0.f;
+		int k;
+
+		for (k = 0; k < 200; k++)
+			y = ef.filterSample(k);
+
+		// - A ramp is delayed by exactly the group delay in steady state
+		assertEquals(ef.getGroupDelay(), (k - 1) - y, 0.001f);
+	}
+
+	/**
+	 * testKalmanFilter
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testKalmanFilter() {
+		float q = 0.01f;
+		float r = 4.f;
+		KalmanFilter kf = new KalmanFilter(q, r);
+		float y = 0.f;
+
+		for (int k = 0; k < 500; k++)
+			y = kf.filterSample((k & 1) == 0 ? 28.f : 32.f);
+
+		assertEquals(30.f, y, 0.5f);
+
+		// - The variance converges to the root of p^2 + q*p - q*r = 0
+		double p = (-q + Math.sqrt(q * q + 4.0 * q * r)) / 2.0;
+		assertEquals(p, kf.getVariance(), 0.0001);
+		assertEquals((p + q) / (p + q + r), kf.getGain(), 0.0001);
+		assertTrue(kf.getGroupDelay() > 0.f);
+	}
+
+	/**
+	 * testLowPassFilter
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testLowPassFilter() {
+		LowPassFilter lp = new LowPassFilter(5.f, 5.f);
+		double rc = 1.0 / (2.0 * Math.PI * 5.0);
+
+		assertEquals(0.005 / (rc + 0.005), lp.getAlpha(), 0.000001);
+		assertEquals(lp.getGroupDelay() * 5.f, lp.getGroupDelayMs(), 0.000001f);
+	}
+}
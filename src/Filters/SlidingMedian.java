@@ -0,0 +1,326 @@
+package Filters;
+
+/**
+ * This class implements a sliding window median over primitive floats.
+ * The window is kept in a ring buffer and ordered by two indexed heaps: a
+ * max-heap holding the lower half of the window and a min-heap holding the
+ * upper half. Inserting a sample and evicting the oldest one costs O(log n)
+ * and no memory is allocated once the instance is constructed.
+ * Samples are ordered like Float.compare, NaN above +Infinity and -0.0 below
+ * 0.0. MedianFilter.computeMedian does not support NaN and does not tell the
+ * zeros apart, so both give the same median only for windows without NaN and
+ * up to the sign of a zero.
+ */
+public class SlidingMedian {
+
+	/**
+	 * Marker stored in 'heapOf' for slots belonging to the lower half
+	 */
+	private static final byte LOWER = 0;
+
+	/**
+	 * Marker stored in 'heapOf' for slots belonging to the upper half
+	 */
+	private static final byte UPPER = 1;
+
+	/**
+	 * Number of samples currently in the window
+	 */
+	private int count = 0;
+
+	/**
+	 * Heap (lower or upper) each ring slot belongs to
+	 */
+	private final byte[] heapOf;
+
+	/**
+	 * Upper half of the window, a min-heap of ring slots
+	 */
+	private final int[] hi;
+
+	/**
+	 * Number of slots in the upper half
+	 */
+	private int hiSize = 0;
+
+	/**
+	 * Lower half of the window, a max-heap of ring slots
+	 */
+	private final int[] lo;
+
+	/**
+	 * Number of slots in the lower half
+	 */
+	private int loSize = 0;
+
+	/**
+	 * Next ring slot to write, it is also the oldest one when the window is full
+	 */
+	private int next = 0;
+
+	/**
+	 * Position of each ring slot inside of its heap
+	 */
+	private final int[] posOf;
+
+	/**
+	 * Ring buffer holding the samples of the window
+	 */
+	private final float[] values;
+
+	/**
+	 * Width of the moving window
+	 */
+	private final int width;
+
+	/**
+	 * Creates a sliding median for the window of size width
+	 *
+	 * @param width size of the window
+	 */
+	public SlidingMedian(int width) {
+		assert(width > 0);
+		this.width = width;
+		this.values = new float[width];
+		this.heapOf = new byte[width];
+		this.posOf = new int[width];
+		this.lo = new int[width / 2 + 1];
+		this.hi = new int[width / 2 + 1];
+	}
+
+	/**
+	 * @return True if the window holds 'width' samples
+	 */
+	public boolean isFull() {
+		return this.count == this.width;
+	}
+
+	/**
+	 * Computes the median of the samples currently in the window
+	 *
+	 * @return Median value of the window
+	 */
+	public float median() {
+		assert(this.count > 0);
+
+		// - We have an odd number of samples, the lower half holds the extra one
+		if (this.loSize > this.hiSize)
+			return this.values[this.lo[0]];
+
+		// - We have an even number of samples
+		return (this.values[this.lo[0]] + this.values[this.hi[0]]) / 2;
+	}
+
+	/**
+	 * Inserts a sample and evicts the oldest one once the window is full
+	 *
+	 * @param x value of the current sample
+	 */
+	public void push(float x) {
+		int slot = this.next;
+		this.next = (this.next + 1 == this.width) ? 0 : this.next + 1;
+		this.values[slot] = x;
+
+		if (this.count < this.width) {
+			// - Gather samples, the new slot goes to the half it belongs to
+			this.count++;
+			if (this.loSize == 0 || Float.compare(x, this.values[this.lo[0]]) <= 0)
+				insertLower(slot);
+			else
+				insertUpper(slot);
+
+			// - Keep the lower half equal to the upper half or one larger
+			if (this.loSize > this.hiSize + 1)
+				insertUpper(removeLowerTop());
+			else if (this.hiSize > this.loSize)
+				insertLower(removeUpperTop());
+		} else {
+			// - The oldest slot is overwritten in place, restore its heap
+			int pos = this.posOf[slot];
+			if (this.heapOf[slot] == LOWER) {
+				siftUpLower(pos);
+				siftDownLower(this.posOf[slot]);
+			} else {
+				siftUpUpper(pos);
+				siftDownUpper(this.posOf[slot]);
+			}
+
+			// - A single sample moved so swapping the tops restores the order
+			if (this.hiSize > 0 &&
+				Float.compare(this.values[this.lo[0]], this.values[this.hi[0]]) > 0) {
+				int l = this.lo[0];
+				int h = this.hi[0];
+				this.lo[0] = h;
+				this.heapOf[h] = LOWER;
+				this.posOf[h] = 0;
+				this.hi[0] = l;
+				this.heapOf[l] = UPPER;
+				this.posOf[l] = 0;
+				siftDownLower(0);
+				siftDownUpper(0);
+			}
+		}
+	}
+
+	/**
+	 * Empties the window
+	 */
+	public void reset() {
+		this.count = 0;
+		this.loSize = 0;
+		this.hiSize = 0;
+		this.next = 0;
+	}
+
+	/**
+	 * @return Number of samples currently in the window
+	 */
+	public int size() {
+		return this.count;
+	}
+
+	/**
+	 * @return Width of the moving window
+	 */
+	public int width() {
+		return this.width;
+	}
+
+	/**
+	 * Appends a slot to the lower half
+	 *
+	 * @param slot ring slot to insert
+	 */
+	private void insertLower(int slot) {
+		this.lo[this.loSize] = slot;
+		this.heapOf[slot] = LOWER;
+		this.posOf[slot] = this.loSize;
+		siftUpLower(this.loSize++);
+	}
+
+	/**
+	 * Appends a slot to the upper half
+	 *
+	 * @param slot ring slot to insert
+	 */
+	private void insertUpper(int slot) {
+		this.hi[this.hiSize] = slot;
+		this.heapOf[slot] = UPPER;
+		this.posOf[slot] = this.hiSize;
+		siftUpUpper(this.hiSize++);
+	}
+
+	/**
+	 * Removes the largest slot of the lower half
+	 *
+	 * @return removed ring slot
+	 */
+	private int removeLowerTop() {
+		int top = this.lo[0];
+		int last = this.lo[--this.loSize];
+		this.lo[0] = last;
+		this.posOf[last] = 0;
+		siftDownLower(0);
+		return top;
+	}
+
+	/**
+	 * Removes the smallest slot of the upper half
+	 *
+	 * @return removed ring slot
+	 */
+	private int removeUpperTop() {
+		int top = this.hi[0];
+		int last = this.hi[--this.hiSize];
+		this.hi[0] = last;
+		this.posOf[last] = 0;
+		siftDownUpper(0);
+		return top;
+	}
+
+	/**
+	 * Moves the slot at pos down the lower half until the max-heap holds
+	 *
+	 * @param pos position in the heap
+	 */
+	private void siftDownLower(int pos) {
+		int slot = this.lo[pos];
+		float v = this.values[slot];
+		int child;
+		while ((child = 2 * pos + 1) < this.loSize) {
+			if (child + 1 < this.loSize &&
+				Float.compare(this.values[this.lo[child + 1]], this.values[this.lo[child]]) > 0)
+				child++;
+			if (Float.compare(this.values[this.lo[child]], v) <= 0)
+				break;
+			this.lo[pos] = this.lo[child];
+			this.posOf[this.lo[pos]] = pos;
+			pos = child;
+		}
+		this.lo[pos] = slot;
+		this.posOf[slot] = pos;
+	}
+
+	/**
+	 * Moves the slot at pos down the upper half until the min-heap holds
+	 *
+	 * @param pos position in the heap
+	 */
+	private void siftDownUpper(int pos) {
+		int slot = this.hi[pos];
+		float v = this.values[slot];
+		int child;
+		while ((child = 2 * pos + 1) < this.hiSize) {
+			if (child + 1 < this.hiSize &&
+				Float.compare(this.values[this.hi[child + 1]], this.values[this.hi[child]]) < 0)
+				child++;
+			if (Float.compare(this.values[this.hi[child]], v) >= 0)
+				break;
+			this.hi[pos] = this.hi[child];
+			this.posOf[this.hi[pos]] = pos;
+			pos = child;
+		}
+		this.hi[pos] = slot;
+		this.posOf[slot] = pos;
+	}
+
+	/**
+	 * Moves the slot at pos up the lower half until the max-heap holds
+	 *
+	 * @param pos position in the heap
+	 */
+	private void siftUpLower(int pos) {
+		int slot = this.lo[pos];
+		float v = this.values[slot];
+		while (pos > 0) {
+			int parent = (pos - 1) / 2;
+			if (Float.compare(this.values[this.lo[parent]], v) >= 0)
+				break;
+			this.lo[pos] = this.lo[parent];
+			this.posOf[this.lo[pos]] = pos;
+			pos = parent;
+		}
+		this.lo[pos] = slot;
+		this.posOf[slot] = pos;
+	}
+
+	/**
+	 * Moves the slot at pos up the upper half until the min-heap holds
+	 *
+	 * @param pos position in the heap
+	 */
+	private void siftUpUpper(int pos) {
+		int slot = this.hi[pos];
+		float v = this.values[slot];
+		while (pos > 0) {
+			int parent = (pos - 1) / 2;
+			if (Float.compare(this.values[this.hi[parent]], v) <= 0)
+				break;
+			this.hi[pos] = this.hi[parent];
+			this.posOf[this.hi[pos]] = pos;
+			pos = parent;
+		}
+		this.hi[pos] = slot;
+		this.posOf[slot] = pos;
+	}
+}
@@ -0,0 +1,100 @@
+package Filters;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * SlidingMedianTest
+ */
+public class SlidingMedianTest {
+
+	/**
+	 * Pushes random samples and compares every median with computeMedian
+	 *
+	 * @param width size of the window
+	 * @param samples number of samples to push
+	 * @param levels number of distinct values, small values produce ties
+	 */
+	@SuppressWarnings("boxing")
+	private static void compareWithComputeMedian(int width, int samples, int levels) {
+		Random rnd = new Random(width * 31 + levels);
+		SlidingMedian sm = new SlidingMedian(width);
+		float[] history = new float[samples];
+
+		for (int i = 0; i < samples; i++) {
+			history[i] = rnd.nextInt(levels) * 0.5f - levels / 4;
+			sm.push(history[i]);
+
+			int n = Math.min(i + 1, width);
+			Float[] window = new Float[n];
+			for (int j = 0; j < n; j++)
+				window[j] = history[i - j];
+
+			float expected = MedianFilter.computeMedian(window);
+			assertEquals(Float.floatToIntBits(expected), Float.floatToIntBits(sm.median()));
+		}
+	}
+
+	/**
+	 * testIsFull
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testIsFull() {
+		SlidingMedian sm = new SlidingMedian(3);
+
+		sm.push(1.f);
+		sm.push(2.f);
+		assertFalse(sm.isFull());
+		sm.push(3.f);
+		assertTrue(sm.isFull());
+		assertEquals(3, sm.size());
+
+		sm.reset();
+		assertEquals(0, sm.size());
+	}
+
+	/**
+	 * testMedianEvenWindow
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testMedianEvenWindow() {
+		for (int width = 2; width <= 16; width += 2)
+			compareWithComputeMedian(width, 500, 1000);
+		compareWithComputeMedian(64, 2000, 7);
+	}
+
+	/**
+	 * testMedianOddWindow
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testMedianOddWindow() {
+		for (int width = 1; width <= 15; width += 2)
+			compareWithComputeMedian(width, 500, 1000);
+		compareWithComputeMedian(101, 2000, 5);
+	}
+
+	/**
+	 * testSignedZero
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testSignedZero() {
+		SlidingMedian sm = new SlidingMedian(3);
+
+		sm.push(0.f);
+		sm.push(-0.f);
+		sm.push(0.f);
+		assertEquals(Float.floatToIntBits(0.f), Float.floatToIntBits(sm.median()));
+		sm.push(-0.f);
+		sm.push(-0.f);
+		assertEquals(Float.floatToIntBits(-0.f), Float.floatToIntBits(sm.median()));
+	}
+}
@@ -0,0 +1,43 @@
+package Filters;
+
+/**
+ * Adapter exposing a Filter&lt;Float&gt; through the FloatFilter interface.
+ * The wrapped filter still boxes every sample, this class only allows it to
+ * be used where a FloatFilter is expected.
+ */
+public class UnboxedFloatFilter implements FloatFilter {
+
+	/**
+	 * Boxed filter doing the actual work
+	 */
+	private final Filter<Float> filter;
+
+	/**
+	 * Wraps a boxed filter
+	 * 
+	 * @param filter filter to wrap
+	 */
+	public UnboxedFloatFilter(Filter<Float> filter) {
+		assert(filter != null);
+		this.filter = filter;
+	}
+
+	/**
+	 * @see Filters.FloatFilter#filterBlock(float[], int, int, float[])
+	 */
+	@Override
+	public void filterBlock(float[] in, int off, int len, float[] out) {
+		assert(in != null && out != null);
+		for (int i = off; i < off + len; i++)
+			out[i] = filterSample(in[i]);
+	}
+
+	/**
+	 * This method filters the sample and returns the result
+	 */
+	@SuppressWarnings("boxing")
+	@Override
+	public float filterSample(float x) {
+		return this.filter.filterSample(x);
+	}
+}
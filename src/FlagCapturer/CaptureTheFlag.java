@@ -260,7 +260,7 @@ public class CaptureTheFlag {
 
 					avoider.stop();
 					// - Make sure there is no block in front when it starts to turn
-					while (usFrontSampler.getSample()[0] < 30) {
+					while (usFrontSampler.getDistanceCm() < 30) {
 						Robot.setSpeeds(50, -50);
 						Delay.msDelay(100);
 					}
@@ -269,7 +269,7 @@ public class CaptureTheFlag {
 					double angleCurr = odo.getOrientation();
 					double target = 2 * Math.PI;
 					int distCurr = 0;
-					int distPrev = usFrontSampler.getSample()[0];
+					int distPrev = usFrontSampler.getDistanceCm();
 
 					ArrayList<Double[]> listOfBlocks = new ArrayList<>();
 					boolean foundOneBlock = false;
@@ -282,7 +282,7 @@ public class CaptureTheFlag {
 							anglePrev = angleCurr;
 							angleCurr = odo.getOrientation();
 							distPrev = distCurr;
-							distCurr = usFrontSampler.getSample()[0];
+							distCurr = usFrontSampler.getDistanceCm();
 							// - Fourth step: Clock critical points
 							if (Vec2D.isInRange(distCurr, 5, BLOCK_DIST_CONSTANT, BLOCK_ERROR) &&
 								Vec2D.isInRange(distPrev, BLOCK_DIST_CONSTANT, BLOCK_DIST_CONSTANT + 10, BLOCK_ERROR)) {
@@ -335,7 +335,7 @@ public class CaptureTheFlag {
 								}
 
 								// - Make sure robot reaches the block
-								while (!foundBlock && usFrontSampler.getSample()[0] > 4)
+								while (!foundBlock && usFrontSampler.getDistanceCm() > 4)
 									Robot.setSpeeds(30, 30);
 
 								Robot.setSpeeds(0, 0);
@@ -7,6 +7,7 @@ import lejos.hardware.Button;
 import lejos.hardware.Sound;
 import lejos.utility.Delay;
 import EV3Hardware.Robot;
+import Filters.HampelFilter;
 import Localization.ImprovedUsLocalizer;
 import Localization.ImprovedUsLocalizer.LocalizationType;
 import Localization.LightLocalizer;
@@ -14,7 +15,9 @@ import MeasurementDevices.Odometer;
 import Navigator.Navigator;
 import Navigator.ObstacleAvoider;
 import ObjectLocalization.ObjectDetecter;
+import Sensors.AdaptivePollingPolicy;
 import Sensors.LightSensor;
+import Sensors.SampleTrigger;
 import Sensors.UltrasonicSensor;
 import Utility.SimpleInterrupter;
 import Utility.Vec2D;
@@ -25,6 +28,12 @@ import Wifi.WifiInformation;
  */
 public class Capturer {
 
+	/**
+	 * Period at which the travelled distance is checked when approaching a
+	 * block [ms]
+	 */
+	private final static int			APPROACH_PERIOD	= 20;
+
 	/**
 	 * ObstacleAvoider instance
 	 */
@@ -90,6 +99,22 @@ public class Capturer {
 	 */
 	private static ImprovedUsLocalizer	localizer;
 
+	/**
+	 * Fastest LightSensor polling period, used while crossing the grid lines
+	 * [ms]
+	 */
+	private static final int			LS_MIN_DELAY	= 2;
+
+	/**
+	 * Slowest LightSensor polling period, used while the robot is idle [ms]
+	 */
+	private static final int			LS_MAX_DELAY	= 20;
+
+	/**
+	 * Variance of the intensity at which the LightSensor polls the fastest
+	 */
+	private static final float			LS_VARIANCE		= 0.01f;
+
 	/**
 	 * LightSensor polling rate
 	 */
@@ -120,6 +145,17 @@ public class Capturer {
 	 */
 	public static int					opponentHomeZoneBL_Y;
 
+	/**
+	 * Distance [m] under which the front ultrasonic sensor never rejects a
+	 * sample as a spike
+	 */
+	private static final float			US_SPIKE_MIN	= 0.02f;
+
+	/**
+	 * Number of scaled MADs beyond which a front ultrasonic sample is a spike
+	 */
+	private static final float			US_SPIKE_THRESHOLD	= 3.f;
+
 	/**
 	 * UltrasonicSensor polling rate
 	 */
@@ -196,7 +232,7 @@ public class Capturer {
 			nav.goForward(5);
 			nav.turnTo(Math.toRadians(angle), true);
 			Delay.msDelay(2000);
-			int distance = usFrontSampler.getSample()[0];
+			int distance = usFrontSampler.getDistanceCm();
 			listDistances[i] = distance;
 			if (distance < smallestDistance)
 				index = i;
@@ -206,35 +242,23 @@ public class Capturer {
 		nav.goForward(5 * (5 - index));
 		nav.turnTo(angle, true);
 		Delay.msDelay(2000);
-		int distanceToBlock = usFrontSampler.getSample()[0];
+		int distanceToBlock = usFrontSampler.getDistanceCm();
 		if (angle == 0) {
-			int startX = (int) odo.getPosition().getX();
-			while (usFrontSampler.getSample()[0] > 5 && !Capturer.isFlag &&
-					(Math.abs(startX - odo.getPosition().getX()) < distanceToBlock + BLOCK_ERROR))
-				Robot.setSpeeds(50, 50);
-			Robot.setSpeeds(0, 0);
+			approachBlock(true, distanceToBlock);
 			Delay.msDelay(1000);
 			if (Capturer.isFlag) {
 				capture();
 				lift();
 			}
 		} else if (angle == 90) {
-			int startY = (int) odo.getPosition().getY();
-			while (usFrontSampler.getSample()[0] > 5 && !Capturer.isFlag &&
-					(Math.abs(startY - odo.getPosition().getY()) < distanceToBlock + BLOCK_ERROR))
-				Robot.setSpeeds(50, 50);
-			Robot.setSpeeds(0, 0);
+			approachBlock(false, distanceToBlock);
 			Delay.msDelay(1000);
 			if (Capturer.isFlag) {
 				capture();
 				lift();
 			}
 		} else if (angle == 180) {
-			int startX = (int) odo.getPosition().getX();
-			while (usFrontSampler.getSample()[0] > 5 && !Capturer.isFlag &&
-					(Math.abs(startX - odo.getPosition().getX()) < distanceToBlock + BLOCK_ERROR))
-				Robot.setSpeeds(50, 50);
-			Robot.setSpeeds(0, 0);
+			approachBlock(true, distanceToBlock);
 			Delay.msDelay(1000);
 			if (Capturer.isFlag) {
 				capture();
@@ -243,6 +267,31 @@ public class Capturer {
 		}
 	}
 
+	/**
+	 * Drives forward until the block is touched, the flag is found or the
+	 * block should have been reached. The front distance is watched by a
+	 * trigger on the sampling thread and the odometer is checked every
+	 * APPROACH_PERIOD instead of spinning on the sensor.
+	 * 
+	 * @param alongX true if the robot drives along the x axis, false for y
+	 * @param distanceToBlock distance to the block at the start [cm]
+	 */
+	private static void approachBlock(boolean alongX, int distanceToBlock) {
+		int start = (int) (alongX ? odo.getPosition().getX() : odo.getPosition().getY());
+		// - Stop when the distance is 5 cm or less
+		SampleTrigger touched = SampleTrigger.fallsBelow(6);
+		usFrontSampler.addTrigger(touched);
+
+		Robot.setSpeeds(50, 50);
+		while (!touched.await(APPROACH_PERIOD) && !Capturer.isFlag) {
+			double position = alongX ? odo.getPosition().getX() : odo.getPosition().getY();
+			if (Math.abs(start - position) >= distanceToBlock + BLOCK_ERROR)
+				break;
+		}
+		Robot.setSpeeds(0, 0);
+		usFrontSampler.removeTrigger(touched);
+	}
+
 	/**
 	 * Perform lifting of the block
 	 */
@@ -276,10 +325,17 @@ public class Capturer {
 		// wifiTransmission();
 		Sound.beep();
 
-		usFrontSampler = new UltrasonicSensor(Robot.usSensor, true, true, US_WINDOW);
+		// - Reject the spurious 255 readings without delaying clean samples
+		usFrontSampler = new UltrasonicSensor(Robot.usSensor, true, true,
+												new HampelFilter(US_WINDOW, US_SPIKE_THRESHOLD, US_SPIKE_MIN));
 
 		UltrasonicSensor usAngledSampler = new UltrasonicSensor(Robot.angledUsSensor, true, false, US_WINDOW);
 		LightSensor lightSampler = new LightSensor(Robot.lsSensor, true, true, LS_WINDOW);
+		// - Poll the fastest when the robot turns like during the light
+		// - localization or when the intensity changes, and slow down when idle
+		lightSampler.setPollingPolicy(new AdaptivePollingPolicy(LS_MIN_DELAY, LS_MAX_DELAY)
+																.followSpeed(LightLocalizer.ROTATION_SPEED)
+																.followVariance(LS_VARIANCE));
 
 		odo = new Odometer(true);
 		SimpleInterrupter si = new SimpleInterrupter();
@@ -307,7 +363,7 @@ public class Capturer {
 
 					// - First step: Localizing your position
 
-					if (usFrontSampler.getSample()[0] > 30) {
+					if (usFrontSampler.getDistanceCm() > 30) {
 						localizer = new ImprovedUsLocalizer(odo, usFrontSampler, LocalizationType.RISING_EDGE);
 						localizer.doLocalization(nav);
 					} else {
@@ -317,11 +373,9 @@ public class Capturer {
 
 					Sound.beep();
 					// Button.waitForAnyPress();
-					lightSampler.setPollingRate(2);
 					LightLocalizer lightLocalizer = new LightLocalizer(odo, lightSampler);
 					lightLocalizer.doLocalization(nav);
 					Sound.beep();
-					lightSampler.setPollingRate(5);
 
 					// - Change the coordinates according to the corner we are starting with.
 					if (corner != 0) {
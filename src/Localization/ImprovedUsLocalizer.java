@@ -2,14 +2,18 @@ package Localization;
 
 import EV3Hardware.Robot;
 import MeasurementDevices.Odometer;
+import MeasurementDevices.Pose;
 import Navigator.Navigator;
+import Sensors.SampleTrigger;
+import Sensors.TriggerListener;
 import Sensors.UltrasonicSensor;
 import lejos.hardware.Sound;
+import lejos.utility.Delay;
 
 /**
  * Class performing ultrasonic localization
  */
-public class ImprovedUsLocalizer {
+public class ImprovedUsLocalizer implements TriggerListener {
 	/**
 	 * Enumeration describing LocalizationType
 	 */
@@ -27,9 +31,10 @@ public class ImprovedUsLocalizer {
 	}
 
 	/**
-	 * Distance read by US sensor
+	 * Time during which a new edge is ignored, so the same wall is not
+	 * detected twice [ms]
 	 */
-	private static int dist;
+	private static final int HOLD_OFF = 2000;
 
 	/**
 	 * Noise margin constant
@@ -41,6 +46,16 @@ public class ImprovedUsLocalizer {
 	 */
 	public static int ROTATION_SPEED = 200;
 
+	/**
+	 * Distance at which the sensor sees no wall [cm]
+	 */
+	private static final int WALL_DISTANCE = 50;
+
+	/**
+	 * Orientation latched when the last trigger fired [deg]
+	 */
+	private volatile double latchedAngle = 0.0;
+
 	/**
 	 * Localization type to use
 	 */
@@ -57,6 +72,11 @@ public class ImprovedUsLocalizer {
 	 */
 	private Odometer odo;
 
+	/**
+	 * Pose of the robot at the last trigger
+	 */
+	private final Pose pose = new Pose();
+
 	/**
 	 * The correct angle that has to be reported by the odometer
 	 */
@@ -108,92 +128,22 @@ public class ImprovedUsLocalizer {
 		assert(nav != null);
 		double angleA = 0.0, angleB = 0.0;
 
-		// - Booleans that activates and breaks while loop
-		boolean fallingEdgeDetected = false;
-		boolean risingEdgeDetected = false;
-
-		// - Boolean. If there is no wall, it is true, else it is false
-		// - made in order to activate and break while loops
-		boolean noWall = false;
-
-		// - Timer used in order to make sure that the robot doesn't detect
-		// - the same wall twice.
-		long tempTime;
-
 		if (this.locType == LocalizationType.FALLING_EDGE) {
-			// - Rotate the robot until it sees no wall in order to stop rotating,
-			// - boolean noWall has to return true
-
-			while (!noWall) {
-				// - Turn right method
-				turnRight();
+			// - Rotate the robot until it sees no wall
+			turnUntil(noWall(), true, 0);
 
-				// - If no more wall, noWall becomes true in order to break
-				// - the while loop
-				if (getFilteredData() == 50)
-					noWall = true;
-			}
-
-			// - Gets current time
-			tempTime = System.currentTimeMillis();
-
-			// - Keep rotating until the robot sees a wall, then latch the angle
-			// - boolean that breaks the while loop when the falling edge is detected
-			while (!fallingEdgeDetected) {
-				turnRight();
-
-				// - Falling edge detected is true when US sensor detects a wall
-				// - minus the noise_margin in order to make sure it really
-				// - detects it.
-				// - However, it also has to make sure that the time difference
-				// - is over 2000 ms.
-				// - This is to make sure that the US sensor doesn't detect the
-				// - same wall twice very quickly
-				if (getFilteredData() < 50 - NOISE_MARGIN &&
-					(System.currentTimeMillis() - tempTime) > 2000) {
-					// - Breaks loop
-					fallingEdgeDetected = true;
-
-					// - Boolean becomes false in order to turn the other side
-					// - and activate the next while loop
-					noWall = false;
-
-					// - Latch angle
-					angleA = Math.toDegrees(this.odo.getOrientation());
-					Sound.beep();
-				}
-			}
-
-			// - Get time
-			tempTime = System.currentTimeMillis();
+			// - Keep rotating until the robot sees a wall, then latch the angle.
+			// - The hold off makes sure that the US sensor doesn't detect the
+			// - same wall twice very quickly
+			angleA = turnUntil(wall(), true, HOLD_OFF);
+			Sound.beep();
 
 			// - Switch direction and wait until it sees no wall
-			// - The time difference makes sure that it doesn't detect the
-			// - same wall twice
-			while (!noWall || (System.currentTimeMillis() - tempTime) < 2000) {
-				turnLeft();
-
-				// - No more wall boolean turns true to break while loop
-				if (getFilteredData() == 50) {
-					noWall = true;
-
-					// - Needs to detect another falling edge, hence it's false
-					fallingEdgeDetected = false;
-				}
-			}
+			turnUntil(noWall(), false, HOLD_OFF);
 
 			// - Keep rotating until the robot sees a wall, then latch the angle
-			while (!fallingEdgeDetected) {
-				turnLeft();
-				if (getFilteredData() < 50 - NOISE_MARGIN) {
-					// - Latch angle
-					angleB = Math.toDegrees(this.odo.getOrientation());
-					Sound.beep();
-
-					// - Break last while loop
-					fallingEdgeDetected = true;
-				}
-			}
+			angleB = turnUntil(wall(), false, 0);
+			Sound.beep();
 			Robot.setSpeeds(0, 0);
 
 			// - angleA is clockwise from angleB, so assume the average of the
@@ -219,70 +169,20 @@ public class ImprovedUsLocalizer {
 			 * will face toward the wall for most of it.
 			 */
 
-			noWall = true;
 			// - Robot turns until it sees the wall
-			while (noWall) {
-				turnRight();
-
-				// - If detects wall, no wall becomes false to break while loop
-				// - and go to next part
-				if (getFilteredData() < 50 - NOISE_MARGIN)
-					noWall = false;
-			}
-			// - Get time
-			tempTime = System.currentTimeMillis();
-
-			// - Robot turns until it reaches rising edge.
-			// - While loops that continues until it detects rising edge
-			while (!risingEdgeDetected) {
-				turnRight();
-
-				// - If no more wall, that means rising edge is detected and
-				// - make sure that it doesn't detect the same wall twice
-				if (getFilteredData() == 50 &&
-					System.currentTimeMillis() - tempTime > 2000) {
-					risingEdgeDetected = true;
-
-					// - No more wall so true
-					noWall = true;
-
-					// - Latch angle b
-					angleB = Math.toDegrees(this.odo.getOrientation());
-					Sound.beep();
-				}
-			}
-
-			// - Get time
-			tempTime = System.currentTimeMillis();
+			turnUntil(wall(), true, 0);
+
+			// - Robot turns until it reaches rising edge, making sure that it
+			// - doesn't detect the same wall twice, and latches angle b
+			angleB = turnUntil(noWall(), true, HOLD_OFF);
+			Sound.beep();
 
 			// - Robot switches direction until it sees the wall
-			while (noWall) {
-				turnLeft();
-
-				// - Time difference makes sure that it doesn't detect the same
-				// - wall twice very quickly
-				if (getFilteredData() < 50 - NOISE_MARGIN &&
-					(System.currentTimeMillis() - tempTime) > 2000) {
-					// - Rising edge becomes false because we need to detect a
-					// - second one for angleA
-					noWall = false;
-					risingEdgeDetected = false;
-				}
-			}
-			// - Robot rotates until it doesn't see the wall
-			// - Stops when rising edge is detected
-			while (!risingEdgeDetected) {
-				turnLeft();
-				if (getFilteredData() == 50) {
-					// - Latches angle when there is no more wall
-					angleA = Math.toDegrees(this.odo.getOrientation());
-
-					// - Break while loop
-					risingEdgeDetected = true;
-					noWall = true;
-					Sound.beep();
-				}
-			}
+			turnUntil(wall(), false, HOLD_OFF);
+
+			// - Robot rotates until it doesn't see the wall and latches angle a
+			angleA = turnUntil(noWall(), false, 0);
+			Sound.beep();
 			Robot.setSpeeds(0, 0);
 
 			// - Calculate heading to add to current
@@ -302,21 +202,56 @@ public class ImprovedUsLocalizer {
 	}
 
 	/**
-	 * Filter the sample
+	 * @return Trigger firing when the sensor sees no wall, at the clamping
+	 *         distance or further
+	 */
+	private static SampleTrigger noWall() {
+		return SampleTrigger.risesAbove(WALL_DISTANCE - 1);
+	}
+
+	/**
+	 * Latches the orientation at the sample that fired a trigger, called on
+	 * the sampling thread
+	 * 
+	 * @see Sensors.TriggerListener#triggered(Sensors.SampleTrigger, long,
+	 *      float)
+	 */
+	@Override
+	public void triggered(SampleTrigger trigger, long timestamp, float value) {
+		this.latchedAngle = Math.toDegrees(this.odo.poseAt(timestamp, this.pose).getTheta());
+	}
+
+	/**
+	 * Turns in place until a trigger fires on the distances, sleeping instead
+	 * of polling the sensor. The robot keeps turning when it returns.
 	 * 
-	 * @return Filtered sample
+	 * @param trigger trigger to wait for
+	 * @param right turn clockwise when true, counter clockwise otherwise
+	 * @param holdOff time during which the trigger is ignored [ms]
+	 * @return Orientation when the trigger fired [deg]
 	 */
-	@SuppressWarnings({ "boxing" })
-	private float getFilteredData() {
-		int distance = this.usSensor.getSample()[0];
-
-		// - Filter, if distance bigger than 50, return simply 50
-		if (distance >= 50)
-			dist = 50;
-		// - Else returns the actual distance.
+	private double turnUntil(SampleTrigger trigger, boolean right, int holdOff) {
+		if (right)
+			turnRight();
 		else
-			dist = distance;
-		return ImprovedUsLocalizer.dist;
+			turnLeft();
+		if (holdOff > 0)
+			Delay.msDelay(holdOff);
+
+		// - The trigger fires at its first sample if the condition already holds
+		trigger.setListener(this);
+		this.usSensor.addTrigger(trigger);
+		trigger.await(0);
+		this.usSensor.removeTrigger(trigger);
+		return this.latchedAngle;
+	}
+
+	/**
+	 * @return Trigger firing when the sensor sees a wall, closer than the
+	 *         clamping distance minus the noise margin
+	 */
+	private static SampleTrigger wall() {
+		return SampleTrigger.fallsBelow(WALL_DISTANCE - NOISE_MARGIN);
 	}
 
 	/**
@@ -2,10 +2,12 @@ package Localization;
 
 import EV3Hardware.Robot;
 import MeasurementDevices.Odometer;
+import MeasurementDevices.Pose;
+import Sensors.MetricsRegistry;
+import Utility.ScheduledTask;
+import Utility.Scheduler;
 import Utility.TimerInterface;
-import Utility.Vec2D;
 import lejos.hardware.lcd.TextLCD;
-import lejos.utility.Timer;
 import lejos.utility.TimerListener;
 
 /**
@@ -22,23 +24,33 @@ public class LCDInfo implements TimerListener, TimerInterface {
 	 */
 	private TextLCD LCD = Robot.textLCD;
 
+	/**
+	 * Number of lines showing the health of the sensors
+	 */
+	private static final int SENSOR_LINES = 4;
+
 	/**
 	 * Timer instance
 	 */
-	private Timer lcdTimer;
+	private ScheduledTask lcdTimer;
 
 	/**
 	 * Odometer instance
 	 */
 	private Odometer odo;
 
+	/**
+	 * Pose of the robot displayed
+	 */
+	private final Pose pose = new Pose();
+
 	/**
 	 * @param odo Odometer instance
 	 */
 	public LCDInfo(Odometer odo) {
 		assert(odo != null);
 		this.odo = odo;
-		this.lcdTimer = new Timer(LCD_REFRESH, this);
+		this.lcdTimer = Scheduler.CONTROL.schedule(this, LCD_REFRESH);
 
 		// - Start the timer
 		this.lcdTimer.start();
@@ -66,14 +78,20 @@ public class LCDInfo implements TimerListener, TimerInterface {
 	@Override
 	@SuppressWarnings("nls")
 	public void timedOut() {
-		Vec2D pos = this.odo.getPosition();
+		this.odo.getPose(this.pose);
 		this.LCD.clear();
 		this.LCD.drawString("X: ", 0, 0);
 		this.LCD.drawString("Y: ", 0, 1);
 		this.LCD.drawString("H: ", 0, 2);
-		this.LCD.drawInt((int) (pos.getX()), 3, 0);
-		this.LCD.drawInt((int) (pos.getY()), 3, 1);
-		this.LCD.drawInt((int) (Math.toDegrees(this.odo.getOrientation())),
+		this.LCD.drawInt((int) (this.pose.getX()), 3, 0);
+		this.LCD.drawInt((int) (this.pose.getY()), 3, 1);
+		this.LCD.drawInt((int) (Math.toDegrees(this.pose.getTheta())),
 		                 					   3, 2);
+
+		// - Health of the sensor pollers, one per line below the pose
+		String[] sensors = MetricsRegistry.getNames();
+		for (int i = 0; i < sensors.length && i < SENSOR_LINES; i++)
+			this.LCD.drawString(sensors[i] + " " + MetricsRegistry.get(sensors[i]),
+								0, 4 + i);
 	}
 }
@@ -1,18 +1,20 @@
 package Localization;
 
 import EV3Hardware.Robot;
+import Filters.EdgeDetector;
+import Filters.EdgeListener;
 import MeasurementDevices.Odometer;
+import MeasurementDevices.Pose;
 import Navigator.Navigator;
 import Sensors.LightSensor;
 import Utility.Vec2D;
 import lejos.hardware.Button;
 import lejos.hardware.Sound;
-import lejos.utility.Delay;
 
 /**
  * LightLocalizer
  */
-public class LightLocalizer {
+public class LightLocalizer implements EdgeListener {
 
 	/**
 	 * Cutoff value [intensity] of the grid detector
@@ -24,11 +26,36 @@ public class LightLocalizer {
 	 */
 	public static final double cutOffError = 0.01;
 
+	/**
+	 * Period at which the escape button is checked while rotating [ms]
+	 */
+	private static final long BUTTON_PERIOD = 50;
+
+	/**
+	 * Number of samples beyond the threshold needed to detect a line
+	 */
+	private static final int DEBOUNCE = 2;
+
 	/**
 	 * Suggested rotation speed [deg/s]
 	 */
 	public static int ROTATION_SPEED = 160;
 
+	/**
+	 * Number of detected grid lines
+	 */
+	private int gridlines = 0;
+
+	/**
+	 * Orientations at which the grid lines were left
+	 */
+	private final double[] lineAngles = new double[4];
+
+	/**
+	 * Lock object for mutual exclusion
+	 */
+	private final Object lock = new Object();
+
 	/**
 	 * Instance of a light sensor
 	 */
@@ -39,6 +66,11 @@ public class LightLocalizer {
 	 */
 	private Odometer odo;
 
+	/**
+	 * Pose of the robot at the last edge
+	 */
+	private final Pose pose = new Pose();
+
 	/**
 	 * @param odo odometer
 	 * @param pLS instance of the light sensor
@@ -70,50 +102,33 @@ public class LightLocalizer {
 		nav.turnTo(Math.PI / 4, true);
 		Robot.rotateDistanceLocalization(275, 275);
 
-		// - Prepare values for the differential detection of grid lines
-		float intensity = 0.f;
-		float prev = 0.f;
-		float delta = 0.f;
-
-		// - Number of detected grid lines
-		int gridlines = 0;
-		double[] angles = new double[4];
-
-		prev = this.ls.getSample()[0];
-
-		// - A crime against humanity
-		long correctionStart, correctionEnd;
-
-		// - Start rotating and clock all 4 grid-lines
-		while ((gridlines < 4) && (Button.readButtons() != Button.ID_ESCAPE)) {
-			correctionStart = System.currentTimeMillis();
-
-			Robot.setSpeeds(ROTATION_SPEED, -ROTATION_SPEED);
-
-			intensity = this.ls.getSample()[0];
-			delta = intensity - prev;
-
-			// - Show the value of intensity
-			// Robot.textLCD.drawString(String.format("Intensity: %.2f ", intensity), 0, 5);
-			// Robot.textLCD.drawString(String.format("Delta: %.2f ", delta), 0, 6);
-			if (Math.abs(delta) > cutDiff + cutOffError) {
-				// Just crossed the black line
-				// if delta is + -> Leaving the line
-				// - -> Entering the line
-				if (delta > 0) {
-					// Sound.beep();
-					angles[gridlines++] = this.odo.getOrientation();
-				} else {
-					assert(true);
+		// - Grid lines are darker than the floor seen before rotating, a
+		// - rising edge means the sensor is leaving a line
+		float floor = this.ls.getIntensity();
+		this.gridlines = 0;
+		this.ls.setEdgeDetector(EdgeDetector.withHysteresis(	(float) (floor - cutDiff),
+																(float) cutOffError,
+																DEBOUNCE, this));
+
+		// - Start rotating and clock all 4 grid-lines, the edges are detected
+		// - at the full rate of the sensor
+		Robot.setSpeeds(ROTATION_SPEED, -ROTATION_SPEED);
+		while (Button.readButtons() != Button.ID_ESCAPE) {
+			synchronized (this.lock) {
+				if (this.gridlines >= 4)
+					break;
+				try {
+					this.lock.wait(BUTTON_PERIOD);
+				} catch (@SuppressWarnings("unused") InterruptedException e) {
+					assert true;
 				}
 			}
+		}
+		this.ls.setEdgeDetector(null);
 
-			prev = intensity;
-			// TODO Remove this awfulness
-			correctionEnd = System.currentTimeMillis();
-			if (correctionEnd - correctionStart < 115) {
-				Delay.msDelay(115 - (correctionEnd - correctionStart));
-			}
+		double[] angles;
+		synchronized (this.lock) {
+			angles = this.lineAngles.clone();
 		}
 		Sound.beep();
 		// - Do trigonometry to compute (0,0) and 0 degrees
@@ -135,4 +150,22 @@ public class LightLocalizer {
 		nav.turnTo(0, true);
 
 	}
+
+	/**
+	 * Records the orientation of the robot when the sensor leaves a grid line,
+	 * called on the light sensor thread. The orientation is the one at the
+	 * time of the edge, not after the debounce.
+	 */
+	@Override
+	public void onEdge(boolean rising, long timestamp, float value) {
+		if (!rising)
+			return;
+
+		synchronized (this.lock) {
+			if (this.gridlines < 4) {
+				this.lineAngles[this.gridlines++] = this.odo.poseAt(timestamp, this.pose).getTheta();
+				this.lock.notifyAll();
+			}
+		}
+	}
 }
@@ -221,7 +221,7 @@ public class USLocalizer {
 	 */
 	@SuppressWarnings({ "boxing", "nls" })
 	private float getFilteredData() {
-		int distance = this.usSensor.getSample()[0];
+		int distance = this.usSensor.getDistanceCm();
 
 		Robot.textLCD.drawString(String.format(	"Distance: %d [cm]          ",
 												distance), 0, 4);
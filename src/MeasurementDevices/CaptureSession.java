@@ -0,0 +1,261 @@
+package MeasurementDevices;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import EV3Hardware.Robot;
+import Sensors.DataProvider;
+import Sensors.StreamingCollector;
+import Utility.ScheduledTask;
+import Utility.Scheduler;
+import Utility.TimerInterface;
+import lejos.utility.TimerListener;
+
+/**
+ * Capture of several sensors and of the odometry into one binary log, see
+ * Sensors.BinaryLog. Every period a single pass on the sensing scheduler
+ * reads the last sample of every provider, the pose of the odometer and the
+ * tachometers, and writes them as one record with one timestamp: the time
+ * since the session was opened on the monotonic clock [ms]. The sources are
+ * sampled on their own ticks, so every provider and the odometer also get an
+ * age channel: the time between their sample and the record [ms], which
+ * places each sample at the record time minus its age. The channels of a
+ * record are in the order they were added, see getChannelNames, e.g.:
+ * CaptureSession s = new CaptureSession(10).addProvider("us", usSampler)
+ * .addOdometer(odo).addTachometers();
+ * s.open("run.bin");
+ * s.start();
+ * ...
+ * s.close();
+ */
+public class CaptureSession implements TimerListener, TimerInterface,
+							AutoCloseable {
+
+	/**
+	 * Names of the channels of a record
+	 */
+	private final List<String> channelNames = new ArrayList<>();
+
+	/**
+	 * Collector writing the records, null until the session is opened
+	 */
+	private StreamingCollector collector = null;
+
+	/**
+	 * Odometer recorded, may be null
+	 */
+	private Odometer odometer = null;
+
+	/**
+	 * Start of the session on the monotonic clock [ns]
+	 */
+	private long origin = 0;
+
+	/**
+	 * Pose of the odometer recorded
+	 */
+	private final Pose pose = new Pose();
+
+	/**
+	 * Providers recorded
+	 */
+	private final List<DataProvider<?>> providers = new ArrayList<>();
+
+	/**
+	 * Record being filled
+	 */
+	private float[] record = new float[0];
+
+	/**
+	 * Flag indicating that the tachometers are recorded
+	 */
+	private boolean tachometers = false;
+
+	/**
+	 * Timer of the capture
+	 */
+	private final ScheduledTask timer;
+
+	/**
+	 * Number of channels of each provider
+	 */
+	private int[] widths = new int[0];
+
+	/**
+	 * Creates an empty session
+	 *
+	 * @param period time between two records [ms]
+	 */
+	public CaptureSession(int period) {
+		assert(period > 0);
+		this.timer = Scheduler.SENSING.schedule(this, period);
+	}
+
+	/**
+	 * Records the position [cm] and the orientation [rad] of the odometer as
+	 * three channels x, y and theta, followed by the age of the pose [ms] as
+	 * poseAge
+	 *
+	 * @param odo odometer
+	 * @return This session
+	 */
+	@SuppressWarnings("nls")
+	public CaptureSession addOdometer(Odometer odo) {
+		assert(odo != null);
+		assert(this.collector == null);
+		this.odometer = odo;
+		addChannels("x", "y", "theta", "poseAge");
+		return this;
+	}
+
+	/**
+	 * Records every channel of a provider, in the units of its sensor mode,
+	 * followed by the age of the sample [ms]. The channels are named after
+	 * the provider, e.g. us.0, us.1, us.age.
+	 *
+	 * @param name name of the provider
+	 * @param provider provider
+	 * @return This session
+	 */
+	@SuppressWarnings("nls")
+	public CaptureSession addProvider(String name, DataProvider<?> provider) {
+		assert(name != null);
+		assert(provider != null);
+		assert(this.collector == null);
+		int width = provider.getSample().length;
+		this.providers.add(provider);
+		this.widths = Arrays.copyOf(this.widths, this.widths.length + 1);
+		this.widths[this.widths.length - 1] = width;
+		for (int c = 0; c < width; c++)
+			addChannels(name + "." + c);
+		addChannels(name + ".age");
+		return this;
+	}
+
+	/**
+	 * Records the tachometer counts of the left and right wheels [deg] as two
+	 * channels
+	 *
+	 * @return This session
+	 */
+	@SuppressWarnings("nls")
+	public CaptureSession addTachometers() {
+		assert(this.collector == null);
+		this.tachometers = true;
+		addChannels("leftTacho", "rightTacho");
+		return this;
+	}
+
+	/**
+	 * Appends channels to the record
+	 *
+	 * @param names names of the channels
+	 */
+	private void addChannels(String... names) {
+		this.channelNames.addAll(Arrays.asList(names));
+		this.record = new float[this.channelNames.size()];
+	}
+
+	/**
+	 * Fills a record from every source and hands it to the collector
+	 *
+	 * @param timestamp time of the record [ms]
+	 * @param now time of the record on the clock of the samples [ms]
+	 */
+	void capture(long timestamp, long now) {
+		int o = 0;
+		for (int i = 0; i < this.providers.size(); i++) {
+			long sampled = this.providers.get(i).readSample(this.record, o);
+			o += this.widths[i];
+			this.record[o++] = now - sampled;
+		}
+		if (this.odometer != null) {
+			this.odometer.getPose(this.pose);
+			this.record[o++] = (float) this.pose.getX();
+			this.record[o++] = (float) this.pose.getY();
+			this.record[o++] = (float) this.pose.getTheta();
+			this.record[o++] = now - this.pose.getTimestamp();
+		}
+		if (this.tachometers) {
+			this.record[o++] = Robot.getLeftTachoCount();
+			this.record[o++] = Robot.getRightTachoCount();
+		}
+		this.collector.put(timestamp, this.record);
+	}
+
+	/**
+	 * Stops the capture and writes the remaining records
+	 *
+	 * @throws IOException if a write failed
+	 */
+	@Override
+	public void close() throws IOException {
+		this.timer.stop();
+		if (this.collector != null)
+			this.collector.close();
+	}
+
+	/**
+	 * @return Names of the channels of a record, in order
+	 */
+	public String[] getChannelNames() {
+		return this.channelNames.toArray(new String[this.channelNames.size()]);
+	}
+
+	/**
+	 * @return Number of records dropped because the writer fell behind
+	 */
+	public long getDropCount() {
+		return this.collector == null ? 0 : this.collector.getDropCount();
+	}
+
+	/**
+	 * @return Number of records captured
+	 */
+	public long getRecordCount() {
+		return this.collector == null ? 0 : this.collector.getSampleCount();
+	}
+
+	/**
+	 * Creates the log, the channels can no longer be changed
+	 *
+	 * @param path path of the log
+	 * @throws IOException if the log cannot be created
+	 */
+	public void open(String path) throws IOException {
+		assert(this.collector == null);
+		assert(this.record.length > 0);
+		this.collector = new StreamingCollector(path, this.record.length,
+												StreamingCollector.DEFAULT_CAPACITY);
+		this.origin = System.nanoTime();
+	}
+
+	/**
+	 * Starts capturing, the session must be open
+	 *
+	 * @see Utility.TimerInterface#start()
+	 */
+	@Override
+	public void start() {
+		assert(this.collector != null);
+		this.timer.start();
+	}
+
+	/**
+	 * @see Utility.TimerInterface#stop()
+	 */
+	@Override
+	public void stop() {
+		this.timer.stop();
+	}
+
+	/**
+	 * Captures one record
+	 */
+	@Override
+	public void timedOut() {
+		capture((System.nanoTime() - this.origin) / 1000000L, System.currentTimeMillis());
+	}
+}
@@ -0,0 +1,67 @@
+package MeasurementDevices;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Test;
+
+import Filters.FilterChain;
+import Sensors.BinaryLog;
+import Sensors.LightSensor;
+import Sensors.SyntheticSampleSource;
+import Sensors.UltrasonicSensor;
+
+/**
+ * CaptureSessionTest
+ */
+public class CaptureSessionTest {
+
+	/**
+	 * testCapture records two sensors polled at different rates into one log
+	 *
+	 * @throws IOException
+	 */
+	@SuppressWarnings({ "static-method", "nls" })
+	@Test
+	public void testCapture() throws IOException {
+		File f = File.createTempFile("capture", ".bin");
+		f.deleteOnExit();
+
+		UltrasonicSensor us = new UltrasonicSensor(new SyntheticSampleSource(40).offset(0.25f)
+																				.sine(0.25f, 400),
+													false, false, new FilterChain());
+		LightSensor ls = new LightSensor(new SyntheticSampleSource(5).offset(0.5f),
+											false, false, new FilterChain());
+
+		try (CaptureSession session = new CaptureSession(5).addProvider("us", us)
+															.addProvider("light", ls)) {
+			assertEquals(4, session.getChannelNames().length);
+			assertEquals("us.age", session.getChannelNames()[1]);
+			assertEquals("light.0", session.getChannelNames()[2]);
+			session.open(f.getPath());
+
+			// - The ultrasonic sensor is 8 times slower, every record holds
+			// - its last sample, older and older until the next one
+			for (int i = 0; i < 80; i++) {
+				ls.timedOut();
+				if (i % 8 == 0)
+					us.timedOut();
+				session.capture(5 * i, 5 * i);
+			}
+		}
+
+		BinaryLog log = BinaryLog.readFile(f.getPath());
+		assertEquals(4, log.getChannelCount());
+		assertEquals(80, log.getRecordCount());
+		for (int i = 0; i < 80; i++) {
+			assertEquals(5 * i, log.getTime(i));
+			assertEquals(0.25f + 0.25f * (float) Math.sin(2 * Math.PI * (i / 8) * 40 / 400),
+							log.getValue(i, 0), 1e-6f);
+			assertEquals(5 * (i % 8), log.getValue(i, 1), 0.f);
+			assertEquals(0.5f, log.getValue(i, 2), 0.f);
+			assertEquals(0.f, log.getValue(i, 3), 0.f);
+		}
+	}
+}
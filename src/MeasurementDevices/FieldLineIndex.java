@@ -0,0 +1,176 @@
+package MeasurementDevices;
+
+/**
+ * Positions of the grid lines and of the walls of the field, computed once.
+ * The field is a rectangle of square tiles bounded by four walls, the origin
+ * of the odometer being the first intersection of grid lines from the
+ * bottom left corner. The lines along y are at a constant x and the lines
+ * along x at a constant y, the nearest one to a point is found in constant
+ * time without allocating.
+ */
+public class FieldLineIndex {
+
+	/**
+	 * Side of a tile [cm]
+	 */
+	public static final double TILE = 30.48;
+
+	/**
+	 * Number of tiles along each side of the competition field
+	 */
+	public static final int TILES = 12;
+
+	/**
+	 * Competition field: 12 x 12 tiles, the walls one tile away from the
+	 * first and last lines
+	 */
+	public static final FieldLineIndex DEFAULT = new FieldLineIndex(TILE, -TILE, -TILE,
+																	(TILES - 1) * TILE,
+																	(TILES - 1) * TILE);
+
+	/**
+	 * Position along x of the lines along y [cm], increasing
+	 */
+	private final double[] linesX;
+
+	/**
+	 * Position along y of the lines along x [cm], increasing
+	 */
+	private final double[] linesY;
+
+	/**
+	 * Position of the wall along x at the right of the field [cm]
+	 */
+	private final double maxX;
+
+	/**
+	 * Position of the wall along y at the top of the field [cm]
+	 */
+	private final double maxY;
+
+	/**
+	 * Position of the wall along x at the left of the field [cm]
+	 */
+	private final double minX;
+
+	/**
+	 * Position of the wall along y at the bottom of the field [cm]
+	 */
+	private final double minY;
+
+	/**
+	 * Spacing of the grid lines [cm]
+	 */
+	private final double spacing;
+
+	/**
+	 * Creates the index of a field whose grid lines are at every multiple of
+	 * the spacing strictly between the walls
+	 *
+	 * @param spacing spacing of the grid lines [cm]
+	 * @param minX position of the wall along x at the left [cm]
+	 * @param minY position of the wall along y at the bottom [cm]
+	 * @param maxX position of the wall along x at the right [cm]
+	 * @param maxY position of the wall along y at the top [cm]
+	 */
+	public FieldLineIndex(	double spacing, double minX, double minY, double maxX,
+							double maxY) {
+		assert(spacing > 0.0);
+		assert(minX < maxX && minY < maxY);
+		this.spacing = spacing;
+		this.minX = minX;
+		this.minY = minY;
+		this.maxX = maxX;
+		this.maxY = maxY;
+		this.linesX = lines(spacing, minX, maxX);
+		this.linesY = lines(spacing, minY, maxY);
+	}
+
+	/**
+	 * Computes the multiples of the spacing strictly between two walls
+	 *
+	 * @param spacing spacing of the grid lines [cm]
+	 * @param min position of the first wall [cm]
+	 * @param max position of the second wall [cm]
+	 * @return Positions of the lines, increasing
+	 */
+	private static double[] lines(double spacing, double min, double max) {
+		// - Tolerance on the walls lying on a multiple of the spacing
+		double margin = spacing * 1e-6;
+		int first = (int) Math.floor((min + margin) / spacing) + 1;
+		int last = (int) Math.ceil((max - margin) / spacing) - 1;
+		double[] lines = new double[Math.max(0, last - first + 1)];
+		for (int i = 0; i < lines.length; i++)
+			lines[i] = (first + i) * spacing;
+		return lines;
+	}
+
+	/**
+	 * Finds the line closest to a position
+	 *
+	 * @param lines positions of the lines, increasing
+	 * @param p position [cm]
+	 * @return Position of the closest line, NaN if there is none
+	 */
+	private double nearest(double[] lines, double p) {
+		if (lines.length == 0)
+			return Double.NaN;
+		int i = (int) Math.rint((p - lines[0]) / this.spacing);
+		return lines[Math.max(0, Math.min(lines.length - 1, i))];
+	}
+
+	/**
+	 * @return Position of the wall along x at the right of the field [cm]
+	 */
+	public double getMaxX() {
+		return this.maxX;
+	}
+
+	/**
+	 * @return Position of the wall along y at the top of the field [cm]
+	 */
+	public double getMaxY() {
+		return this.maxY;
+	}
+
+	/**
+	 * @return Position of the wall along x at the left of the field [cm]
+	 */
+	public double getMinX() {
+		return this.minX;
+	}
+
+	/**
+	 * @return Position of the wall along y at the bottom of the field [cm]
+	 */
+	public double getMinY() {
+		return this.minY;
+	}
+
+	/**
+	 * @return Spacing of the grid lines [cm]
+	 */
+	public double getSpacing() {
+		return this.spacing;
+	}
+
+	/**
+	 * Finds the line along y, at a constant x, closest to a point
+	 *
+	 * @param x position of the point along x [cm]
+	 * @return Position of the line along x [cm], NaN if there is none
+	 */
+	public double nearestLineX(double x) {
+		return nearest(this.linesX, x);
+	}
+
+	/**
+	 * Finds the line along x, at a constant y, closest to a point
+	 *
+	 * @param y position of the point along y [cm]
+	 * @return Position of the line along y [cm], NaN if there is none
+	 */
+	public double nearestLineY(double y) {
+		return nearest(this.linesY, y);
+	}
+}
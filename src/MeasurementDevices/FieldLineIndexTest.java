@@ -0,0 +1,51 @@
+package MeasurementDevices;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * FieldLineIndexTest
+ */
+public class FieldLineIndexTest {
+
+	/**
+	 * Spacing of the grid lines [cm]
+	 */
+	private static final double GRID = 30.48;
+
+	/**
+	 * testDefault checks the lines of the competition field
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testDefault() {
+		FieldLineIndex field = FieldLineIndex.DEFAULT;
+		assertEquals(0.0, field.nearestLineX(-20), 1e-9);
+		assertEquals(0.0, field.nearestLineY(3), 1e-9);
+		assertEquals(10 * GRID, field.nearestLineX(400), 1e-9);
+		assertEquals(10 * GRID, field.nearestLineY(11 * GRID), 1e-9);
+	}
+
+	/**
+	 * testNearest finds the closest line on both sides of it
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testNearest() {
+		FieldLineIndex field = new FieldLineIndex(GRID, -GRID, -GRID, 4 * GRID, 2 * GRID);
+		assertEquals(GRID, field.nearestLineX(GRID - 4), 1e-9);
+		assertEquals(GRID, field.nearestLineX(GRID + 4), 1e-9);
+		assertEquals(2 * GRID, field.nearestLineX(2 * GRID - 14), 1e-9);
+		assertEquals(3 * GRID, field.nearestLineX(3 * GRID + 20), 1e-9);
+
+		// - There is no line on the walls
+		assertEquals(GRID, field.nearestLineY(2 * GRID), 1e-9);
+		assertEquals(0.0, field.nearestLineY(-GRID), 1e-9);
+
+		// - No line between the walls
+		FieldLineIndex narrow = new FieldLineIndex(GRID, 1, 1, 20, 20);
+		assertTrue(Double.isNaN(narrow.nearestLineX(10)));
+	}
+}
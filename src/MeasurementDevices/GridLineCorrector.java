@@ -0,0 +1,194 @@
+package MeasurementDevices;
+
+import Filters.EdgeListener;
+import Utility.MotionState;
+
+/**
+ * Corrects the odometer when the light sensor crosses a grid line, at any
+ * heading. It listens to the edges of the light sensor: the sensor enters a
+ * line on a falling edge and leaves it on a rising one, the crossing is
+ * taken halfway between them so the sensor is on the middle of the line.
+ * The position of the sensor at that time, from Odometer.poseAt, gives the
+ * closest line in the FieldLineIndex and only the component of the position
+ * perpendicular to that line is corrected: a line at a constant x only tells
+ * where the robot is along x.
+ * A crossing is rejected when the sensor is too far from any line, close to
+ * lines in both directions, moving almost along the line, or when the robot
+ * is turning since the sensor then sweeps the lines.
+ * When the odometer has a PoseFilter, see OdometryCorrection, the crossings
+ * made while driving straight go to Odometer.correctLine instead: the filter
+ * picks the line and gates the crossing on the covariance, and weights the
+ * correction by it.
+ */
+public class GridLineCorrector implements EdgeListener {
+
+	/**
+	 * Largest distance between the sensor and the line it crossed [cm]
+	 */
+	public static final double MAX_ERROR = 5.0;
+
+	/**
+	 * Longest time on a line for the crossing to be taken in its middle [ms]
+	 */
+	public static final long MAX_LINE_TIME = 500;
+
+	/**
+	 * Smallest angle between the heading and the line crossed [rad]
+	 */
+	public static final double MIN_CROSSING_ANGLE = Math.toRadians(20);
+
+	/**
+	 * Number of corrections applied
+	 */
+	private volatile int corrections = 0;
+
+	/**
+	 * Time at which the sensor entered the current line [ms], -1 if it is not
+	 * on a line
+	 */
+	private long entered = -1;
+
+	/**
+	 * Grid lines of the field
+	 */
+	private final FieldLineIndex field;
+
+	/**
+	 * Distance from the sensor to the line of the last correction without a
+	 * filter, along x or y [cm]
+	 */
+	private volatile double lastCorrection = 0.0;
+
+	/**
+	 * Odometer corrected
+	 */
+	private final Odometer odometer;
+
+	/**
+	 * Position of the sensor ahead of the center of rotation, negative behind
+	 * it [cm]
+	 */
+	private final double offset;
+
+	/**
+	 * Pose at the crossing
+	 */
+	private final Pose pose = new Pose();
+
+	/**
+	 * Number of crossings rejected
+	 */
+	private volatile int rejected = 0;
+
+	/**
+	 * Creates a corrector
+	 *
+	 * @param odometer odometer to correct
+	 * @param field grid lines of the field
+	 * @param offset position of the sensor ahead of the center of rotation,
+	 *            negative behind it [cm]
+	 */
+	public GridLineCorrector(Odometer odometer, FieldLineIndex field, double offset) {
+		assert(odometer != null);
+		assert(field != null);
+		this.odometer = odometer;
+		this.field = field;
+		this.offset = offset;
+	}
+
+	/**
+	 * Corrects the odometer with a crossing
+	 *
+	 * @param timestamp time at which the sensor was on the middle of the line
+	 *            [ms]
+	 * @return True if the odometer was corrected
+	 */
+	public boolean correct(long timestamp) {
+		if (MotionState.getLeftSpeed() != MotionState.getRightSpeed()) {
+			this.rejected++;
+			return false;
+		}
+
+		// - The filter screens the crossing itself
+		if (this.odometer.hasPoseFilter()) {
+			if (!this.odometer.correctLine(timestamp, this.offset)) {
+				this.rejected++;
+				return false;
+			}
+			this.corrections++;
+			return true;
+		}
+
+		this.odometer.poseAt(timestamp, this.pose);
+		double c = Math.cos(this.pose.getTheta());
+		double s = Math.sin(this.pose.getTheta());
+		double sx = this.pose.getX() + this.offset * c;
+		double sy = this.pose.getY() + this.offset * s;
+
+		// - Errors to the closest line at a constant x and at a constant y
+		double ex = this.field.nearestLineX(sx) - sx;
+		double ey = this.field.nearestLineY(sy) - sy;
+		boolean nearX = Math.abs(ex) <= MAX_ERROR;
+		boolean nearY = Math.abs(ey) <= MAX_ERROR;
+		double minCrossing = Math.sin(MIN_CROSSING_ANGLE);
+		double error;
+		if (nearX && !nearY && Math.abs(c) >= minCrossing) {
+			error = ex;
+			ey = 0.0;
+		} else if (nearY && !nearX && Math.abs(s) >= minCrossing) {
+			error = ey;
+			ex = 0.0;
+		} else {
+			this.rejected++;
+			return false;
+		}
+
+		this.odometer.correctPosition(ex, ey);
+		this.lastCorrection = error;
+		this.corrections++;
+		return true;
+	}
+
+	/**
+	 * @return Number of corrections applied
+	 */
+	public int getCorrections() {
+		return this.corrections;
+	}
+
+	/**
+	 * @return Distance from the sensor to the line of the last correction
+	 *         without a filter, along x or y [cm]
+	 */
+	public double getLastCorrection() {
+		return this.lastCorrection;
+	}
+
+	/**
+	 * @return Number of crossings rejected
+	 */
+	public int getRejected() {
+		return this.rejected;
+	}
+
+	/**
+	 * Corrects the odometer when the sensor leaves a line, called on the
+	 * light sensor thread
+	 *
+	 * @see Filters.EdgeListener#onEdge(boolean, long, float)
+	 */
+	@Override
+	public void onEdge(boolean rising, long timestamp, float value) {
+		// - Lines are darker than the floor
+		if (!rising) {
+			this.entered = timestamp;
+			return;
+		}
+
+		long crossing = timestamp;
+		if (this.entered >= 0 && timestamp - this.entered <= MAX_LINE_TIME)
+			crossing = (this.entered + timestamp) / 2;
+		this.entered = -1;
+		correct(crossing);
+	}
+}
@@ -0,0 +1,178 @@
+package MeasurementDevices;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import Utility.MotionState;
+import Utility.Vec2D;
+
+/**
+ * GridLineCorrectorTest
+ */
+public class GridLineCorrectorTest {
+
+	/**
+	 * Spacing of the grid lines [cm]
+	 */
+	private static final double GRID = FieldLineIndex.TILE;
+
+	/**
+	 * Position of the light sensor, behind the center of rotation [cm]
+	 */
+	private static final double LS_OFFSET = -11.75;
+
+	/**
+	 * Places the robot so that its sensor is at a point
+	 *
+	 * @param odometer odometer
+	 * @param sx position of the sensor along x [cm]
+	 * @param sy position of the sensor along y [cm]
+	 * @param theta heading [rad]
+	 */
+	private static void placeSensor(Odometer odometer, double sx, double sy, double theta) {
+		odometer.setOrientation(theta);
+		odometer.setPosition(Vec2D.getVector(	sx - LS_OFFSET * Math.cos(theta),
+												sy - LS_OFFSET * Math.sin(theta)));
+	}
+
+	/**
+	 * testFilter checks that the crossings go through the filter of the
+	 * odometer when it has one, and that the filter alone screens them
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testFilter() {
+		Odometer odometer = new Odometer(false);
+		GridLineCorrector corrector = new GridLineCorrector(odometer, FieldLineIndex.DEFAULT,
+															LS_OFFSET);
+		double[] p = new double[9];
+		odometer.setPoseFilter(new PoseFilter(FieldLineIndex.DEFAULT));
+
+		// - Driving along x, the sensor is 1 cm past the line at x = GRID
+		placeSensor(odometer, GRID + 1, 15, 0.0);
+		Pose before = odometer.getPose();
+		assertTrue(corrector.correct(0));
+
+		double k = PoseFilter.INITIAL_POSITION_VARIANCE /
+					(PoseFilter.INITIAL_POSITION_VARIANCE + PoseFilter.LINE_VARIANCE);
+		assertEquals(before.getX() - k, odometer.getPose().getX(), 1e-9);
+		assertTrue(odometer.getCovariance(p));
+		assertTrue(p[0] < PoseFilter.INITIAL_POSITION_VARIANCE);
+
+		// - Beyond MAX_ERROR but within the gate of an uncertain filter
+		PoseFilter uncertain = new PoseFilter(FieldLineIndex.DEFAULT);
+		uncertain.reset(16.0, PoseFilter.INITIAL_HEADING_VARIANCE);
+		odometer.setPoseFilter(uncertain);
+		placeSensor(odometer, GRID + 6, 15, 0.0);
+		before = odometer.getPose();
+		assertTrue(corrector.correct(0));
+		assertTrue(odometer.getPose().getX() < before.getX() - 5);
+
+		// - Within MAX_ERROR but beyond the gate of a confident filter
+		odometer.setPoseFilter(new PoseFilter(FieldLineIndex.DEFAULT));
+		placeSensor(odometer, GRID + 4, 15, 0.0);
+		before = odometer.getPose();
+		assertFalse(corrector.correct(0));
+		assertEquals(before.getX(), odometer.getPose().getX(), 0.0);
+		assertEquals(2, corrector.getCorrections());
+		assertEquals(1, corrector.getRejected());
+	}
+
+	/**
+	 * testMidpoint checks that the crossing is taken halfway between entering
+	 * and leaving the line
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testMidpoint() {
+		Odometer odometer = new Odometer(false);
+		GridLineCorrector corrector = new GridLineCorrector(odometer, FieldLineIndex.DEFAULT,
+															LS_OFFSET);
+
+		// - Driving along y, the sensor starts 3 cm before the line and moves
+		// - by 10 degrees of the wheels every 10 ms
+		odometer.update(0, 0, 1000);
+		placeSensor(odometer, 15, GRID - 3, Math.PI / 2);
+		double step = Math.toRadians(10) * 2.1;
+		for (int i = 1; i <= 30; i++)
+			odometer.update(10 * i, 10 * i, 1000 + 10 * i);
+		Pose before = odometer.getPose();
+
+		corrector.onEdge(false, 1050, 0.2f);
+		corrector.onEdge(true, 1150, 0.5f);
+		assertEquals(1, corrector.getCorrections());
+
+		// - The sensor was 10 steps further at the midpoint
+		double error = GRID - (GRID - 3 + 10 * step);
+		Pose pose = odometer.getPose();
+		assertEquals(before.getY() + error, pose.getY(), 1e-6);
+		assertEquals(before.getX(), pose.getX(), 0.0);
+	}
+
+	/**
+	 * testPerpendicular corrects only the component across the line at a
+	 * heading off the axes
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testPerpendicular() {
+		Odometer odometer = new Odometer(false);
+		GridLineCorrector corrector = new GridLineCorrector(odometer, FieldLineIndex.DEFAULT,
+															LS_OFFSET);
+		double theta = Math.toRadians(60);
+
+		// - The sensor is 1.5 cm past the line at x = GRID
+		placeSensor(odometer, GRID + 1.5, 15, theta);
+		Pose before = odometer.getPose();
+		assertTrue(corrector.correct(0));
+
+		Pose after = odometer.getPose();
+		assertEquals(before.getX() - 1.5, after.getX(), 1e-9);
+		assertEquals(before.getY(), after.getY(), 0.0);
+		assertEquals(before.getTheta(), after.getTheta(), 0.0);
+		assertEquals(-1.5, corrector.getLastCorrection(), 1e-9);
+	}
+
+	/**
+	 * testRejected checks that the ambiguous, grazing and turning crossings
+	 * leave the pose untouched
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testRejected() {
+		Odometer odometer = new Odometer(false);
+		GridLineCorrector corrector = new GridLineCorrector(odometer, FieldLineIndex.DEFAULT,
+															LS_OFFSET);
+
+		// - Near an intersection
+		placeSensor(odometer, GRID + 1, GRID - 2, Math.toRadians(60));
+		Pose before = odometer.getPose();
+		assertFalse(corrector.correct(0));
+		assertEquals(before.getX(), odometer.getPose().getX(), 0.0);
+		assertEquals(before.getY(), odometer.getPose().getY(), 0.0);
+
+		// - Moving almost along the line at x = GRID
+		placeSensor(odometer, GRID + 1, 15, Math.toRadians(85));
+		before = odometer.getPose();
+		assertFalse(corrector.correct(0));
+		assertEquals(before.getX(), odometer.getPose().getX(), 0.0);
+
+		// - Turning in place
+		placeSensor(odometer, GRID + 1, 15, Math.toRadians(60));
+		before = odometer.getPose();
+		try {
+			MotionState.setCommandedSpeeds(100, -100);
+			assertFalse(corrector.correct(0));
+		} finally {
+			MotionState.setCommandedSpeeds(0, 0);
+		}
+		assertEquals(before.getX(), odometer.getPose().getX(), 0.0);
+
+		assertEquals(0, corrector.getCorrections());
+		assertEquals(3, corrector.getRejected());
+		assertTrue(corrector.correct(0));
+	}
+}
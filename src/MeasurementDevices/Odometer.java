@@ -1,105 +1,187 @@
 package MeasurementDevices;
 
 import EV3Hardware.Robot;
+import MeasurementDevices.OdometryModel.Integration;
+import Utility.ScheduledTask;
+import Utility.Scheduler;
 import Utility.TimerInterface;
 import Utility.Vec2D;
-import lejos.utility.Timer;
 import lejos.utility.TimerListener;
 
 /**
- * Class performing odometry on the robot
+ * Class performing odometry on the robot. The tachometers are read on the
+ * odometer thread and handed to a PoseTracker, which integrates the pose
+ * under a lock and publishes it after every tick through a sequence lock:
+ * the readers never take the lock and always get the position, the
+ * orientation and the time of the same tick, see getPose.
+ * With a PoseFilter the odometer also propagates the covariance of the pose
+ * at every tick and fuses the light sensor and ultrasonic measurements
+ * handed to correctLine and correctRange.
  */
 public class Odometer implements TimerListener, TimerInterface {
 
 	/**
-	 * Suggested tick rate for the odometer as an interval in [ms].
+	 * Suggested tick rate for the odometer as an interval in [ms]. The ARC
+	 * integration at 15 ms is as accurate as the EULER one at 5 ms on arcs,
+	 * see OdometryReplay. On straight lines and turns in place the error
+	 * comes from the quantization of the tachometers and depends neither on
+	 * the mode nor on the rate.
 	 */
-	public static final int TICK_RATE = 5;
+	public static final int TICK_RATE = 15;
 
 	/**
-	 * Variable storing the vehicle displacement
+	 * Timer for automatic polling
 	 */
-	private double dDisplacement = 0.0;
+	private ScheduledTask odoTimer;
 
 	/**
-	 * Variable storing the change in heading
+	 * Pose integrated from the tachometers
 	 */
-	private double dHeading = 0.0;
+	private final PoseTracker tracker;
 
 	/**
-	 * Variable storing the wheel displacements of the robot
+	 * A default constructor, integrating arcs at TICK_RATE
+	 * 
+	 * @param autostart Start polling automatically or not
 	 */
-	private Vec2D distance = Vec2D.getNull();
+	public Odometer(boolean autostart) {
+		this(autostart, Odometer.TICK_RATE, Integration.ARC);
+	}
 
 	/**
-	 * Variable storing the position deltas of the robot
+	 * Creates an odometer ticking at a given rate
+	 * 
+	 * @param autostart Start polling automatically or not
+	 * @param period tick rate of the odometer [ms]
+	 * @param integration integration of the motion between two ticks
 	 */
-	private Vec2D dPosition = Vec2D.getNull();
+	public Odometer(boolean autostart, int period, Integration integration) {
+		assert(period > 0);
+		this.tracker = new PoseTracker(new OdometryModel(	Robot.LWHEEL_RADIUS, Robot.RWHEEL_RADIUS,
+															Robot.TRACK, Robot.ANGLE_SCALE,
+															integration),
+										Robot.TRACK / Robot.ANGLE_SCALE);
+
+		// - Create a timer
+		this.odoTimer = Scheduler.SENSING.schedule(this, period);
+		if (autostart)
+			this.odoTimer.start();
+	}
 
 	/**
-	 * Variable storing the last tachometer value
+	 * Getter for the orientation of the robot, without locking
+	 * 
+	 * @return scalar representing robot's orientation
 	 */
-	private Vec2D lastTacho = Vec2D.getNull();
+	public double getOrientation() {
+		return this.tracker.getOrientation();
+	}
 
 	/**
-	 * Lock object for mutual exclusion
+	 * Reads the whole pose of the last tick, without locking
+	 * 
+	 * @return A new pose
 	 */
-	private final Object lock = new Object();
+	public Pose getPose() {
+		return getPose(new Pose());
+	}
 
 	/**
-	 * Variable storing the current tachometer value
+	 * Reads the whole pose of the last tick in a caller supplied pose,
+	 * without locking nor allocating
+	 * 
+	 * @param dst destination of the pose
+	 * @return dst
 	 */
-	private Vec2D nowTacho = Vec2D.getNull();
+	public Pose getPose(Pose dst) {
+		return this.tracker.getPose(dst);
+	}
 
 	/**
-	 * Timer for automatic polling
+	 * Getter for the position of the robot, use getPose to read the
+	 * position and the orientation of the same tick
+	 * 
+	 * @return vector representing robot's position
 	 */
-	private Timer odoTimer;
+	public Vec2D getPosition() {
+		return getPose(new Pose()).getPosition();
+	}
 
 	/**
-	 * Variable storing the orientation of the robot
-	 */
-	private double orientation = Math.PI / 2;
+	 * Fuses the crossing of a grid line by the light sensor. The line is
+	 * matched with the pose at the time of the crossing and the correction
+	 * is applied to the current pose.
+	 * 
+	 * @param timestamp time of the crossing [ms]
+	 * @param offset position of the sensor ahead of the center of rotation,
+	 *            negative behind it [cm]
+	 * @return True if the crossing corrected the pose, false if it was
+	 *         rejected or there is no filter
+	 */
+	public boolean correctLine(long timestamp, double offset) {
+		return this.tracker.correctLine(timestamp, offset);
+	}
 
 	/**
-	 * Variable storing the position of the robot
-	 */
-	private Vec2D position = Vec2D.getNull();
+	 * Fuses the distance to a wall measured by an ultrasonic sensor. The wall
+	 * is matched with the pose at the time of the measurement and the
+	 * correction is applied to the current pose, see WallRangeCorrector.
+	 * 
+	 * @param timestamp time of the measurement [ms]
+	 * @param range distance measured [cm]
+	 * @param offset position of the sensor ahead of the center of rotation
+	 *            [cm]
+	 * @param angle angle of the sensor from the heading, counter-clockwise
+	 *            [rad]
+	 * @return True if the range corrected the pose, false if it was rejected
+	 *         or there is no filter
+	 */
+	public boolean correctRange(long timestamp, double range, double offset, double angle) {
+		return this.tracker.correctRange(timestamp, range, offset, angle);
+	}
 
 	/**
-	 * A default constructor
+	 * Moves the position by a correction, atomically with respect to the
+	 * ticks
 	 * 
-	 * @param autostart Start polling automatically or not
+	 * @param dx correction along x [cm]
+	 * @param dy correction along y [cm]
 	 */
-	public Odometer(boolean autostart) {
-		// - Create a timer
-		this.odoTimer = new Timer(Odometer.TICK_RATE, this);
-		if (autostart)
-			this.odoTimer.start();
+	public void correctPosition(double dx, double dy) {
+		this.tracker.correctPosition(dx, dy);
 	}
 
 	/**
-	 * Getter for the orientation of the robot
+	 * Copies the covariance of the pose
 	 * 
-	 * @return scalar representing robot's orientation
+	 * @param dst destination, 3x3 row major {x, y, theta} [cm^2, cm rad,
+	 *            rad^2]
+	 * @return False if there is no filter
 	 */
-	public double getOrientation() {
-		synchronized (this.lock) {
-			return this.orientation;
-		}
+	public boolean getCovariance(double[] dst) {
+		return this.tracker.getCovariance(dst);
 	}
 
 	/**
-	 * Getter for the position of the robot
-	 * 
-	 * @return vector representing robot's position
+	 * @return True if the measurements are fused with a filter
 	 */
-	public Vec2D getPosition() {
-		assert(this.position != null);
+	public boolean hasPoseFilter() {
+		return this.tracker.hasPoseFilter();
+	}
 
-		synchronized (this.lock) {
-			return this.position.copyOf();
-		}
+	/**
+	 * Reads the pose of the robot at a past time, interpolated between the
+	 * ticks around it, without locking nor allocating. The time is on the
+	 * clock of the sensor samples, so a sensor event can be attributed to
+	 * the pose of the robot when its sample was taken.
+	 * 
+	 * @param timestamp time [ms], the oldest or newest pose is given outside
+	 *            of the last PoseHistory.DEFAULT_CAPACITY ticks
+	 * @param dst destination of the pose
+	 * @return dst
+	 */
+	public Pose poseAt(long timestamp, Pose dst) {
+		return this.tracker.poseAt(timestamp, dst);
 	}
 
 	/**
@@ -108,9 +190,17 @@ public class Odometer implements TimerListener, TimerInterface {
 	 * @param orientation new robot's orientation
 	 */
 	public void setOrientation(double orientation) {
-		synchronized (this.lock) {
-			this.orientation = orientation;
-		}
+		this.tracker.setOrientation(orientation);
+	}
+
+	/**
+	 * Fuses the measurements with a filter from now on, the covariance is
+	 * propagated from the current pose
+	 * 
+	 * @param poseFilter filter, null to stop fusing
+	 */
+	public void setPoseFilter(PoseFilter poseFilter) {
+		this.tracker.setPoseFilter(poseFilter);
 	}
 
 	/**
@@ -120,9 +210,7 @@ public class Odometer implements TimerListener, TimerInterface {
 	 */
 	public void setPosition(Vec2D position) {
 		assert(position != null);
-		synchronized (this.lock) {
-			this.position.setVector(position);
-		}
+		this.tracker.setPosition(position.getX(), position.getY());
 	}
 
 	/**
@@ -142,40 +230,23 @@ public class Odometer implements TimerListener, TimerInterface {
 	}
 
 	/**
-	 * Updates the odometer
+	 * Updates the odometer, without allocating
 	 */
 	@Override
 	public void timedOut() {
-		// - Get tachometer counts
-		this.nowTacho = Robot.getTachoCount();
-
-		// - Set the distance of the vector, this code is not really nicely
-		// - formatted. The part on the right side indicate the scale factors
-		// - for the <x, y> components
-		this.distance.setVector(Vec2D.sub(this.nowTacho, this.lastTacho).scale(
-																				(Math.PI *
-																					Robot.LWHEEL_RADIUS /
-																					180),
-																				(Math.PI *
-																					Robot.RWHEEL_RADIUS /
-																					180)));
-		// - Save tachometer counts for next iteration
-		this.lastTacho.setVector(this.nowTacho);
-
-		// - Compute vehicle displacement
-		this.dDisplacement = this.distance.componentSum() / 2;
-		// - Compute change in heading
-		this.dHeading = -this.distance.componentDiff() / Robot.TRACK;
-
-		synchronized (this.lock) {
-			// - Update heading
-			this.orientation += this.dHeading * Robot.ANGLE_SCALE;
-			// - Fix the angle
-			this.orientation = Vec2D.fixAngle(this.orientation);
-			// - Compute displacement
-			this.dPosition.setMagAngle(this.dDisplacement, this.orientation);
-			// - Update estimates the position
-			this.position.add(this.dPosition);
-		}
+		// - Read the motors outside of the lock
+		update(Robot.getLeftTachoCount(), Robot.getRightTachoCount(),
+				System.currentTimeMillis());
+	}
+
+	/**
+	 * Integrates the motion since the last tick and publishes the pose
+	 * 
+	 * @param left tachometer count of the left wheel [deg]
+	 * @param right tachometer count of the right wheel [deg]
+	 * @param now time of the tick [ms]
+	 */
+	void update(int left, int right, long now) {
+		this.tracker.update(left, right, now);
 	}
 }
@@ -0,0 +1,66 @@
+package MeasurementDevices;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import Utility.Vec2D;
+
+/**
+ * OdometerTest
+ */
+public class OdometerTest {
+
+	/**
+	 * Spacing of the grid lines [cm]
+	 */
+	private static final double GRID = FieldLineIndex.TILE;
+
+	/**
+	 * Position of the light sensor, behind the center of rotation [cm]
+	 */
+	private static final double LS_OFFSET = -11.75;
+
+	/**
+	 * testCorrectLine checks that a crossing is matched with the pose at its
+	 * time and that the correction is added to the current pose
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testCorrectLine() {
+		Odometer odometer = new Odometer(false);
+		double[] p = new double[9];
+
+		// - Driving along y by 10 degrees of the wheels every 10 ms, the
+		// - sensor reaches 0.5 cm short of the line at 1100 ms
+		double step = Math.toRadians(10) * 2.1;
+		odometer.update(0, 0, 1000);
+		odometer.setOrientation(Math.PI / 2);
+		odometer.setPosition(Vec2D.getVector(15, GRID - 0.5 - 10 * step - LS_OFFSET));
+		for (int i = 1; i <= 30; i++)
+			odometer.update(10 * i, 10 * i, 1000 + 10 * i);
+		Pose before = odometer.getPose();
+		assertEquals(GRID - 0.5 - LS_OFFSET, odometer.poseAt(1100, new Pose()).getY(), 1e-6);
+
+		// - Nothing is fused without a filter
+		assertFalse(odometer.correctLine(1100, LS_OFFSET));
+		assertFalse(odometer.getCovariance(p));
+
+		odometer.setPoseFilter(new PoseFilter(FieldLineIndex.DEFAULT));
+		assertTrue(odometer.hasPoseFilter());
+		assertTrue(odometer.correctLine(1100, LS_OFFSET));
+
+		// - The line was 0.5 cm ahead of the past pose, the current pose 20
+		// - steps further moves by the gain of the filter
+		double k = PoseFilter.INITIAL_POSITION_VARIANCE /
+					(PoseFilter.INITIAL_POSITION_VARIANCE + PoseFilter.LINE_VARIANCE);
+		Pose after = odometer.getPose();
+		assertEquals(before.getY() + 0.5 * k, after.getY(), 1e-6);
+		assertEquals(before.getX(), after.getX(), 1e-9);
+		assertEquals(before.getTheta(), after.getTheta(), 1e-9);
+		assertTrue(odometer.getCovariance(p));
+		assertEquals(PoseFilter.INITIAL_POSITION_VARIANCE * (1 - k), p[4], 1e-9);
+	}
+}
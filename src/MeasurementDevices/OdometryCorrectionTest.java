@@ -0,0 +1,40 @@
+package MeasurementDevices;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import Filters.FilterChain;
+import Sensors.LightSensor;
+import Sensors.SyntheticSampleSource;
+
+/**
+ * OdometryCorrectionTest
+ */
+public class OdometryCorrectionTest {
+
+	/**
+	 * testFusion checks that a PoseFilter is installed only when the fusion
+	 * is asked for, and only while correcting
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testFusion() {
+		Odometer odometer = new Odometer(false);
+		LightSensor ls = new LightSensor(new SyntheticSampleSource(5).offset(0.5f), false, false,
+											new FilterChain());
+		ls.timedOut();
+
+		OdometryCorrection perpendicular = new OdometryCorrection(odometer, ls);
+		perpendicular.start();
+		assertFalse(odometer.hasPoseFilter());
+		perpendicular.stop();
+
+		OdometryCorrection fused = new OdometryCorrection(odometer, ls, true);
+		fused.start();
+		assertTrue(odometer.hasPoseFilter());
+		fused.stop();
+		assertFalse(odometer.hasPoseFilter());
+	}
+}
@@ -1,9 +1,9 @@
 package MeasurementDevices;
 
 import EV3Hardware.Robot;
+import Utility.ScheduledTask;
+import Utility.Scheduler;
 import Utility.TimerInterface;
-import Utility.Vec2D;
-import lejos.utility.Timer;
 import lejos.utility.TimerListener;
 
 /**
@@ -23,7 +23,12 @@ public class OdometryDisplay implements TimerListener, TimerInterface {
 	/**
 	 * Timer for automatic polling
 	 */
-	private Timer odoTimer;
+	private ScheduledTask odoTimer;
+
+	/**
+	 * Pose of the robot displayed
+	 */
+	private final Pose pose = new Pose();
 
 	/**
 	 * Constructor for the Odometry Display
@@ -34,7 +39,7 @@ public class OdometryDisplay implements TimerListener, TimerInterface {
 	public OdometryDisplay(Odometer odometer, boolean autostart) {
 		this.odometer = odometer;
 
-		this.odoTimer = new Timer(OdometryDisplay.TICK_RATE, this); // create a timer
+		this.odoTimer = Scheduler.CONTROL.schedule(this, OdometryDisplay.TICK_RATE); // create a timer
 		if (autostart)
 			this.odoTimer.start();
 
@@ -65,8 +70,7 @@ public class OdometryDisplay implements TimerListener, TimerInterface {
 	@Override
 	public void timedOut() {
 		// store position and orientation values and get the odometry information
-		Vec2D pos = this.odometer.getPosition();
-		double orientation = this.odometer.getOrientation();
+		this.odometer.getPose(this.pose);
 
 		// clear the lines for displaying odometry information
 		Robot.textLCD.drawString("X:              ", 0, 0);
@@ -74,9 +78,9 @@ public class OdometryDisplay implements TimerListener, TimerInterface {
 		Robot.textLCD.drawString("T:              ", 0, 2);
 
 		// display the odometry information
-		Robot.textLCD.drawString(String.format("%.2f", pos.getX()), 3, 0);
-		Robot.textLCD.drawString(String.format("%.2f", pos.getY()), 3, 1);
+		Robot.textLCD.drawString(String.format("%.2f", this.pose.getX()), 3, 0);
+		Robot.textLCD.drawString(String.format("%.2f", this.pose.getY()), 3, 1);
 		Robot.textLCD.drawString(String.format("%.2f", 
-		                                       Math.toDegrees(orientation), 2), 3, 2);
+		                                       Math.toDegrees(this.pose.getTheta()), 2), 3, 2);
 	}
 }
@@ -0,0 +1,249 @@
+package MeasurementDevices;
+
+import Utility.Vec2D;
+
+/**
+ * Dead reckoning of a differential drive robot from the tachometer counts of
+ * its wheels. The whole state is kept in primitive fields so an update does
+ * not allocate, and the model does not touch the hardware so it can be
+ * driven by recorded or simulated counts. It is not thread safe, the
+ * Odometer guards it with its lock.
+ * The counts start at 0, as the motors when the robot boots.
+ * The motion between two updates is integrated following an Integration
+ * mode, only EULER needs a fast tick to stay accurate in curves, see
+ * OdometryReplay for the error of each mode at each tick rate.
+ */
+public class OdometryModel {
+
+	/**
+	 * Integration of the motion between two updates
+	 */
+	public enum Integration {
+		/**
+		 * Exact circular arc: the wheels are assumed at constant speed between
+		 * two updates, so the robot moves along the chord of the arc
+		 */
+		ARC,
+		/**
+		 * First order: the heading is updated first and the robot moves along
+		 * the new heading
+		 */
+		EULER,
+		/**
+		 * Second order Runge-Kutta: the robot moves along the heading halfway
+		 * through the update
+		 */
+		MIDPOINT
+	}
+
+	/**
+	 * Rotation under which an arc is integrated as a straight line [rad]
+	 */
+	private static final double MIN_ARC_ROTATION = 1e-9;
+
+	/**
+	 * Scaling factor correcting the angle of rotation
+	 */
+	private final double angleScale;
+
+	/**
+	 * Integration of the motion between two updates
+	 */
+	private final Integration integration;
+
+	/**
+	 * Displacement of the robot at the last update [cm]
+	 */
+	private double lastDisplacement = 0.0;
+
+	/**
+	 * Tachometer count of the left wheel at the last update [deg]
+	 */
+	private int lastLeft = 0;
+
+	/**
+	 * Tachometer count of the right wheel at the last update [deg]
+	 */
+	private int lastRight = 0;
+
+	/**
+	 * Change of the heading at the last update [rad]
+	 */
+	private double lastRotation = 0.0;
+
+	/**
+	 * Distance travelled by the left wheel per degree [cm/deg]
+	 */
+	private final double leftScale;
+
+	/**
+	 * Distance travelled by the right wheel per degree [cm/deg]
+	 */
+	private final double rightScale;
+
+	/**
+	 * Orientation of the robot [rad] in [0, 2PI]
+	 */
+	private double theta = Math.PI / 2;
+
+	/**
+	 * Distance between the wheels [cm]
+	 */
+	private final double track;
+
+	/**
+	 * Position of the robot along x [cm]
+	 */
+	private double x = 0.0;
+
+	/**
+	 * Position of the robot along y [cm]
+	 */
+	private double y = 0.0;
+
+	/**
+	 * Creates a model at the origin facing along y, integrating with EULER
+	 *
+	 * @param leftRadius radius of the left wheel [cm]
+	 * @param rightRadius radius of the right wheel [cm]
+	 * @param track distance between the wheels [cm]
+	 * @param angleScale scaling factor correcting the angle of rotation
+	 */
+	public OdometryModel(	double leftRadius, double rightRadius,
+							double track, double angleScale) {
+		this(leftRadius, rightRadius, track, angleScale, Integration.EULER);
+	}
+
+	/**
+	 * Creates a model at the origin facing along y
+	 *
+	 * @param leftRadius radius of the left wheel [cm]
+	 * @param rightRadius radius of the right wheel [cm]
+	 * @param track distance between the wheels [cm]
+	 * @param angleScale scaling factor correcting the angle of rotation
+	 * @param integration integration of the motion between two updates
+	 */
+	public OdometryModel(	double leftRadius, double rightRadius,
+							double track, double angleScale,
+							Integration integration) {
+		assert(integration != null);
+		assert(leftRadius > 0.0);
+		assert(rightRadius > 0.0);
+		assert(track > 0.0);
+		this.leftScale = Math.PI * leftRadius / 180;
+		this.rightScale = Math.PI * rightRadius / 180;
+		this.track = track;
+		this.angleScale = angleScale;
+		this.integration = integration;
+	}
+
+	/**
+	 * @return Integration of the motion between two updates
+	 */
+	public Integration getIntegration() {
+		return this.integration;
+	}
+
+	/**
+	 * @return Displacement of the robot at the last update [cm]
+	 */
+	public double getLastDisplacement() {
+		return this.lastDisplacement;
+	}
+
+	/**
+	 * @return Change of the heading at the last update [rad]
+	 */
+	public double getLastRotation() {
+		return this.lastRotation;
+	}
+
+	/**
+	 * @return Orientation of the robot [rad] in [0, 2PI]
+	 */
+	public double getTheta() {
+		return this.theta;
+	}
+
+	/**
+	 * @return Position of the robot along x [cm]
+	 */
+	public double getX() {
+		return this.x;
+	}
+
+	/**
+	 * @return Position of the robot along y [cm]
+	 */
+	public double getY() {
+		return this.y;
+	}
+
+	/**
+	 * Sets the position of the robot
+	 *
+	 * @param px position along x [cm]
+	 * @param py position along y [cm]
+	 */
+	public void setPosition(double px, double py) {
+		this.x = px;
+		this.y = py;
+	}
+
+	/**
+	 * Sets the orientation of the robot
+	 *
+	 * @param orientation orientation [rad]
+	 */
+	public void setTheta(double orientation) {
+		this.theta = orientation;
+	}
+
+	/**
+	 * Integrates the motion since the last update
+	 *
+	 * @param leftTacho tachometer count of the left wheel [deg]
+	 * @param rightTacho tachometer count of the right wheel [deg]
+	 */
+	public void update(int leftTacho, int rightTacho) {
+		// - Distances travelled by the wheels
+		double dLeft = (leftTacho - this.lastLeft) * this.leftScale;
+		double dRight = (rightTacho - this.lastRight) * this.rightScale;
+		this.lastLeft = leftTacho;
+		this.lastRight = rightTacho;
+
+		// - Compute vehicle displacement and change in heading
+		this.lastDisplacement = (dLeft + dRight) / 2;
+		this.lastRotation = (dRight - dLeft) / this.track * this.angleScale;
+
+		switch (this.integration) {
+		case ARC:
+			// - Chord of the arc, along the heading halfway through it
+			double half = this.lastRotation / 2;
+			double chord = Math.abs(half) < MIN_ARC_ROTATION ?
+																this.lastDisplacement :
+																this.lastDisplacement * Math.sin(half) / half;
+			move(chord, this.theta + half);
+			break;
+		case MIDPOINT:
+			move(this.lastDisplacement, this.theta + this.lastRotation / 2);
+			break;
+		case EULER:
+		default:
+			move(this.lastDisplacement, this.theta + this.lastRotation);
+			break;
+		}
+		this.theta = Vec2D.fixAngle(this.theta + this.lastRotation);
+	}
+
+	/**
+	 * Moves the robot in a straight line
+	 *
+	 * @param distance distance travelled [cm]
+	 * @param heading direction of the motion [rad]
+	 */
+	private void move(double distance, double heading) {
+		this.x += distance * Math.cos(heading);
+		this.y += distance * Math.sin(heading);
+	}
+}
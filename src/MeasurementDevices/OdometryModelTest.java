@@ -0,0 +1,84 @@
+package MeasurementDevices;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import MeasurementDevices.OdometryModel.Integration;
+
+/**
+ * OdometryModelTest
+ */
+public class OdometryModelTest {
+
+	/**
+	 * testArc drives a quarter circle in one update, only ARC lands on it
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testArc() {
+		// - Center of the robot on a circle of 20 cm, 5 PI cm for the left
+		// - wheel and 15 PI cm for the right one on a track of 20 cm
+		double radius = 1;
+		int left = 900;
+		int right = 2700;
+		double[] expectedX = { -20, -10 * Math.PI, -10 * Math.PI * Math.sqrt(0.5) };
+
+		Integration[] modes = { Integration.ARC, Integration.EULER, Integration.MIDPOINT };
+		for (int i = 0; i < modes.length; i++) {
+			OdometryModel model = new OdometryModel(radius, radius, 20, 1, modes[i]);
+			model.update(left, right);
+			assertEquals(Math.PI, model.getTheta(), 1e-9);
+			assertEquals(modes[i].toString(), expectedX[i], model.getX(), 1e-9);
+		}
+		OdometryModel arc = new OdometryModel(radius, radius, 20, 1, Integration.ARC);
+		arc.update(left, right);
+		assertEquals(20, arc.getY(), 1e-9);
+	}
+
+	/**
+	 * testReplay checks that ARC at 20 ms is at least as accurate as EULER at
+	 * 5 ms on the test paths
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testReplay() {
+		double[][][] paths = { OdometryReplay.SQUARE, OdometryReplay.ROTATION,
+								OdometryReplay.CURVE, OdometryReplay.PIVOT };
+		for (double[][] path : paths) {
+			double[] euler = OdometryReplay.simulate(path, 5, Integration.EULER);
+			double[] arc = OdometryReplay.simulate(path, 20, Integration.ARC);
+			assertTrue(arc[OdometryReplay.MAX_POSITION_ERROR] <= euler[OdometryReplay.MAX_POSITION_ERROR] + 0.005);
+			assertTrue(arc[OdometryReplay.POSITION_ERROR] <= euler[OdometryReplay.POSITION_ERROR] + 0.005);
+			assertTrue(arc[OdometryReplay.HEADING_ERROR] <= euler[OdometryReplay.HEADING_ERROR] + 1e-3);
+		}
+		// - EULER drifts in tight turns at the slow tick
+		double[] euler = OdometryReplay.simulate(OdometryReplay.PIVOT, 20, Integration.EULER);
+		double[] arc = OdometryReplay.simulate(OdometryReplay.PIVOT, 20, Integration.ARC);
+		assertTrue(euler[OdometryReplay.MAX_POSITION_ERROR] > 2 * arc[OdometryReplay.MAX_POSITION_ERROR]);
+	}
+
+	/**
+	 * testStraight drives forward then turns in place, every mode is exact
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testStraight() {
+		double radius = 180 / Math.PI;
+		for (Integration mode : Integration.values()) {
+			OdometryModel model = new OdometryModel(radius, radius, 20, 1, mode);
+			model.update(30, 30);
+			assertEquals(0, model.getX(), 1e-9);
+			assertEquals(30, model.getY(), 1e-9);
+			assertEquals(30, model.getLastDisplacement(), 1e-9);
+
+			// - About a quarter turn counter-clockwise, 5 PI cm per wheel
+			int quarter = (int) Math.round(5 * Math.PI);
+			model.update(30 - quarter, 30 + quarter);
+			assertEquals(0, model.getX(), 1e-9);
+			assertEquals(30, model.getY(), 1e-9);
+			assertEquals(Math.PI / 2 + 2 * quarter / 20.0, model.getTheta(), 1e-9);
+		}
+	}
+}
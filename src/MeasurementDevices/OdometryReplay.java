@@ -0,0 +1,270 @@
+package MeasurementDevices;
+
+import java.io.IOException;
+
+import EV3Hardware.Robot;
+import MeasurementDevices.OdometryModel.Integration;
+import Sensors.BinaryLog;
+import Utility.Vec2D;
+
+/**
+ * Compares the integration modes of OdometryModel at several odometer tick
+ * rates. It runs on the desktop, without the hardware:
+ * java MeasurementDevices.OdometryReplay
+ * drives the standard test paths with the wheels at constant speed per
+ * segment, the reference pose is then known exactly, and
+ * java MeasurementDevices.OdometryReplay run.bin leftChannel rightChannel
+ * replays the tachometers of a CaptureSession log, the reference being the
+ * ARC integration at the rate of the log.
+ * The errors are returned as {position error at the end [cm], heading error
+ * at the end [rad], largest position error at a tick [cm]}.
+ * Largest position error at a tick [cm] on the standard paths, MIDPOINT
+ * gives the same errors as ARC:
+ * <pre>
+ * path      mode    5 ms   10 ms  15 ms  20 ms
+ * square    any     0.080  0.080  0.080  0.080
+ * rotation  any     0.018  0.018  0.018  0.018
+ * curve     ARC     0.030  0.020  0.029  0.000
+ * curve     EULER   0.035  0.035  0.054  0.035
+ * pivot     ARC     0.051  0.053  0.018  0.018
+ * pivot     EULER   0.051  0.065  0.100  0.132
+ * </pre>
+ * The errors of the square and of the rotation come from the quantization of
+ * the tachometers to whole degrees and do not depend on the mode nor on the
+ * rate: both wheels turn at the same speed, in the same direction or in
+ * opposite ones, each tick is then a straight line or a turn in place that
+ * every mode integrates exactly. The modes only differ on arcs, where ARC at
+ * 15 ms stays below EULER at 5 ms, hence Odometer.TICK_RATE.
+ */
+public class OdometryReplay {
+
+	/**
+	 * Two arcs of opposite curvature {left speed [deg/s], right speed [deg/s],
+	 * duration [ms]}
+	 */
+	public static final double[][] CURVE = { { 200, 150, 5000 }, { 150, 200, 5000 } };
+
+	/**
+	 * Index of the heading error at the end [rad]
+	 */
+	public static final int HEADING_ERROR = 1;
+
+	/**
+	 * Index of the largest position error at a tick [cm]
+	 */
+	public static final int MAX_POSITION_ERROR = 2;
+
+	/**
+	 * Index of the position error at the end [cm]
+	 */
+	public static final int POSITION_ERROR = 0;
+
+	/**
+	 * Pivots on the left then on the right wheel at full speed {left speed
+	 * [deg/s], right speed [deg/s], duration [ms]}
+	 */
+	public static final double[][] PIVOT = { { 0, 360, 4000 }, { 360, 0, 4000 } };
+
+	/**
+	 * Scale of the reference counts, the reference is integrated in
+	 * thousandths of a degree
+	 */
+	private static final int REFERENCE_SCALE = 1000;
+
+	/**
+	 * Four full turns in place {left speed [deg/s], right speed [deg/s],
+	 * duration [ms]}
+	 */
+	public static final double[][] ROTATION = { { -100, 100, 4 * wheelAngle(360) * 10 } };
+
+	/**
+	 * A 30 cm square driven like the Navigator does, forward then a 90 degrees
+	 * turn in place {left speed [deg/s], right speed [deg/s], duration [ms]}
+	 */
+	public static final double[][] SQUARE = square(30.0, 200);
+
+	/**
+	 * Tick rates compared [ms]
+	 */
+	public static final int[] TICK_RATES = { 5, 10, 15, 20 };
+
+	/**
+	 * Static class
+	 */
+	private OdometryReplay() {
+		assert true;
+	}
+
+	/**
+	 * Compares a model with a reference and updates the errors
+	 *
+	 * @param reference reference model
+	 * @param model model compared
+	 * @param error errors, see the class description
+	 */
+	private static void compare(OdometryModel reference, OdometryModel model,
+								double[] error) {
+		error[POSITION_ERROR] = Math.hypot(	model.getX() - reference.getX(),
+											model.getY() - reference.getY());
+		error[HEADING_ERROR] = Math.abs(Vec2D.minimumAngleFromTo(reference.getTheta(),
+																	model.getTheta()));
+		error[MAX_POSITION_ERROR] = Math.max(error[MAX_POSITION_ERROR], error[POSITION_ERROR]);
+	}
+
+	/**
+	 * Entry point of the comparison
+	 *
+	 * @param args nothing to drive the standard paths, or the path of a
+	 *            CaptureSession log and the indices of its left and right
+	 *            tachometer channels
+	 * @throws IOException if the log cannot be read
+	 */
+	@SuppressWarnings({ "boxing", "nls" })
+	public static void main(String[] args) throws IOException {
+		System.out.println("path      rate  mode      end [cm]  end [deg]  max [cm]");
+		if (args.length >= 3) {
+			BinaryLog log = BinaryLog.readFile(args[0]);
+			int left = Integer.parseInt(args[1]);
+			int right = Integer.parseInt(args[2]);
+			int period = (int) Math.max(1, (log.getTime(log.getRecordCount() - 1) - log.getTime(0)) /
+											Math.max(1, log.getRecordCount() - 1));
+			for (int rate : TICK_RATES)
+				for (Integration integration : Integration.values())
+					print("log", rate, integration,
+							replay(log, left, right, Math.max(1, rate / period), integration));
+			return;
+		}
+
+		String[] names = { "square", "rotation", "curve", "pivot" };
+		double[][][] paths = { SQUARE, ROTATION, CURVE, PIVOT };
+		for (int p = 0; p < paths.length; p++)
+			for (int rate : TICK_RATES)
+				for (Integration integration : Integration.values())
+					print(names[p], rate, integration, simulate(paths[p], rate, integration));
+	}
+
+	/**
+	 * Prints one line of the comparison
+	 *
+	 * @param path name of the path
+	 * @param rate tick rate [ms]
+	 * @param integration integration mode
+	 * @param error errors, see the class description
+	 */
+	@SuppressWarnings({ "boxing", "nls" })
+	private static void print(String path, int rate, Integration integration, double[] error) {
+		System.out.println(String.format("%-9s %4d  %-8s  %8.3f  %9.3f  %8.3f", path, rate,
+											integration, error[POSITION_ERROR],
+											Math.toDegrees(error[HEADING_ERROR]),
+											error[MAX_POSITION_ERROR]));
+	}
+
+	/**
+	 * Replays the tachometers of a log at a lower rate
+	 *
+	 * @param log log holding the tachometer counts [deg]
+	 * @param leftChannel channel of the left tachometer
+	 * @param rightChannel channel of the right tachometer
+	 * @param decimation number of records per tick of the model replayed
+	 * @param integration integration of the model replayed
+	 * @return Errors against the ARC integration of every record, see the
+	 *         class description
+	 */
+	public static double[] replay(BinaryLog log, int leftChannel, int rightChannel,
+									int decimation, Integration integration) {
+		assert(log != null);
+		assert(decimation > 0);
+		OdometryModel reference = new OdometryModel(Robot.LWHEEL_RADIUS, Robot.RWHEEL_RADIUS,
+													Robot.TRACK, Robot.ANGLE_SCALE,
+													Integration.ARC);
+		OdometryModel model = new OdometryModel(Robot.LWHEEL_RADIUS, Robot.RWHEEL_RADIUS,
+												Robot.TRACK, Robot.ANGLE_SCALE, integration);
+		double[] error = new double[3];
+		int records = log.getRecordCount();
+		for (int r = 0; r < records; r++) {
+			int left = (int) log.getValue(r, leftChannel);
+			int right = (int) log.getValue(r, rightChannel);
+			reference.update(left, right);
+			if (r % decimation == 0 || r == records - 1) {
+				model.update(left, right);
+				compare(reference, model, error);
+			}
+		}
+		return error;
+	}
+
+	/**
+	 * Drives a path and integrates the tachometer counts at a tick rate
+	 *
+	 * @param path segments at constant wheel speeds {left speed [deg/s],
+	 *            right speed [deg/s], duration [ms]}
+	 * @param period tick rate of the model [ms]
+	 * @param integration integration of the model
+	 * @return Errors against the exact pose, see the class description
+	 */
+	public static double[] simulate(double[][] path, int period, Integration integration) {
+		assert(path != null);
+		assert(period > 0);
+		// - Wheels at constant speed move along exact arcs, so the reference
+		// - is the ARC integration at every change of speed and every tick
+		OdometryModel reference = new OdometryModel(Robot.LWHEEL_RADIUS / REFERENCE_SCALE,
+													Robot.RWHEEL_RADIUS / REFERENCE_SCALE,
+													Robot.TRACK, Robot.ANGLE_SCALE,
+													Integration.ARC);
+		OdometryModel model = new OdometryModel(Robot.LWHEEL_RADIUS, Robot.RWHEEL_RADIUS,
+												Robot.TRACK, Robot.ANGLE_SCALE, integration);
+		double[] error = new double[3];
+		double left = 0.0;
+		double right = 0.0;
+		double time = 0.0;
+		double tick = period;
+		for (double[] segment : path) {
+			double end = time + segment[2];
+			while (time < end) {
+				double step = Math.min(end, tick) - time;
+				left += segment[0] * step / 1000;
+				right += segment[1] * step / 1000;
+				time += step;
+				reference.update((int) Math.round(left * REFERENCE_SCALE),
+									(int) Math.round(right * REFERENCE_SCALE));
+				if (time >= tick) {
+					// - The motors report whole degrees
+					model.update((int) Math.floor(left), (int) Math.floor(right));
+					compare(reference, model, error);
+					tick += period;
+				}
+			}
+		}
+		// - The robot stopped, one more tick sees the last counts
+		model.update((int) Math.floor(left), (int) Math.floor(right));
+		compare(reference, model, error);
+		return error;
+	}
+
+	/**
+	 * Builds a square driven counter-clockwise
+	 *
+	 * @param side length of a side [cm]
+	 * @param speed speed of the wheels [deg/s]
+	 * @return Segments of the square
+	 */
+	private static double[][] square(double side, double speed) {
+		double forward = side / (Math.PI * Robot.LWHEEL_RADIUS / 180) * 1000 / speed;
+		double turn = wheelAngle(90) * 1000 / speed;
+		double[][] path = new double[8][];
+		for (int i = 0; i < 4; i++) {
+			path[2 * i] = new double[] { speed, speed, forward };
+			path[2 * i + 1] = new double[] { -speed, speed, turn };
+		}
+		return path;
+	}
+
+	/**
+	 * @param angle rotation of the robot in place [deg]
+	 * @return Rotation of each wheel [deg]
+	 */
+	private static double wheelAngle(double angle) {
+		return Math.toRadians(angle) * Robot.TRACK / 2 / Robot.ANGLE_SCALE /
+				(Math.PI * Robot.LWHEEL_RADIUS / 180);
+	}
+}
@@ -0,0 +1,148 @@
+package MeasurementDevices;
+
+import Utility.Vec2D;
+
+/**
+ * Pose of the robot as estimated by the odometer at one tick: position,
+ * orientation, time of the tick and number of the tick. All the fields come
+ * from the same tick, see Odometer.getPose. A Pose is a plain mutable holder
+ * so a control loop can keep one and refill it without allocating.
+ */
+public class Pose {
+
+	/**
+	 * Number of the odometer tick, 0 before the first tick
+	 */
+	private long sequence = 0;
+
+	/**
+	 * Orientation of the robot [rad] in [0, 2PI]
+	 */
+	private double theta = Math.PI / 2;
+
+	/**
+	 * Time of the tick [ms], on the same clock as the sensor samples
+	 */
+	private long timestamp = 0;
+
+	/**
+	 * Position of the robot along x [cm]
+	 */
+	private double x = 0.0;
+
+	/**
+	 * Position of the robot along y [cm]
+	 */
+	private double y = 0.0;
+
+	/**
+	 * Creates a pose at the origin facing along y
+	 */
+	public Pose() {
+		assert true;
+	}
+
+	/**
+	 * Creates a pose
+	 *
+	 * @param x position along x [cm]
+	 * @param y position along y [cm]
+	 * @param theta orientation [rad]
+	 * @param timestamp time of the pose [ms]
+	 * @param sequence number of the odometer tick
+	 */
+	public Pose(double x, double y, double theta, long timestamp, long sequence) {
+		set(x, y, theta, timestamp, sequence);
+	}
+
+	/**
+	 * @return A new pose equal to this one
+	 */
+	public Pose copyOf() {
+		return new Pose(this.x, this.y, this.theta, this.timestamp, this.sequence);
+	}
+
+	/**
+	 * @return A new vector holding the position [cm]
+	 */
+	public Vec2D getPosition() {
+		return Vec2D.getVector(this.x, this.y);
+	}
+
+	/**
+	 * @return Number of the odometer tick, 0 before the first tick
+	 */
+	public long getSequence() {
+		return this.sequence;
+	}
+
+	/**
+	 * @return Orientation of the robot [rad] in [0, 2PI]
+	 */
+	public double getTheta() {
+		return this.theta;
+	}
+
+	/**
+	 * @return Time of the tick [ms]
+	 */
+	public long getTimestamp() {
+		return this.timestamp;
+	}
+
+	/**
+	 * @return Position of the robot along x [cm]
+	 */
+	public double getX() {
+		return this.x;
+	}
+
+	/**
+	 * @return Position of the robot along y [cm]
+	 */
+	public double getY() {
+		return this.y;
+	}
+
+	/**
+	 * Sets every field of the pose
+	 *
+	 * @param px position along x [cm]
+	 * @param py position along y [cm]
+	 * @param orientation orientation [rad]
+	 * @param time time of the pose [ms]
+	 * @param tick number of the odometer tick
+	 * @return This pose
+	 */
+	public Pose set(double px, double py, double orientation, long time, long tick) {
+		this.x = px;
+		this.y = py;
+		this.theta = orientation;
+		this.timestamp = time;
+		this.sequence = tick;
+		return this;
+	}
+
+	/**
+	 * Copies another pose into this one
+	 *
+	 * @param p pose to copy
+	 * @return This pose
+	 */
+	public Pose set(Pose p) {
+		assert(p != null);
+		return set(p.x, p.y, p.theta, p.timestamp, p.sequence);
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@SuppressWarnings({ "boxing", "nls" })
+	@Override
+	public String toString() {
+		return String.format("<%.2f, %.2f> %.1f #%d", this.x, this.y,
+								Math.toDegrees(this.theta), this.sequence);
+	}
+}
@@ -0,0 +1,382 @@
+package MeasurementDevices;
+
+import Utility.Matrix3;
+
+/**
+ * Extended Kalman filter on the pose of the robot {x, y, theta}. It keeps
+ * the covariance of the pose and computes the corrections, the pose itself
+ * is the one of the odometer, see Odometer.setPoseFilter:
+ * - the prediction propagates the covariance through the motion integrated
+ * from the tachometers at every tick, the wheels slip proportionally to the
+ * distance they travel;
+ * - the updates correct the pose with a grid line crossed by the light
+ * sensor or a wall ranged by an ultrasonic sensor, on a field of square
+ * tiles bounded by four walls, see FieldLineIndex.
+ * A measurement whose innovation is beyond GATE standard deviations is
+ * rejected, as is a line crossing that could be either a line along x or
+ * along y. Every kernel works on preallocated arrays, see Utility.Matrix3,
+ * so the filter never allocates. It is not thread safe, the odometer guards
+ * it with its lock.
+ */
+public class PoseFilter {
+
+	/**
+	 * Squared number of standard deviations beyond which a measurement is
+	 * rejected
+	 */
+	public static final double GATE = 9.0;
+
+	/**
+	 * Variance of the orientation when the filter is created [rad^2]
+	 */
+	public static final double INITIAL_HEADING_VARIANCE = 0.0025;
+
+	/**
+	 * Variance of the position when the filter is created [cm^2]
+	 */
+	public static final double INITIAL_POSITION_VARIANCE = 1.0;
+
+	/**
+	 * Variance of the position of a line seen by the light sensor [cm^2]
+	 */
+	public static final double LINE_VARIANCE = 0.25;
+
+	/**
+	 * Largest angle between an ultrasonic beam and the normal of the wall it
+	 * ranges, beyond it the echo comes from the side of the beam [rad]
+	 */
+	public static final double MAX_INCIDENCE = Math.toRadians(20);
+
+	/**
+	 * Range beyond which the ultrasonic sensor is not used [cm]
+	 */
+	public static final double MAX_RANGE = 150.0;
+
+	/**
+	 * Standard deviation of a range [cm] at 0 cm
+	 */
+	public static final double RANGE_NOISE = 1.0;
+
+	/**
+	 * Standard deviation of a range per cm of range
+	 */
+	public static final double RANGE_NOISE_SCALE = 0.02;
+
+	/**
+	 * Variance of the distance travelled by a wheel per cm travelled [cm]
+	 */
+	public static final double WHEEL_NOISE = 0.002;
+
+	/**
+	 * Covariance of the pose
+	 */
+	private final double[] covariance = new double[Matrix3.SIZE];
+
+	/**
+	 * Grid lines and walls of the field
+	 */
+	private final FieldLineIndex field;
+
+	/**
+	 * Gain of the last update
+	 */
+	private final double[] gain = new double[3];
+
+	/**
+	 * Jacobian of the last measurement
+	 */
+	private final double[] jacobian = new double[3];
+
+	/**
+	 * Number of line updates accepted
+	 */
+	private int lineUpdates = 0;
+
+	/**
+	 * Noise added by the last prediction
+	 */
+	private final double[] noise = new double[Matrix3.SIZE];
+
+	/**
+	 * Number of range updates accepted
+	 */
+	private int rangeUpdates = 0;
+
+	/**
+	 * Number of measurements rejected
+	 */
+	private int rejected = 0;
+
+	/**
+	 * Scratch matrix
+	 */
+	private final double[] scratch = new double[Matrix3.SIZE];
+
+	/**
+	 * Jacobian of the last prediction or update of the covariance
+	 */
+	private final double[] transition = new double[Matrix3.SIZE];
+
+	/**
+	 * Scratch vector
+	 */
+	private final double[] vector = new double[3];
+
+	/**
+	 * Creates a filter on a field whose grid lines are at every multiple of
+	 * the spacing between the walls
+	 *
+	 * @param gridSpacing spacing of the grid lines [cm]
+	 * @param minX position of the wall along x at the left [cm]
+	 * @param minY position of the wall along y at the bottom [cm]
+	 * @param maxX position of the wall along x at the right [cm]
+	 * @param maxY position of the wall along y at the top [cm]
+	 */
+	public PoseFilter(	double gridSpacing, double minX, double minY, double maxX,
+						double maxY) {
+		this(new FieldLineIndex(gridSpacing, minX, minY, maxX, maxY));
+	}
+
+	/**
+	 * Creates a filter
+	 *
+	 * @param field grid lines and walls of the field
+	 */
+	public PoseFilter(FieldLineIndex field) {
+		assert(field != null);
+		this.field = field;
+		reset(INITIAL_POSITION_VARIANCE, INITIAL_HEADING_VARIANCE);
+	}
+
+	/**
+	 * Copies the covariance of the pose
+	 *
+	 * @param dst destination, 3x3 row major {x, y, theta} [cm^2, cm rad,
+	 *            rad^2]
+	 */
+	public void getCovariance(double[] dst) {
+		assert(dst != null && dst.length >= Matrix3.SIZE);
+		System.arraycopy(this.covariance, 0, dst, 0, Matrix3.SIZE);
+	}
+
+	/**
+	 * @return Number of line updates accepted
+	 */
+	public int getLineUpdates() {
+		return this.lineUpdates;
+	}
+
+	/**
+	 * @return Number of range updates accepted
+	 */
+	public int getRangeUpdates() {
+		return this.rangeUpdates;
+	}
+
+	/**
+	 * @return Number of measurements rejected
+	 */
+	public int getRejected() {
+		return this.rejected;
+	}
+
+	/**
+	 * Propagates the covariance through the motion of one odometer tick
+	 *
+	 * @param theta orientation after the motion [rad]
+	 * @param displacement distance travelled by the center of the robot [cm]
+	 * @param rotation change of the orientation [rad]
+	 * @param track distance between the wheels, corrected by the scaling
+	 *            factor of the rotation [cm]
+	 */
+	public void predict(double theta, double displacement, double rotation, double track) {
+		// - The robot moved along the heading halfway through the tick
+		double mid = theta - rotation / 2;
+		double c = Math.cos(mid);
+		double s = Math.sin(mid);
+
+		Matrix3.setDiagonal(1.0, 1.0, 1.0, this.transition);
+		this.transition[2] = -displacement * s;
+		this.transition[5] = displacement * c;
+		Matrix3.transform(this.transition, this.covariance, this.scratch, this.covariance);
+
+		// - Independent slips of the wheels, mapped to the displacement and
+		// - the rotation then to the pose
+		double left = WHEEL_NOISE * Math.abs(displacement - rotation * track / 2);
+		double right = WHEEL_NOISE * Math.abs(displacement + rotation * track / 2);
+		double vd = (left + right) / 4;
+		double vr = (left + right) / (track * track);
+		double cdr = (right - left) / (2 * track);
+
+		// - Columns of the Jacobian of the pose to {displacement, rotation}
+		double gx0 = c;
+		double gx1 = -displacement * s / 2;
+		double gy0 = s;
+		double gy1 = displacement * c / 2;
+		this.noise[0] = gx0 * gx0 * vd + 2 * gx0 * gx1 * cdr + gx1 * gx1 * vr;
+		this.noise[1] = gx0 * gy0 * vd + (gx0 * gy1 + gx1 * gy0) * cdr + gx1 * gy1 * vr;
+		this.noise[2] = gx0 * cdr + gx1 * vr;
+		this.noise[3] = this.noise[1];
+		this.noise[4] = gy0 * gy0 * vd + 2 * gy0 * gy1 * cdr + gy1 * gy1 * vr;
+		this.noise[5] = gy0 * cdr + gy1 * vr;
+		this.noise[6] = this.noise[2];
+		this.noise[7] = this.noise[5];
+		this.noise[8] = vr;
+		Matrix3.add(this.covariance, this.noise, this.covariance);
+		Matrix3.symmetrize(this.covariance);
+	}
+
+	/**
+	 * Sets the covariance to a diagonal one, e.g. after a localization
+	 *
+	 * @param positionVariance variance of x and y [cm^2]
+	 * @param headingVariance variance of the orientation [rad^2]
+	 */
+	public void reset(double positionVariance, double headingVariance) {
+		Matrix3.setDiagonal(positionVariance, positionVariance, headingVariance,
+							this.covariance);
+	}
+
+	/**
+	 * Applies a scalar measurement with the Joseph form of the update, which
+	 * keeps the covariance positive
+	 *
+	 * @param innovation measurement minus its prediction
+	 * @param variance variance of the measurement
+	 * @param correction destination of the correction of the pose {x, y,
+	 *            theta}
+	 */
+	private void update(double innovation, double variance, double[] correction) {
+		Matrix3.multiplyVector(this.covariance, this.jacobian, this.vector);
+		double s = Matrix3.quadratic(this.covariance, this.jacobian) + variance;
+		for (int i = 0; i < 3; i++) {
+			this.gain[i] = this.vector[i] / s;
+			correction[i] = this.gain[i] * innovation;
+		}
+
+		// - P = (I - K H) P (I - K H)' + K R K'
+		for (int r = 0; r < 3; r++)
+			for (int c = 0; c < 3; c++)
+				this.transition[3 * r + c] = (r == c ? 1.0 : 0.0) - this.gain[r] * this.jacobian[c];
+		Matrix3.transform(this.transition, this.covariance, this.scratch, this.covariance);
+		for (int r = 0; r < 3; r++)
+			for (int c = 0; c < 3; c++)
+				this.covariance[3 * r + c] += this.gain[r] * variance * this.gain[c];
+		Matrix3.symmetrize(this.covariance);
+	}
+
+	/**
+	 * Corrects the pose with a grid line crossed by the light sensor. The line
+	 * is the closest one to the predicted position of the sensor, the
+	 * crossing is rejected when a line along x and a line along y are both
+	 * plausible, e.g. near an intersection.
+	 *
+	 * @param x position along x at the crossing [cm]
+	 * @param y position along y at the crossing [cm]
+	 * @param theta orientation at the crossing [rad]
+	 * @param offset position of the sensor ahead of the center of rotation,
+	 *            negative behind it [cm]
+	 * @param correction destination of the correction of the pose {x, y,
+	 *            theta}
+	 * @return True if the crossing was used
+	 */
+	public boolean updateLine(	double x, double y, double theta, double offset,
+								double[] correction) {
+		assert(correction != null && correction.length >= 3);
+		double c = Math.cos(theta);
+		double s = Math.sin(theta);
+		double sx = x + offset * c;
+		double sy = y + offset * s;
+
+		// - Closest line along y (x constant) and along x (y constant)
+		double innovationX = this.field.nearestLineX(sx) - sx;
+		double innovationY = this.field.nearestLineY(sy) - sy;
+		double hx0 = 1.0, hx2 = -offset * s;
+		double hy1 = 1.0, hy2 = offset * c;
+		double[] p = this.covariance;
+		double sX = p[0] * hx0 * hx0 + 2 * p[2] * hx0 * hx2 + p[8] * hx2 * hx2 + LINE_VARIANCE;
+		double sY = p[4] * hy1 * hy1 + 2 * p[5] * hy1 * hy2 + p[8] * hy2 * hy2 + LINE_VARIANCE;
+		boolean plausibleX = innovationX * innovationX < GATE * sX;
+		boolean plausibleY = innovationY * innovationY < GATE * sY;
+		if (plausibleX == plausibleY) {
+			this.rejected++;
+			return false;
+		}
+
+		if (plausibleX) {
+			this.jacobian[0] = hx0;
+			this.jacobian[1] = 0.0;
+			this.jacobian[2] = hx2;
+			update(innovationX, LINE_VARIANCE, correction);
+		} else {
+			this.jacobian[0] = 0.0;
+			this.jacobian[1] = hy1;
+			this.jacobian[2] = hy2;
+			update(innovationY, LINE_VARIANCE, correction);
+		}
+		this.lineUpdates++;
+		return true;
+	}
+
+	/**
+	 * Corrects the pose with the distance to a wall measured by an ultrasonic
+	 * sensor. The wall is the first one on the axis of the sensor, the range
+	 * is rejected when it is too far or the beam hits the wall too
+	 * obliquely.
+	 *
+	 * @param x position along x at the measurement [cm]
+	 * @param y position along y at the measurement [cm]
+	 * @param theta orientation at the measurement [rad]
+	 * @param range distance measured [cm]
+	 * @param offset position of the sensor ahead of the center of rotation
+	 *            [cm]
+	 * @param angle angle of the sensor from the heading of the robot,
+	 *            counter-clockwise [rad]
+	 * @param correction destination of the correction of the pose {x, y,
+	 *            theta}
+	 * @return True if the range was used
+	 */
+	public boolean updateRange(	double x, double y, double theta, double range,
+								double offset, double angle, double[] correction) {
+		assert(correction != null && correction.length >= 3);
+		double sx = x + offset * Math.cos(theta);
+		double sy = y + offset * Math.sin(theta);
+		double cb = Math.cos(theta + angle);
+		double sb = Math.sin(theta + angle);
+
+		// - Distance along the beam to the walls it is heading to
+		double toX = cb > 0 ? (this.field.getMaxX() - sx) / cb :
+							cb < 0 ? (this.field.getMinX() - sx) / cb : Double.MAX_VALUE;
+		double toY = sb > 0 ? (this.field.getMaxY() - sy) / sb :
+							sb < 0 ? (this.field.getMinY() - sy) / sb : Double.MAX_VALUE;
+		boolean alongX = toX < toY;
+		double expected = alongX ? toX : toY;
+		double incidence = alongX ? Math.abs(cb) : Math.abs(sb);
+		if (range > MAX_RANGE || expected <= 0.0 || incidence < Math.cos(MAX_INCIDENCE)) {
+			this.rejected++;
+			return false;
+		}
+
+		// - d range / d pose, for a wall x = X: range = (X - sx) / cos(b)
+		if (alongX) {
+			this.jacobian[0] = -1.0 / cb;
+			this.jacobian[1] = 0.0;
+			this.jacobian[2] = (offset * Math.sin(theta) + expected * sb) / cb;
+		} else {
+			this.jacobian[0] = 0.0;
+			this.jacobian[1] = -1.0 / sb;
+			this.jacobian[2] = (-offset * Math.cos(theta) - expected * cb) / sb;
+		}
+		double sd = RANGE_NOISE + RANGE_NOISE_SCALE * range;
+		double variance = sd * sd;
+		double innovation = range - expected;
+		if (innovation * innovation >= GATE * (Matrix3.quadratic(this.covariance, this.jacobian) + variance)) {
+			this.rejected++;
+			return false;
+		}
+
+		update(innovation, variance, correction);
+		this.rangeUpdates++;
+		return true;
+	}
+}
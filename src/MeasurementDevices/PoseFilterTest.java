@@ -0,0 +1,145 @@
+package MeasurementDevices;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * PoseFilterTest
+ */
+public class PoseFilterTest {
+
+	/**
+	 * Spacing of the grid lines [cm]
+	 */
+	private static final double GRID = 30.48;
+
+	/**
+	 * Position of the light sensor, behind the center of rotation [cm]
+	 */
+	private static final double LS_OFFSET = -11.75;
+
+	/**
+	 * testLine corrects the pose with a line along x and rejects the ambiguous
+	 * and implausible crossings
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testLine() {
+		PoseFilter filter = new PoseFilter(GRID, -GRID, -GRID, 10 * GRID, 10 * GRID);
+		double[] correction = new double[3];
+		double[] p = new double[9];
+
+		// - Driving along y, the odometer is 0.5 cm short of the line
+		assertTrue(filter.updateLine(15, GRID - LS_OFFSET - 0.5, Math.PI / 2, LS_OFFSET,
+										correction));
+		double k = PoseFilter.INITIAL_POSITION_VARIANCE /
+					(PoseFilter.INITIAL_POSITION_VARIANCE + PoseFilter.LINE_VARIANCE);
+		assertEquals(0.0, correction[0], 1e-9);
+		assertEquals(0.5 * k, correction[1], 1e-9);
+		assertEquals(0.0, correction[2], 1e-9);
+		filter.getCovariance(p);
+		assertEquals(PoseFilter.INITIAL_POSITION_VARIANCE * (1 - k), p[4], 1e-9);
+		assertEquals(PoseFilter.INITIAL_POSITION_VARIANCE, p[0], 1e-9);
+
+		// - Near an intersection, then between the lines
+		assertFalse(filter.updateLine(GRID + 0.3, GRID + 0.3 - LS_OFFSET, Math.PI / 2, LS_OFFSET,
+										correction));
+		assertFalse(filter.updateLine(15, 15 - LS_OFFSET, Math.PI / 2, LS_OFFSET, correction));
+		assertEquals(1, filter.getLineUpdates());
+		assertEquals(2, filter.getRejected());
+	}
+
+	/**
+	 * testLineHeading checks that a crossing seen off the axis of the robot
+	 * corrects the orientation
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testLineHeading() {
+		PoseFilter filter = new PoseFilter(GRID, -GRID, -GRID, 10 * GRID, 10 * GRID);
+		double[] correction = new double[3];
+
+		// - Heading 45 degrees, the sensor is predicted 0.4 cm before the line
+		// - along y, moving the sensor means moving or turning the robot
+		double theta = Math.PI / 4;
+		double sx = 10;
+		double sy = GRID - 0.4;
+		double x = sx - LS_OFFSET * Math.cos(theta);
+		double y = sy - LS_OFFSET * Math.sin(theta);
+		assertTrue(filter.updateLine(x, y, theta, LS_OFFSET, correction));
+		assertTrue(correction[1] > 0.0);
+		assertTrue(Math.abs(correction[2]) > 1e-4);
+
+		// - The sensor moved toward the line
+		double nx = x + correction[0];
+		double ny = y + correction[1];
+		double nt = theta + correction[2];
+		double nsy = ny + LS_OFFSET * Math.sin(nt);
+		assertTrue(Math.abs(GRID - nsy) < 0.4);
+		assertTrue(Math.abs(nx + LS_OFFSET * Math.cos(nt) - sx) < 1.0);
+	}
+
+	/**
+	 * testPredict checks that the covariance grows with the distance
+	 * travelled and stays symmetric
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testPredict() {
+		PoseFilter filter = new PoseFilter(GRID, -GRID, -GRID, 10 * GRID, 10 * GRID);
+		double[] p = new double[9];
+
+		// - 100 cm along y in steps of 0.5 cm
+		for (int i = 0; i < 200; i++)
+			filter.predict(Math.PI / 2, 0.5, 0.0, 16.8);
+		filter.getCovariance(p);
+
+		// - The heading uncertainty, initial and grown by the slips, moves the
+		// - robot sideways
+		double lateral = PoseFilter.INITIAL_POSITION_VARIANCE +
+							100 * 100 * PoseFilter.INITIAL_HEADING_VARIANCE +
+							2 * PoseFilter.WHEEL_NOISE / (16.8 * 16.8) * 100 * 100 * 100 / 3;
+		assertEquals(lateral, p[0], 0.02 * lateral);
+		assertEquals(PoseFilter.INITIAL_POSITION_VARIANCE + 100 * PoseFilter.WHEEL_NOISE / 2,
+						p[4], 1e-6);
+		assertTrue(p[8] > PoseFilter.INITIAL_HEADING_VARIANCE);
+		assertTrue(p[2] < 0.0);
+		for (int r = 0; r < 3; r++)
+			for (int c = 0; c < 3; c++)
+				assertEquals(p[3 * r + c], p[3 * c + r], 0.0);
+
+		// - Turning in place only grows the heading uncertainty
+		double before = p[8];
+		filter.predict(Math.PI, 0.0, Math.PI / 2, 16.8);
+		filter.getCovariance(p);
+		assertEquals(before + PoseFilter.WHEEL_NOISE * Math.PI / 2 * 16.8 / 16.8 / 16.8, p[8], 1e-9);
+	}
+
+	/**
+	 * testRange corrects the pose with a wall ahead and rejects an oblique
+	 * beam and an outlier
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testRange() {
+		PoseFilter filter = new PoseFilter(GRID, -GRID, -GRID, 120, 120);
+		double[] correction = new double[3];
+
+		// - Facing the wall at x = 120 from x = 50, the sensor 5 cm ahead; the
+		// - wall is 2 cm closer than predicted
+		assertTrue(filter.updateRange(50, 50, 0.0, 63, 5, 0.0, correction));
+		double sd = PoseFilter.RANGE_NOISE + PoseFilter.RANGE_NOISE_SCALE * 63;
+		double k = PoseFilter.INITIAL_POSITION_VARIANCE /
+					(PoseFilter.INITIAL_POSITION_VARIANCE + sd * sd);
+		assertEquals(2 * k, correction[0], 1e-9);
+		assertEquals(0.0, correction[1], 1e-9);
+
+		assertFalse(filter.updateRange(50, 50, Math.PI / 4, 90, 5, 0.0, correction));
+		assertFalse(filter.updateRange(50, 50, 0.0, 30, 5, 0.0, correction));
+		assertEquals(1, filter.getRangeUpdates());
+		assertEquals(2, filter.getRejected());
+	}
+}
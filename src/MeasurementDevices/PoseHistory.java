@@ -0,0 +1,178 @@
+package MeasurementDevices;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import Utility.Vec2D;
+
+/**
+ * This class keeps the last poses of the odometer with their timestamps in a
+ * fixed size primitive ring, like Sensors.SampleHistory does for the samples.
+ * The odometer adds a pose at every tick and any number of readers ask for
+ * the pose at a past time without locks or allocations, e.g. to attribute a
+ * sensor event to the pose of the robot when its sample was taken.
+ * A reader copies the poses then checks that the writer did not overwrite
+ * them meanwhile, and retries otherwise.
+ */
+public class PoseHistory {
+
+	/**
+	 * Default number of poses kept, about 2 s at the tick rate of the
+	 * odometer
+	 */
+	public static final int DEFAULT_CAPACITY = 128;
+
+	/**
+	 * Number of poses ever added
+	 */
+	private volatile long count = 0;
+
+	/**
+	 * Mask giving the slot of a pose from its sequence number
+	 */
+	private final int mask;
+
+	/**
+	 * Tick numbers of the poses
+	 */
+	private final AtomicLongArray sequences;
+
+	/**
+	 * Orientations of the poses as double bits [rad]
+	 */
+	private final AtomicLongArray thetas;
+
+	/**
+	 * Timestamps of the poses [ms]
+	 */
+	private final AtomicLongArray times;
+
+	/**
+	 * Positions along x of the poses as double bits [cm]
+	 */
+	private final AtomicLongArray xs;
+
+	/**
+	 * Positions along y of the poses as double bits [cm]
+	 */
+	private final AtomicLongArray ys;
+
+	/**
+	 * Creates a history of at least 'capacity' poses. The ring has a power of
+	 * two size and one slot is kept for the pose being written.
+	 *
+	 * @param capacity minimum number of poses kept
+	 */
+	public PoseHistory(int capacity) {
+		assert(capacity > 0 && capacity < (1 << 30));
+		int size = Integer.highestOneBit(capacity) << 1;
+		this.mask = size - 1;
+		this.sequences = new AtomicLongArray(size);
+		this.thetas = new AtomicLongArray(size);
+		this.times = new AtomicLongArray(size);
+		this.xs = new AtomicLongArray(size);
+		this.ys = new AtomicLongArray(size);
+	}
+
+	/**
+	 * Adds a pose, the writers must be serialized. The timestamps must not
+	 * decrease, a pose with the same timestamp as the last one supersedes it.
+	 *
+	 * @param timestamp time of the pose [ms]
+	 * @param x position along x [cm]
+	 * @param y position along y [cm]
+	 * @param theta orientation [rad]
+	 * @param sequence number of the odometer tick
+	 */
+	public void add(long timestamp, double x, double y, double theta, long sequence) {
+		long c = this.count;
+		int slot = (int) c & this.mask;
+		this.times.set(slot, timestamp);
+		this.xs.set(slot, Double.doubleToRawLongBits(x));
+		this.ys.set(slot, Double.doubleToRawLongBits(y));
+		this.thetas.set(slot, Double.doubleToRawLongBits(theta));
+		this.sequences.set(slot, sequence);
+		this.count = c + 1;
+	}
+
+	/**
+	 * @return Number of poses kept
+	 */
+	public int capacity() {
+		return this.mask;
+	}
+
+	/**
+	 * @return Number of poses ever added
+	 */
+	public long getWriteCount() {
+		return this.count;
+	}
+
+	/**
+	 * Checks that a pose copied by a reader was not overwritten meanwhile,
+	 * the slot of the pose being written is considered overwritten
+	 *
+	 * @param first sequence number of the oldest pose copied
+	 * @return True if the copy is valid
+	 */
+	private boolean isValid(long first) {
+		return first > this.count - this.mask - 1;
+	}
+
+	/**
+	 * Computes the pose at time 't' by linear interpolation of the poses
+	 * around it, the orientation turning the short way. Times before the
+	 * oldest pose or after the newest one give that pose.
+	 *
+	 * @param t time [ms]
+	 * @param dst destination of the pose, its tick number is the one of the
+	 *            last pose at or before 't' and its timestamp is 't' or the
+	 *            time of the pose given outside of the history
+	 * @return dst, null if there is no pose
+	 */
+	public Pose poseAt(long t, Pose dst) {
+		assert(dst != null);
+		while (true) {
+			long c = this.count;
+			if (c == 0)
+				return null;
+			long oldest = Math.max(0, c - this.mask);
+
+			// - Binary search of the last pose at or before t
+			long lo = oldest;
+			long hi = c - 1;
+			while (lo < hi) {
+				long mid = (lo + hi + 1) >>> 1;
+				if (this.times.get((int) mid & this.mask) <= t)
+					lo = mid;
+				else
+					hi = mid - 1;
+			}
+
+			int a = (int) lo & this.mask;
+			int b = (int) (lo + 1) & this.mask;
+			long ta = this.times.get(a);
+			double x = Double.longBitsToDouble(this.xs.get(a));
+			double y = Double.longBitsToDouble(this.ys.get(a));
+			double theta = Double.longBitsToDouble(this.thetas.get(a));
+			long sequence = this.sequences.get(a);
+			long time = ta;
+			if (lo + 1 < c && ta <= t) {
+				long tb = this.times.get(b);
+				if (tb > ta) {
+					double k = (double) (t - ta) / (tb - ta);
+					x += (Double.longBitsToDouble(this.xs.get(b)) - x) * k;
+					y += (Double.longBitsToDouble(this.ys.get(b)) - y) * k;
+					theta = Vec2D.fixAngle(theta + k * Vec2D.minimumAngleFromTo(theta,
+																				Double.longBitsToDouble(this.thetas.get(b))));
+					time = t;
+				}
+			}
+
+			if (isValid(oldest)) {
+				dst.set(x, y, theta, time, sequence);
+				return dst;
+			}
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package MeasurementDevices;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * PoseHistoryTest
+ */
+public class PoseHistoryTest {
+
+	/**
+	 * testConcurrentRead checks that the poses read while the writer adds new
+	 * ones are interpolated between consistent poses
+	 *
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testConcurrentRead() throws InterruptedException {
+		final PoseHistory history = new PoseHistory(16);
+		final int ticks = 200000;
+
+		// - Every pose has x = y = timestamp
+		Thread writer = new Thread() {
+			@Override
+			public void run() {
+				for (int i = 1; i <= ticks; i++)
+					history.add(10L * i, 10 * i, 10 * i, 0, i);
+			}
+		};
+		writer.start();
+
+		Pose pose = new Pose();
+		while (writer.isAlive()) {
+			long n = history.getWriteCount();
+			if (n < 2)
+				continue;
+			long t = 10 * n - 15;
+			history.poseAt(t, pose);
+			assertEquals(pose.getX(), pose.getY(), 1e-9);
+			assertEquals((double) pose.getTimestamp(), pose.getX(), 1e-9);
+		}
+		writer.join();
+	}
+
+	/**
+	 * testInterpolation checks the pose between two ticks and outside of the
+	 * history
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testInterpolation() {
+		PoseHistory history = new PoseHistory(4);
+		Pose pose = new Pose();
+		assertTrue(history.poseAt(0, pose) == null);
+
+		// - Turning through 0 between the ticks 2 and 3
+		history.add(100, 0, 0, 0.3, 1);
+		history.add(115, 3, 0, 2 * Math.PI - 0.1, 2);
+		history.add(130, 6, 3, 0.2, 3);
+
+		history.poseAt(105, pose);
+		assertEquals(1, pose.getX(), 1e-9);
+		assertEquals(0.3 - 0.4 / 3, pose.getTheta(), 1e-9);
+		assertEquals(105, pose.getTimestamp());
+		assertEquals(1, pose.getSequence());
+
+		history.poseAt(125, pose);
+		assertEquals(5, pose.getX(), 1e-9);
+		assertEquals(2, pose.getY(), 1e-9);
+		assertEquals(0.1, pose.getTheta(), 1e-9);
+		assertEquals(2, pose.getSequence());
+
+		// - Outside of the history
+		history.poseAt(50, pose);
+		assertEquals(0, pose.getX(), 1e-9);
+		assertEquals(100, pose.getTimestamp());
+		history.poseAt(500, pose);
+		assertEquals(6, pose.getX(), 1e-9);
+		assertEquals(130, pose.getTimestamp());
+
+		// - A correction at the time of the last tick supersedes it
+		history.add(130, 7, 3, 0.2, 3);
+		history.poseAt(130, pose);
+		assertEquals(7, pose.getX(), 1e-9);
+
+		// - The oldest poses are overwritten
+		for (int i = 0; i < 8; i++)
+			history.add(200 + i, i, 0, 0, 4 + i);
+		history.poseAt(0, pose);
+		assertEquals(200 + 8 - history.capacity(), pose.getTimestamp());
+	}
+}
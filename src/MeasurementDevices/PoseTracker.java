@@ -0,0 +1,335 @@
+package MeasurementDevices;
+
+import Utility.Matrix3;
+import Utility.Vec2D;
+
+/**
+ * This class tracks the pose of the robot from the tachometer counts handed
+ * to it, without touching the hardware: the Odometer reads the motors on its
+ * timer and the benchmarks replay counts. The pose is integrated under a lock
+ * and published after every tick through a sequence lock: the readers never
+ * take the lock and always get the position, the orientation and the time of
+ * the same tick, see getPose. Every published pose is added to a PoseHistory.
+ * With a PoseFilter the tracker also propagates the covariance of the pose
+ * at every tick and fuses the light sensor and ultrasonic measurements
+ * handed to correctLine and correctRange.
+ */
+public class PoseTracker {
+
+	/**
+	 * Correction of the pose by the last measurement
+	 */
+	private final double[] correction = new double[3];
+
+	/**
+	 * Pose at the time of the measurement being fused, guarded by the lock
+	 */
+	private final Pose eventPose = new Pose();
+
+	/**
+	 * Filter fusing the measurements, null if there is none
+	 */
+	private PoseFilter filter = null;
+
+	/**
+	 * Poses of the last ticks
+	 */
+	private final PoseHistory history = new PoseHistory(PoseHistory.DEFAULT_CAPACITY);
+
+	/**
+	 * Lock object for mutual exclusion
+	 */
+	private final Object lock = new Object();
+
+	/**
+	 * Pose of the robot integrated from the tachometers, guarded by the lock
+	 */
+	private final OdometryModel model;
+
+	/**
+	 * Published orientation [rad]
+	 */
+	private volatile double publishedTheta = Math.PI / 2;
+
+	/**
+	 * Published number of the tick
+	 */
+	private volatile long publishedTick = 0;
+
+	/**
+	 * Published time of the tick [ms]
+	 */
+	private volatile long publishedTime = 0;
+
+	/**
+	 * Published position along x [cm]
+	 */
+	private volatile double publishedX = 0.0;
+
+	/**
+	 * Published position along y [cm]
+	 */
+	private volatile double publishedY = 0.0;
+
+	/**
+	 * Sequence of the published pose, odd while it is written
+	 */
+	private volatile int sequence = 0;
+
+	/**
+	 * Number of ticks integrated, guarded by the lock
+	 */
+	private long ticks = 0;
+
+	/**
+	 * Time of the last tick [ms], guarded by the lock
+	 */
+	private long tickTime = 0;
+
+	/**
+	 * Distance between the wheels corrected by the angle scale of the model,
+	 * for the propagation of the covariance [cm]
+	 */
+	private final double track;
+
+	/**
+	 * Creates a tracker
+	 *
+	 * @param model model integrating the tachometer counts
+	 * @param track distance between the wheels divided by the angle scale of
+	 *            the model [cm]
+	 */
+	public PoseTracker(OdometryModel model, double track) {
+		assert(model != null);
+		assert(track > 0.0);
+		this.model = model;
+		this.track = track;
+	}
+
+	/**
+	 * Moves the pose by the correction of the last measurement and publishes
+	 * it, must be called with the lock held
+	 */
+	private void applyCorrection() {
+		this.model.setPosition(	this.model.getX() + this.correction[0],
+								this.model.getY() + this.correction[1]);
+		this.model.setTheta(Vec2D.fixAngle(this.model.getTheta() + this.correction[2]));
+		publish();
+	}
+
+	/**
+	 * Fuses the crossing of a grid line by the light sensor. The line is
+	 * matched with the pose at the time of the crossing and the correction
+	 * is applied to the current pose.
+	 *
+	 * @param timestamp time of the crossing [ms]
+	 * @param offset position of the sensor ahead of the center of rotation,
+	 *            negative behind it [cm]
+	 * @return True if the crossing corrected the pose, false if it was
+	 *         rejected or there is no filter
+	 */
+	public boolean correctLine(long timestamp, double offset) {
+		synchronized (this.lock) {
+			if (this.filter == null)
+				return false;
+			poseAt(timestamp, this.eventPose);
+			if (!this.filter.updateLine(this.eventPose.getX(), this.eventPose.getY(),
+										this.eventPose.getTheta(), offset, this.correction))
+				return false;
+			applyCorrection();
+			return true;
+		}
+	}
+
+	/**
+	 * Moves the position by a correction, atomically with respect to the
+	 * ticks
+	 *
+	 * @param dx correction along x [cm]
+	 * @param dy correction along y [cm]
+	 */
+	public void correctPosition(double dx, double dy) {
+		synchronized (this.lock) {
+			this.correction[0] = dx;
+			this.correction[1] = dy;
+			this.correction[2] = 0.0;
+			applyCorrection();
+		}
+	}
+
+	/**
+	 * Fuses the distance to a wall measured by an ultrasonic sensor. The wall
+	 * is matched with the pose at the time of the measurement and the
+	 * correction is applied to the current pose.
+	 *
+	 * @param timestamp time of the measurement [ms]
+	 * @param range distance measured [cm]
+	 * @param offset position of the sensor ahead of the center of rotation
+	 *            [cm]
+	 * @param angle angle of the sensor from the heading, counter-clockwise
+	 *            [rad]
+	 * @return True if the range corrected the pose, false if it was rejected
+	 *         or there is no filter
+	 */
+	public boolean correctRange(long timestamp, double range, double offset, double angle) {
+		synchronized (this.lock) {
+			if (this.filter == null)
+				return false;
+			poseAt(timestamp, this.eventPose);
+			if (!this.filter.updateRange(	this.eventPose.getX(), this.eventPose.getY(),
+											this.eventPose.getTheta(), range, offset, angle,
+											this.correction))
+				return false;
+			applyCorrection();
+			return true;
+		}
+	}
+
+	/**
+	 * Copies the covariance of the pose
+	 *
+	 * @param dst destination, 3x3 row major {x, y, theta} [cm^2, cm rad,
+	 *            rad^2]
+	 * @return False if there is no filter
+	 */
+	public boolean getCovariance(double[] dst) {
+		assert(dst != null && dst.length >= Matrix3.SIZE);
+		synchronized (this.lock) {
+			if (this.filter == null)
+				return false;
+			this.filter.getCovariance(dst);
+			return true;
+		}
+	}
+
+	/**
+	 * @return Orientation of the last tick [rad], without locking
+	 */
+	public double getOrientation() {
+		return this.publishedTheta;
+	}
+
+	/**
+	 * Reads the whole pose of the last tick in a caller supplied pose,
+	 * without locking nor allocating
+	 *
+	 * @param dst destination of the pose
+	 * @return dst
+	 */
+	public Pose getPose(Pose dst) {
+		assert(dst != null);
+		while (true) {
+			int s = this.sequence;
+			// - A pose is being written
+			if ((s & 1) != 0) {
+				Thread.yield();
+				continue;
+			}
+
+			dst.set(this.publishedX, this.publishedY, this.publishedTheta,
+					this.publishedTime, this.publishedTick);
+
+			if (this.sequence == s)
+				return dst;
+		}
+	}
+
+	/**
+	 * @return True if the measurements are fused with a filter
+	 */
+	public boolean hasPoseFilter() {
+		synchronized (this.lock) {
+			return this.filter != null;
+		}
+	}
+
+	/**
+	 * Reads the pose of the robot at a past time, interpolated between the
+	 * ticks around it, without locking nor allocating
+	 *
+	 * @param timestamp time [ms], the oldest or newest pose is given outside
+	 *            of the last PoseHistory.DEFAULT_CAPACITY ticks
+	 * @param dst destination of the pose
+	 * @return dst
+	 */
+	public Pose poseAt(long timestamp, Pose dst) {
+		if (this.history.poseAt(timestamp, dst) == null)
+			return getPose(dst);
+		return dst;
+	}
+
+	/**
+	 * Publishes the pose of the model and adds it to the history, must be
+	 * called with the lock held. A pose set between two ticks supersedes the
+	 * pose of the last tick in the history.
+	 */
+	private void publish() {
+		int s = this.sequence;
+		this.sequence = s + 1;
+		this.publishedX = this.model.getX();
+		this.publishedY = this.model.getY();
+		this.publishedTheta = this.model.getTheta();
+		this.publishedTime = this.tickTime;
+		this.publishedTick = this.ticks;
+		this.sequence = s + 2;
+		this.history.add(this.tickTime, this.model.getX(), this.model.getY(),
+							this.model.getTheta(), this.ticks);
+	}
+
+	/**
+	 * Sets the orientation of the robot and publishes it
+	 *
+	 * @param theta new orientation [rad]
+	 */
+	public void setOrientation(double theta) {
+		synchronized (this.lock) {
+			this.model.setTheta(theta);
+			publish();
+		}
+	}
+
+	/**
+	 * Fuses the measurements with a filter from now on, the covariance is
+	 * propagated from the current pose
+	 *
+	 * @param poseFilter filter, null to stop fusing
+	 */
+	public void setPoseFilter(PoseFilter poseFilter) {
+		synchronized (this.lock) {
+			this.filter = poseFilter;
+		}
+	}
+
+	/**
+	 * Sets the position of the robot and publishes it
+	 *
+	 * @param x new position along x [cm]
+	 * @param y new position along y [cm]
+	 */
+	public void setPosition(double x, double y) {
+		synchronized (this.lock) {
+			this.model.setPosition(x, y);
+			publish();
+		}
+	}
+
+	/**
+	 * Integrates the motion since the last tick and publishes the pose,
+	 * without allocating
+	 *
+	 * @param left tachometer count of the left wheel [deg]
+	 * @param right tachometer count of the right wheel [deg]
+	 * @param now time of the tick [ms]
+	 */
+	public void update(int left, int right, long now) {
+		synchronized (this.lock) {
+			this.model.update(left, right);
+			if (this.filter != null)
+				this.filter.predict(this.model.getTheta(), this.model.getLastDisplacement(),
+									this.model.getLastRotation(), this.track);
+			this.ticks++;
+			this.tickTime = now;
+			publish();
+		}
+	}
+}
@@ -0,0 +1,130 @@
+package MeasurementDevices;
+
+import Sensors.SampleTrigger;
+import Sensors.TriggerListener;
+import Sensors.UltrasonicSensor;
+import Utility.TimerInterface;
+
+/**
+ * Corrects the odometer with the distances to the walls measured by an
+ * ultrasonic sensor. A trigger on the sensor hands every range that changed
+ * by more than MIN_CHANGE to Odometer.correctRange with the time of its
+ * sample, so the range is matched with the pose of the robot when it was
+ * taken, see Odometer.poseAt. A range that did not change brings nothing new
+ * and is not fused again.
+ * The ranges are only used when the odometer has a PoseFilter, which finds
+ * the wall on the axis of the sensor and rejects the far, oblique and
+ * implausible ranges, e.g. an obstacle in front of the wall.
+ */
+public class WallRangeCorrector implements TriggerListener, TimerInterface {
+
+	/**
+	 * Smallest change of the range for it to be fused again [cm]
+	 */
+	public static final float MIN_CHANGE = 1.f;
+
+	/**
+	 * Angle of the sensor from the heading, counter-clockwise [rad]
+	 */
+	private final double angle;
+
+	/**
+	 * Number of ranges fused
+	 */
+	private volatile int corrections = 0;
+
+	/**
+	 * Odometer corrected
+	 */
+	private final Odometer odometer;
+
+	/**
+	 * Position of the sensor ahead of the center of rotation [cm]
+	 */
+	private final double offset;
+
+	/**
+	 * Number of ranges rejected
+	 */
+	private volatile int rejected = 0;
+
+	/**
+	 * Sensor ranging the walls
+	 */
+	private final UltrasonicSensor sensor;
+
+	/**
+	 * Trigger handing the ranges to the corrector on the sampling thread
+	 */
+	private final SampleTrigger trigger = SampleTrigger.changesBy(MIN_CHANGE);
+
+	/**
+	 * Creates a corrector
+	 *
+	 * @param odometer odometer to correct
+	 * @param sensor sensor ranging the walls
+	 * @param offset position of the sensor ahead of the center of rotation
+	 *            [cm]
+	 * @param angle angle of the sensor from the heading, counter-clockwise
+	 *            [rad]
+	 */
+	public WallRangeCorrector(Odometer odometer, UltrasonicSensor sensor, double offset,
+								double angle) {
+		assert(odometer != null);
+		assert(sensor != null);
+		this.odometer = odometer;
+		this.sensor = sensor;
+		this.offset = offset;
+		this.angle = angle;
+		this.trigger.setListener(this);
+	}
+
+	/**
+	 * @return Number of ranges fused
+	 */
+	public int getCorrections() {
+		return this.corrections;
+	}
+
+	/**
+	 * @return Number of ranges rejected, including those received without a
+	 *         filter on the odometer
+	 */
+	public int getRejected() {
+		return this.rejected;
+	}
+
+	/**
+	 * Starts fusing the ranges of the sensor
+	 *
+	 * @see Utility.TimerInterface#start()
+	 */
+	@Override
+	public void start() {
+		this.sensor.addTrigger(this.trigger);
+	}
+
+	/**
+	 * Stops fusing the ranges of the sensor
+	 *
+	 * @see Utility.TimerInterface#stop()
+	 */
+	@Override
+	public void stop() {
+		this.sensor.removeTrigger(this.trigger);
+	}
+
+	/**
+	 * Fuses a range, called on the ultrasonic sensor thread
+	 *
+	 * @see Sensors.TriggerListener#triggered(Sensors.SampleTrigger, long,
+	 *      float)
+	 */
+	@Override
+	public void triggered(SampleTrigger source, long timestamp, float value) {
+		if (this.odometer.correctRange(timestamp, value, this.offset, this.angle))
+			this.corrections++;
+		else
+			this.rejected++;
+	}
+}
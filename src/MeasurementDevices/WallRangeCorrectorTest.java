@@ -0,0 +1,84 @@
+package MeasurementDevices;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import Filters.FilterChain;
+import Sensors.SyntheticSampleSource;
+import Sensors.UltrasonicSensor;
+import Utility.Vec2D;
+
+/**
+ * WallRangeCorrectorTest
+ */
+public class WallRangeCorrectorTest {
+
+	/**
+	 * testRange checks that a range to the wall ahead is fused with the pose
+	 * at its time, and only with a filter
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testRange() {
+		Odometer odometer = new Odometer(false);
+		UltrasonicSensor us = new UltrasonicSensor(new SyntheticSampleSource(40), false, false,
+													new FilterChain());
+		WallRangeCorrector corrector = new WallRangeCorrector(odometer, us, 0.0, 0.0);
+
+		// - Facing the wall along x, 35 cm ahead of the sensor
+		double wall = FieldLineIndex.DEFAULT.getMaxX();
+		odometer.setOrientation(0.0);
+		odometer.setPosition(Vec2D.getVector(wall - 35, 150));
+		Pose before = odometer.getPose();
+
+		// - Nothing is fused without a filter
+		corrector.triggered(null, 0, 36.f);
+		assertEquals(before.getX(), odometer.getPose().getX(), 0.0);
+		assertEquals(1, corrector.getRejected());
+
+		// - The range says the robot is 1 cm further from the wall
+		odometer.setPoseFilter(new PoseFilter(FieldLineIndex.DEFAULT));
+		corrector.triggered(null, 0, 36.f);
+		double sd = PoseFilter.RANGE_NOISE + PoseFilter.RANGE_NOISE_SCALE * 36;
+		double k = PoseFilter.INITIAL_POSITION_VARIANCE /
+					(PoseFilter.INITIAL_POSITION_VARIANCE + sd * sd);
+		assertEquals(before.getX() - k, odometer.getPose().getX(), 1e-9);
+		assertEquals(before.getY(), odometer.getPose().getY(), 1e-9);
+		assertEquals(1, corrector.getCorrections());
+
+		// - No echo
+		corrector.triggered(null, 0, Integer.MAX_VALUE);
+		assertEquals(2, corrector.getRejected());
+	}
+
+	/**
+	 * testTrigger checks that the corrector receives the ranges that changed
+	 * once started
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testTrigger() {
+		Odometer odometer = new Odometer(false);
+		UltrasonicSensor us = new UltrasonicSensor(new SyntheticSampleSource(40).offset(0.5f)
+																				.sine(0.2f, 400),
+													false, false, new FilterChain());
+		WallRangeCorrector corrector = new WallRangeCorrector(odometer, us, 0.0, 0.0);
+
+		us.timedOut();
+		us.timedOut();
+		assertEquals(0, corrector.getRejected());
+
+		corrector.start();
+		for (int i = 0; i < 20; i++)
+			us.timedOut();
+		corrector.stop();
+		int received = corrector.getRejected();
+		assertTrue(received > 0);
+
+		for (int i = 0; i < 20; i++)
+			us.timedOut();
+		assertEquals(received, corrector.getRejected());
+	}
+}
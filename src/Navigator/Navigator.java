@@ -4,6 +4,7 @@ import java.util.Queue;
 
 import EV3Hardware.Robot;
 import MeasurementDevices.Odometer;
+import MeasurementDevices.Pose;
 import Utility.SimpleInterrupter;
 import Utility.Vec2D;
 import lejos.hardware.motor.EV3LargeRegulatedMotor;
@@ -68,7 +69,12 @@ public class Navigator {
 	/**
 	 * Position of the robot
 	 */
-	private Vec2D pos = Vec2D.getNull();
+	private final Vec2D pos = Vec2D.getNull();
+
+	/**
+	 * Pose of the robot read from the odometer
+	 */
+	private final Pose pose = new Pose();
 
 	/**
 	 * Rotation speed of the robot
@@ -132,9 +138,10 @@ public class Navigator {
 	 * @param distance distance to go forward
 	 */
 	public void goForward(double distance) {
-		double x = Math.cos(this.odometer.getOrientation()) * distance;
-		double y = Math.sin(this.odometer.getOrientation()) * distance;
-		this.travelTo(this.pos.getX() + x, this.pos.getY() + y);
+		updatePose();
+		double x = Math.cos(this.pose.getTheta()) * distance;
+		double y = Math.sin(this.pose.getTheta()) * distance;
+		this.travelTo(this.pose.getX() + x, this.pose.getY() + y);
 	}
 
 	/**
@@ -208,7 +215,7 @@ public class Navigator {
 		assert(point != null);
 		if (true) {
 			this.target.setVector(point);
-			this.pos = this.odometer.getPosition();
+			updatePose();
 
 			Vec2D dest = this.target;
 
@@ -231,7 +238,7 @@ public class Navigator {
 
 				this.turnTo(minAng, true);
 				Robot.setSpeeds(this.FORWARD_SPEED, this.FORWARD_SPEED);
-				this.pos = this.odometer.getPosition();
+				updatePose();
 
 				if (this.si.getInterrupt()) {
 					System.out.println("Navigator stopped");
@@ -271,4 +278,14 @@ public class Navigator {
 			Robot.setSpeeds(0, 0);
 		}
 	}
+
+	/**
+	 * Reads the pose of the robot from the odometer and updates the position
+	 */
+	private void updatePose() {
+		this.odometer.getPose(this.pose);
+		synchronized (this.lock) {
+			this.pos.setComponent(this.pose.getX(), this.pose.getY());
+		}
+	}
 }
@@ -3,19 +3,55 @@ package Navigator;
 import Controllers.PController;
 import EV3Hardware.Robot;
 import MeasurementDevices.Odometer;
+import Sensors.SampleTrigger;
 import Sensors.UltrasonicSensor;
+import Utility.ScheduledTask;
+import Utility.Scheduler;
 import Utility.SimpleInterrupter;
 import Utility.TimerInterface;
 import lejos.hardware.Sound;
-import lejos.utility.Delay;
-import lejos.utility.Timer;
 import lejos.utility.TimerListener;
 
 /**
- * Obstacle avoider class allows the robot a 'safe' navigation in the field
+ * Obstacle avoider class allows the robot a 'safe' navigation in the field.
+ * The maneuver is a state machine advanced by each tick so that the CONTROL
+ * scheduler thread, shared with the wall follower, is never blocked: the
+ * navigator is given time to stop, the robot turns away from the obstacle
+ * and follows it until its heading changed by 45 degrees.
  */
 public class ObstacleAvoider implements TimerListener, TimerInterface {
 
+	/**
+	 * Phases of the avoidance maneuver
+	 */
+	private enum Phase {
+
+		/**
+		 * No obstacle is being avoided
+		 */
+		IDLE,
+
+		/**
+		 * Waiting for the interrupted navigator to stop
+		 */
+		SETTLING,
+
+		/**
+		 * Turning away from the obstacle
+		 */
+		TURNING,
+
+		/**
+		 * Following the obstacle with the wall follower
+		 */
+		FOLLOWING
+	}
+
+	/**
+	 * Time given to the navigator to stop once interrupted [ms]
+	 */
+	private static final long SETTLE_TIME = 1000;
+
 	/**
 	 * Threshold for applying obstacle avoidance [cm]
 	 */
@@ -31,11 +67,6 @@ public class ObstacleAvoider implements TimerListener, TimerInterface {
 	 */
 	private double changeInAngle = 0.0;
 
-	/**
-	 * Is the avoidance engaged
-	 */
-	private boolean isAvoidanceEnabled = false;
-
 	/**
 	 * Flag indicating that the obstacle avoider is running
 	 */
@@ -44,7 +75,17 @@ public class ObstacleAvoider implements TimerListener, TimerInterface {
 	/**
 	 * Timer for the obstacle avoider
 	 */
-	private Timer oaTimer;
+	private ScheduledTask oaTimer;
+
+	/**
+	 * Trigger watching the front distance on the sampling thread
+	 */
+	private final SampleTrigger obstacle = SampleTrigger.fallsBelow(THRESHOLD);
+
+	/**
+	 * Number of obstacle crossings already handled
+	 */
+	private long obstaclesHandled = 0;
 
 	/**
 	 * Odometer for obstacle avoidance
@@ -52,9 +93,14 @@ public class ObstacleAvoider implements TimerListener, TimerInterface {
 	private Odometer odo;
 
 	/**
-	 * Flag indicating that obstacle avoidance is started
+	 * Current phase of the maneuver
+	 */
+	private Phase phase = Phase.IDLE;
+
+	/**
+	 * Time at which the current phase started [ms]
 	 */
-	private boolean oSstarted = false;
+	private long phaseStart = 0;
 
 	/**
 	 * Angle before avoidance [rad]
@@ -104,9 +150,10 @@ public class ObstacleAvoider implements TimerListener, TimerInterface {
 		this.usFrontSensor = usFSensor;
 
 		this.wfControl = new PController(15, 3, this.usAngledSensor);
+		this.usFrontSensor.addTrigger(this.obstacle);
 
 		// - Create a timer
-		this.oaTimer = new Timer(ObstacleAvoider.TICK_RATE * 2, this);
+		this.oaTimer = Scheduler.CONTROL.schedule(this, ObstacleAvoider.TICK_RATE * 2);
 		this.oaTimer.start();
 		this.isRunning = false;
 
@@ -130,68 +177,106 @@ public class ObstacleAvoider implements TimerListener, TimerInterface {
 	}
 
 	/**
-	 * Logic of the obstacle avoider
+	 * Enters a phase of the maneuver
+	 * 
+	 * @param next phase entered
+	 */
+	private void enter(Phase next) {
+		this.phase = next;
+		this.phaseStart = System.currentTimeMillis();
+	}
+
+	/**
+	 * Accumulates the change of heading while following the obstacle and ends
+	 * the maneuver past 45 degrees
+	 */
+	private void follow() {
+		double curAngle = this.odo.getOrientation();
+		double tmpChangeInAngle = curAngle - this.previousAngle;
+
+		// - Wrap around logic for corner cases
+		if (tmpChangeInAngle > 1.5 * Math.PI) {
+			this.previousAngle += Math.PI * 2;
+		} else if (tmpChangeInAngle < -1.5 * Math.PI) {
+			this.previousAngle -= Math.PI * 2;
+		}
+		// - Update the current change in angle
+		tmpChangeInAngle = curAngle - this.previousAngle;
+
+		// - Update the cumulative change in angle
+		this.changeInAngle += tmpChangeInAngle;
+		if (this.changeInAngle > Math.toRadians(45)) {
+			// - The follower ticks on this thread, once stopped it cannot set
+			// - the speeds again
+			this.wfControl.stop();
+			Robot.setSpeeds(0, 0);
+			Sound.beepSequenceUp();
+			Sound.beepSequenceUp();
+			Sound.beepSequenceUp();
+			this.si.setInterrupt(false);
+			enter(Phase.IDLE);
+		}
+
+		this.previousAngle = curAngle;
+	}
+
+	/**
+	 * Logic of the obstacle avoider, one step of the maneuver per tick
 	 */
-	@SuppressWarnings({ "boxing" })
 	@Override
 	public void timedOut() {
 		// - Check if we need to run an iteration
 		if (!this.isRunning)
 			return;
 
-		// - Fetch a sample from the sensor
-		int frontDistance = this.usFrontSensor.getSample()[0];
+		// - The trigger sees every sample, so an obstacle crossing the
+		// - threshold between two ticks is not missed
+		long crossings = this.obstacle.getFireCount();
+		boolean near = this.obstacle.isActive() ||
+						crossings != this.obstaclesHandled;
+		this.obstaclesHandled = crossings;
 
-		// - Trigger the avoidance logic
-		if (frontDistance < THRESHOLD && !this.oSstarted) {
-			this.oSstarted = true;
-			this.si.setInterrupt(true);
-			// - Make sure navigator is stopped
-			Delay.msDelay(1000);
-			Robot.rotateAngle(150, 150);
-			Robot.setSpeeds(0, 0);
-			// - Turn to the right and start all follower
-			this.isAvoidanceEnabled = true;
-			this.wfControl.start();
-			this.changeInAngle = 0.;
-			this.previousAngle = this.odo.getOrientation();
-		} else if (frontDistance < THRESHOLD) {
-			Robot.rotateAngle(150, 150);
-			this.changeInAngle = 0.;
-			this.previousAngle = this.odo.getOrientation();
-		}
+		switch (this.phase) {
+		case IDLE:
+			// - Trigger the avoidance logic
+			if (near) {
+				this.si.setInterrupt(true);
+				enter(Phase.SETTLING);
+			}
+			break;
 
-		// - Perform the avoidance task
-		if (this.isAvoidanceEnabled) {
-			double curAngle = this.odo.getOrientation();
-			double tmpChangeInAngle = curAngle - this.previousAngle;
+		case SETTLING:
+			// - Make sure navigator is stopped
+			if (System.currentTimeMillis() - this.phaseStart >= SETTLE_TIME) {
+				Robot.startRotateAngle(150, 150);
+				enter(Phase.TURNING);
+			}
+			break;
 
-			// - Wrap around logic for corner cases
-			if (tmpChangeInAngle > 1.5 * Math.PI) {
-				this.previousAngle += Math.PI * 2;
-			} else if (tmpChangeInAngle < -1.5 * Math.PI) {
-				this.previousAngle -= Math.PI * 2;
+		case TURNING:
+			// - Start the wall follower once the turn is over
+			if (!Robot.isMoving()) {
+				Robot.setSpeeds(0, 0);
+				this.wfControl.start();
+				this.changeInAngle = 0.;
+				this.previousAngle = this.odo.getOrientation();
+				enter(Phase.FOLLOWING);
 			}
-			// - Update the current change in angle
-			tmpChangeInAngle = curAngle - this.previousAngle;
+			break;
 
-			// - Update the cumulative change in angle
-			this.changeInAngle += tmpChangeInAngle;
-			if (this.changeInAngle > Math.toRadians(45)) {
-				this.isAvoidanceEnabled = false;
+		case FOLLOWING:
+			// - Turn away again, the follower would fight the turn
+			if (near) {
 				this.wfControl.stop();
-				while (this.wfControl.getPControllerNavigating())
-					Delay.msDelay(1000);
-
-				Robot.setSpeeds(0, 0);
-				Sound.beepSequenceUp();
-				Sound.beepSequenceUp();
-				Sound.beepSequenceUp();
-				this.si.setInterrupt(false);
-				this.oSstarted = false;
+				Robot.startRotateAngle(150, 150);
+				enter(Phase.TURNING);
+				break;
 			}
+			follow();
+			break;
 
-			this.previousAngle = curAngle;
+		default:
+			break;
 		}
 	}
 }
@@ -4,10 +4,11 @@ import EV3Hardware.Robot;
 import FlagCapturer.Capturer;
 import Sensors.LightSensorColor;
 import Sensors.UltrasonicSensor;
+import Utility.ScheduledTask;
+import Utility.Scheduler;
 import Utility.TimerInterface;
 import Utility.Vec2D;
 import lejos.utility.Delay;
-import lejos.utility.Timer;
 import lejos.utility.TimerListener;
 
 /**
@@ -34,7 +35,7 @@ public class ObjectDetecter implements TimerListener, TimerInterface {
 	/**
 	 * Timer for automatic polling
 	 */
-	private Timer detecterTimer;
+	private ScheduledTask detecterTimer;
 
 	/**
 	 * distance returned by the US sensor
@@ -67,7 +68,7 @@ public class ObjectDetecter implements TimerListener, TimerInterface {
 		this.lsSampler = new LightSensorColor(	Robot.blockSensor, true, false,
 												5);
 		// - Initialize the timer
-		this.detecterTimer = new Timer(TICK_RATE, this);
+		this.detecterTimer = Scheduler.CONTROL.schedule(this, TICK_RATE);
 		if (autostart) {
 			this.detecterTimer.start();
 		}
@@ -104,8 +105,8 @@ public class ObjectDetecter implements TimerListener, TimerInterface {
 	@SuppressWarnings({ "boxing", "nls" })
 	@Override
 	public void timedOut() {
-		this.color = this.lsSampler.getSample()[0];
-		this.distance = this.usSampler.getSample()[0];
+		this.color = this.lsSampler.getColorId();
+		this.distance = this.usSampler.getDistanceCm();
 
 		Robot.textLCD.drawString("COLOR : " + this.color, 0, 0);
 		Robot.textLCD.drawString("DIST  : " + this.distance, 0, 1);
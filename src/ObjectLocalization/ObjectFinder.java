@@ -29,8 +29,8 @@ public class ObjectFinder {
 
 		// - Enable the termination condition
 		while (Button.readButtons() != Button.ID_ESCAPE) {
-			float color = lsSampler.getSample()[0];
-			int distance = usSampler.getSample()[0];
+			float color = lsSampler.getColorId();
+			int distance = usSampler.getDistanceCm();
 
 			Robot.textLCD.drawString("COLOR : " + color, 0, 0);
 			Robot.textLCD.drawString("DIST  : " + distance, 0, 1);
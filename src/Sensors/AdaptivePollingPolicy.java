@@ -0,0 +1,202 @@
+package Sensors;
+
+import Utility.MotionState;
+
+/**
+ * Chooses the polling period of a sensor from what the robot is doing. The
+ * sensor polls at the fastest rate when the wheels turn at the configured
+ * speed, when its samples vary as much as the configured variance or when
+ * its edge detector is about to report an edge, and slows down to the
+ * slowest rate when the robot is idle. The demands are combined as fractions
+ * of the fastest rate and the strongest one wins, e.g. for the light sensor:
+ * new AdaptivePollingPolicy(2, 20).followSpeed(160).followVariance(0.01f).
+ * The period is shortened at once but only lengthened after the demand has
+ * stayed low for the hold time, so the rate does not flicker.
+ * The policy is updated by the sampling thread.
+ */
+public class AdaptivePollingPolicy {
+
+	/**
+	 * Weight of a new sample in the running mean and variance
+	 */
+	private static final float ALPHA = 0.1f;
+
+	/**
+	 * Default time the demand must stay low before slowing down [ms]
+	 */
+	public static final int DEFAULT_HOLD_TIME = 500;
+
+	/**
+	 * Current polling period [ms]
+	 */
+	private volatile int delay;
+
+	/**
+	 * Wheel speed at which the fastest rate is used [deg/s], 0 to ignore the
+	 * speed
+	 */
+	private float fullSpeed = 0.f;
+
+	/**
+	 * Variance of the samples at which the fastest rate is used, 0 to ignore
+	 * the variance
+	 */
+	private float fullVariance = 0.f;
+
+	/**
+	 * Time the demand must stay low before slowing down [ms]
+	 */
+	private int holdTime = DEFAULT_HOLD_TIME;
+
+	/**
+	 * Flag indicating that a sample was seen
+	 */
+	private boolean initialized = false;
+
+	/**
+	 * Time of the last sample that needed the current rate or a faster one
+	 * [ms]
+	 */
+	private long lastDemand = 0;
+
+	/**
+	 * Slowest polling period [ms]
+	 */
+	private final int maxDelay;
+
+	/**
+	 * Running mean of the samples
+	 */
+	private float mean = 0.f;
+
+	/**
+	 * Fastest polling period [ms]
+	 */
+	private final int minDelay;
+
+	/**
+	 * Running variance of the samples
+	 */
+	private float variance = 0.f;
+
+	/**
+	 * Creates a policy that only reacts to the edge detector, the other
+	 * demands are enabled with followSpeed and followVariance. It starts at the
+	 * fastest rate.
+	 *
+	 * @param minDelay fastest polling period [ms]
+	 * @param maxDelay slowest polling period [ms], at least minDelay
+	 */
+	public AdaptivePollingPolicy(int minDelay, int maxDelay) {
+		assert(minDelay > 0);
+		assert(maxDelay >= minDelay);
+		this.minDelay = minDelay;
+		this.maxDelay = maxDelay;
+		this.delay = minDelay;
+	}
+
+	/**
+	 * Polls faster as the wheels turn faster
+	 *
+	 * @param speed wheel speed at which the fastest rate is used [deg/s]
+	 * @return This policy
+	 */
+	public AdaptivePollingPolicy followSpeed(float speed) {
+		assert(speed > 0.f);
+		this.fullSpeed = speed;
+		return this;
+	}
+
+	/**
+	 * Polls faster as the samples vary more
+	 *
+	 * @param v variance of the samples at which the fastest rate is used, in
+	 *            the squared units of the samples
+	 * @return This policy
+	 */
+	public AdaptivePollingPolicy followVariance(float v) {
+		assert(v > 0.f);
+		this.fullVariance = v;
+		return this;
+	}
+
+	/**
+	 * @return Polling period currently chosen [ms]
+	 */
+	public int getDelay() {
+		return this.delay;
+	}
+
+	/**
+	 * @return Slowest polling period [ms]
+	 */
+	public int getMaxDelay() {
+		return this.maxDelay;
+	}
+
+	/**
+	 * @return Fastest polling period [ms]
+	 */
+	public int getMinDelay() {
+		return this.minDelay;
+	}
+
+	/**
+	 * @return Running variance of the samples
+	 */
+	public float getVariance() {
+		return this.variance;
+	}
+
+	/**
+	 * Sets the time the demand must stay low before slowing down
+	 *
+	 * @param time hold time [ms]
+	 * @return This policy
+	 */
+	public AdaptivePollingPolicy holdTime(int time) {
+		assert(time >= 0);
+		this.holdTime = time;
+		return this;
+	}
+
+	/**
+	 * Updates the policy with a new sample, called by the sampling thread
+	 *
+	 * @param value new sample
+	 * @param timestamp time of the sample [ms]
+	 * @param edgePending true if an edge detector is about to report an edge
+	 * @return Polling period to use [ms]
+	 */
+	public int update(float value, long timestamp, boolean edgePending) {
+		if (!Float.isNaN(value)) {
+			if (!this.initialized) {
+				this.initialized = true;
+				this.mean = value;
+				this.lastDemand = timestamp;
+			} else {
+				// - Exponentially weighted mean and variance
+				float d = value - this.mean;
+				this.mean += ALPHA * d;
+				this.variance = (1.f - ALPHA) * (this.variance + ALPHA * d * d);
+			}
+		}
+
+		// - Fraction of the fastest rate needed, the strongest demand wins
+		float demand = edgePending ? 1.f : 0.f;
+		if (this.fullSpeed > 0.f)
+			demand = Math.max(demand, MotionState.getWheelSpeed() / this.fullSpeed);
+		if (this.fullVariance > 0.f)
+			demand = Math.max(demand, this.variance / this.fullVariance);
+		demand = Math.min(demand, 1.f);
+
+		int target = this.maxDelay -
+						Math.round(demand * (this.maxDelay - this.minDelay));
+		if (target <= this.delay ||
+			timestamp - this.lastDemand >= this.holdTime) {
+			this.delay = target;
+			this.lastDemand = timestamp;
+		}
+		return this.delay;
+	}
+}
@@ -0,0 +1,84 @@
+package Sensors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import Filters.EdgeDetector;
+import Filters.FilterChain;
+import Utility.MotionState;
+
+/**
+ * AdaptivePollingPolicyTest
+ */
+public class AdaptivePollingPolicyTest {
+
+	/**
+	 * testEdgePending polls the light sensor faster while the intensity goes
+	 * through the band of hysteresis of the edge detector
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testEdgePending() {
+		// - A slow ramp through the band between 0.3 and 0.4 at t = 500 ms
+		SyntheticSampleSource ramp = new SyntheticSampleSource(5).offset(0.f)
+																	.sine(0.5f, 2000);
+		LightSensor ls = new LightSensor(ramp, false, false, new FilterChain());
+		ls.setEdgeDetector(EdgeDetector.withHysteresis(0.35f, 0.05f, 2, null));
+		ls.setPollingPolicy(new AdaptivePollingPolicy(2, 20).holdTime(100));
+
+		boolean fast = false;
+		for (int i = 0; i < 400; i++) {
+			ls.timedOut();
+			fast |= ls.getPollingRate() == 2;
+		}
+		assertTrue(fast);
+		assertEquals(20, ls.getPollingRate());
+	}
+
+	/**
+	 * testIdle backs off after the hold time and speeds up at once
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testIdle() {
+		AdaptivePollingPolicy p = new AdaptivePollingPolicy(2, 20).followSpeed(200);
+		assertEquals(2, p.getDelay());
+
+		assertEquals(2, p.update(0.5f, 0, false));
+		assertEquals(2, p.update(0.5f, 499, false));
+		assertEquals(20, p.update(0.5f, 500, false));
+
+		// - The motion state is shared, the wheels are stopped at the end
+		try {
+			MotionState.setCommandedSpeeds(-100, 100);
+			assertEquals(11, p.update(0.5f, 510, false));
+			MotionState.setCommandedSpeeds(250, 250);
+			assertEquals(2, p.update(0.5f, 520, false));
+			MotionState.setCommandedSpeeds(0, 0);
+			assertEquals(2, p.update(0.5f, 530, true));
+		} finally {
+			MotionState.setCommandedSpeeds(0, 0);
+		}
+	}
+
+	/**
+	 * testVariance polls faster when the samples become noisy
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testVariance() {
+		AdaptivePollingPolicy p = new AdaptivePollingPolicy(2, 20).followVariance(0.01f)
+																	.holdTime(0);
+		long t = 0;
+		for (int i = 0; i < 50; i++)
+			p.update(0.5f, t++, false);
+		assertEquals(20, p.getDelay());
+
+		for (int i = 0; i < 50; i++)
+			p.update(i % 2 == 0 ? 0.2f : 0.8f, t++, false);
+		assertEquals(2, p.getDelay());
+		assertTrue(p.getVariance() > 0.01f);
+	}
+}
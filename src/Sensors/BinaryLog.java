@@ -0,0 +1,171 @@
+package Sensors;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Binary sample log written by a StreamingCollector, read back in memory.
+ * The log starts with a header of three big endian ints: the magic number,
+ * the version of the format and the number of channels. It is followed by
+ * fixed width records: the timestamp [ms] as a long and one float per
+ * channel. A record cut by the end of the file is ignored, so the log of an
+ * interrupted capture can still be read.
+ */
+public class BinaryLog {
+
+	/**
+	 * Size of the header [bytes]
+	 */
+	public static final int HEADER_SIZE = 12;
+
+	/**
+	 * First int of a log, "DPMS"
+	 */
+	public static final int MAGIC = 0x44504D53;
+
+	/**
+	 * Version of the format
+	 */
+	public static final int VERSION = 1;
+
+	/**
+	 * Number of channels of a record
+	 */
+	private final int channels;
+
+	/**
+	 * Number of records
+	 */
+	private final int records;
+
+	/**
+	 * Timestamps of the records [ms]
+	 */
+	private final long[] times;
+
+	/**
+	 * Channels of the records, 'channels' floats per record
+	 */
+	private final float[] values;
+
+	/**
+	 * Creates a log from its records
+	 *
+	 * @param channels number of channels of a record
+	 * @param records number of records
+	 * @param times timestamps of the records [ms]
+	 * @param values channels of the records
+	 */
+	private BinaryLog(int channels, int records, long[] times, float[] values) {
+		this.channels = channels;
+		this.records = records;
+		this.times = times;
+		this.values = values;
+	}
+
+	/**
+	 * Reads a log
+	 *
+	 * @param in stream of the log, it is read entirely but not closed
+	 * @return Log
+	 * @throws IOException if the log cannot be read or is not a sample log
+	 */
+	@SuppressWarnings({ "nls", "resource" })
+	public static BinaryLog read(InputStream in) throws IOException {
+		assert(in != null);
+		DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+		int channels;
+		try {
+			if (data.readInt() != MAGIC)
+				throw new IOException("Not a sample log");
+			int version = data.readInt();
+			if (version != VERSION)
+				throw new IOException("Unsupported log version " + version);
+			channels = data.readInt();
+		} catch (@SuppressWarnings("unused") EOFException e) {
+			throw new IOException("Truncated header");
+		}
+		if (channels <= 0)
+			throw new IOException("Wrong number of channels " + channels);
+
+		long[] times = new long[256];
+		float[] values = new float[256 * channels];
+		int n = 0;
+		try {
+			while (true) {
+				long t = data.readLong();
+				if (n == times.length) {
+					times = Arrays.copyOf(times, 2 * n);
+					values = Arrays.copyOf(values, 2 * n * channels);
+				}
+				for (int c = 0; c < channels; c++)
+					values[n * channels + c] = data.readFloat();
+				times[n++] = t;
+			}
+		} catch (@SuppressWarnings("unused") EOFException e) {
+			// - End of the log, a cut record is not counted
+			assert true;
+		}
+
+		return new BinaryLog(channels, n, Arrays.copyOf(times, n),
+								Arrays.copyOf(values, n * channels));
+	}
+
+	/**
+	 * Reads a log file
+	 *
+	 * @param path path of the log
+	 * @return Log
+	 * @throws IOException if the log cannot be read or is not a sample log
+	 */
+	public static BinaryLog readFile(String path) throws IOException {
+		assert(path != null);
+		try (InputStream in = new FileInputStream(path)) {
+			return read(in);
+		}
+	}
+
+	/**
+	 * @param channels number of channels of a record
+	 * @return Size of a record [bytes]
+	 */
+	public static int recordSize(int channels) {
+		return 8 + 4 * channels;
+	}
+
+	/**
+	 * @return Number of channels of a record
+	 */
+	public int getChannelCount() {
+		return this.channels;
+	}
+
+	/**
+	 * @return Number of records
+	 */
+	public int getRecordCount() {
+		return this.records;
+	}
+
+	/**
+	 * @param record index of the record
+	 * @return Timestamp of the record [ms]
+	 */
+	public long getTime(int record) {
+		return this.times[record];
+	}
+
+	/**
+	 * @param record index of the record
+	 * @param channel index of the channel
+	 * @return Value of a channel of the record
+	 */
+	public float getValue(int record, int channel) {
+		return this.values[record * this.channels + channel];
+	}
+}
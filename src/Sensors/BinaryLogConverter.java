@@ -0,0 +1,59 @@
+package Sensors;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+
+/**
+ * Converts the binary logs of a StreamingCollector to CSV, one record per
+ * line: the timestamp [ms] followed by the channels. It runs on the desktop:
+ * java Sensors.BinaryLogConverter usSensor-1234.bin [usSensor-1234.csv]
+ */
+public class BinaryLogConverter {
+
+	/**
+	 * Writes a log as CSV
+	 *
+	 * @param log log to convert
+	 * @param out destination of the CSV, it is not closed
+	 */
+	@SuppressWarnings({ "nls", "resource" })
+	public static void toCsv(BinaryLog log, Writer out) {
+		assert(log != null);
+		assert(out != null);
+		PrintWriter writer = new PrintWriter(out);
+		StringBuilder line = new StringBuilder();
+		for (int r = 0; r < log.getRecordCount(); r++) {
+			line.setLength(0);
+			line.append(log.getTime(r));
+			for (int c = 0; c < log.getChannelCount(); c++)
+				line.append(", ").append(log.getValue(r, c));
+			writer.println(line);
+		}
+		writer.flush();
+	}
+
+	/**
+	 * Entry point of the converter
+	 *
+	 * @param args path of the binary log and optionally of the CSV, by default
+	 *            the path of the log with the csv extension
+	 * @throws IOException if the log cannot be read or the CSV written
+	 */
+	@SuppressWarnings("nls")
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("Usage: BinaryLogConverter log.bin [log.csv]");
+			return;
+		}
+
+		String csv = args.length > 1 ? args[1] : args[0].replaceFirst("\\.bin$", "") + ".csv";
+		BinaryLog log = BinaryLog.readFile(args[0]);
+		try (Writer out = new OutputStreamWriter(new FileOutputStream(csv), "UTF-8")) {
+			toCsv(log, out);
+		}
+		System.out.println(log.getRecordCount() + " records written to " + csv);
+	}
+}
@@ -1,6 +1,7 @@
 package Sensors;
 
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.UnsupportedEncodingException;
 
@@ -11,6 +12,17 @@ import lejos.utility.Delay;
  */
 public class DataCollector {
 
+	/**
+	 * Time allowed for streaming, in polling periods per sample, the adaptive
+	 * polling may slow the sensor down
+	 */
+	private static final int STREAM_PERIODS = 2;
+
+	/**
+	 * Time allowed for streaming on top of the polling periods [ms]
+	 */
+	private static final long STREAM_SLACK = 1000;
+
 	/**
 	 * Collect data from the sensor named 'Sensor Name' and writes is to the 
 	 * file 'SensorName-Time.csv'
@@ -51,4 +63,42 @@ public class DataCollector {
 
 		return true;
 	}
+
+	/**
+	 * Streams the samples of the sensor named 'Sensor Name' to the binary log
+	 * 'SensorName-Time.bin' at the full rate of the sensor, see
+	 * StreamingCollector. It returns once the samples are collected, or with
+	 * false if the sensor does not deliver them in time, e.g. when its poller
+	 * is stopped. The log is converted to CSV with BinaryLogConverter.
+	 * 
+	 * @param <T> Type of data collected
+	 * @param pDataInstance Instance of a data provider
+	 * @param sensorName The name of the sensor
+	 * @param samples Number of samples to collect
+	 * @return If collection was successful or not
+	 */
+	@SuppressWarnings({ "nls", "boxing" })
+	public static <T> boolean streamData(	DataProvider<T> pDataInstance,
+											String sensorName, int samples) {
+		assert(pDataInstance != null);
+		assert(sensorName != null);
+
+		int channels = pDataInstance.getSample().length;
+		String path = String.format("%s-%d.bin", sensorName,
+									System.currentTimeMillis());
+		boolean collected;
+		try (StreamingCollector collector = new StreamingCollector(path, channels,
+																	StreamingCollector.DEFAULT_CAPACITY)) {
+			pDataInstance.setSampleSink(collector);
+			long timeout = (long) samples * STREAM_PERIODS * pDataInstance.getPollingRate() +
+							STREAM_SLACK;
+			collected = collector.awaitSamples(samples, timeout);
+			pDataInstance.setSampleSink(null);
+		} catch (IOException e) {
+			pDataInstance.setSampleSink(null);
+			return false;
+		}
+
+		return collected;
+	}
 }
@@ -12,4 +12,60 @@ public interface DataProvider<T> {
 	 * @return sample acquired by the sensor
 	 */
 		T[] getSample();
+
+	/**
+	 * Gives the history of the last samples of the first channel with their
+	 * timestamps, in the units of the sensor mode
+	 * 
+	 * @return History of the samples
+	 */
+	public SampleHistory getHistory();
+
+	/**
+	 * Gives the health of the poller: age of the last sample, achieved rate,
+	 * jitter, missed ticks and fetch time, see SensorMetrics
+	 * 
+	 * @return Metrics of the poller, also found in the MetricsRegistry
+	 */
+	public SensorMetrics getMetrics();
+
+	/**
+	 * Gives the current period of the sampling thread
+	 * 
+	 * @return Polling period [ms]
+	 */
+	public int getPollingRate();
+
+	/**
+	 * Copies the last sample in a caller supplied array without locking or
+	 * allocating, in the units of the sensor mode
+	 * 
+	 * @param dst destination of the sample
+	 * @param offset index of the first channel in 'dst'
+	 * @return Time of the sample [ms]
+	 */
+	public long readSample(float[] dst, int offset);
+
+	/**
+	 * Registers a trigger evaluated by the sampling thread on every sample, in
+	 * the units of the primitive getter of the sensor
+	 * 
+	 * @param trigger trigger to add
+	 */
+	public void addTrigger(SampleTrigger trigger);
+
+	/**
+	 * Unregisters a trigger, nothing happens if it is not registered
+	 * 
+	 * @param trigger trigger to remove
+	 */
+	public void removeTrigger(SampleTrigger trigger);
+
+	/**
+	 * Sets the receiver of every sample published by the sampling thread, e.g.
+	 * a StreamingCollector
+	 * 
+	 * @param sink receiver of the samples, null to remove it
+	 */
+	public void setSampleSink(SampleSink sink);
 }
@@ -0,0 +1,72 @@
+package Sensors;
+
+import lejos.hardware.sensor.EV3ColorSensor;
+import lejos.hardware.sensor.EV3UltrasonicSensor;
+import lejos.robotics.SampleProvider;
+
+/**
+ * Source of samples reading a leJOS sensor mode, the samples are timed with
+ * the system clock
+ */
+public class EV3SampleSource implements SampleSource {
+
+	/**
+	 * Sensor mode providing the samples
+	 */
+	private final SampleProvider provider;
+
+	/**
+	 * Creates a source reading a sensor mode
+	 * 
+	 * @param provider sensor mode providing the samples
+	 */
+	public EV3SampleSource(SampleProvider provider) {
+		assert(provider != null);
+		this.provider = provider;
+	}
+
+	/**
+	 * @param sensor color sensor
+	 * @return Source of the color IDs of the sensor
+	 */
+	public static EV3SampleSource colorId(EV3ColorSensor sensor) {
+		assert(sensor != null);
+		return new EV3SampleSource(sensor.getColorIDMode());
+	}
+
+	/**
+	 * @param sensor ultrasonic sensor
+	 * @return Source of the distances [m] measured by the sensor
+	 */
+	@SuppressWarnings("nls")
+	public static EV3SampleSource distance(EV3UltrasonicSensor sensor) {
+		assert(sensor != null);
+		return new EV3SampleSource(sensor.getMode("Distance"));
+	}
+
+	/**
+	 * @param sensor color sensor
+	 * @return Source of the reflected red light intensities of the sensor
+	 */
+	public static EV3SampleSource red(EV3ColorSensor sensor) {
+		assert(sensor != null);
+		return new EV3SampleSource(sensor.getRedMode());
+	}
+
+	/**
+	 * @see Sensors.SampleSource#fetchSample(float[], int)
+	 */
+	@Override
+	public long fetchSample(float[] sample, int offset) {
+		this.provider.fetchSample(sample, offset);
+		return System.currentTimeMillis();
+	}
+
+	/**
+	 * @see Sensors.SampleSource#sampleSize()
+	 */
+	@Override
+	public int sampleSize() {
+		return this.provider.sampleSize();
+	}
+}
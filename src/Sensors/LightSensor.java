@@ -1,10 +1,12 @@
 package Sensors;
 
+import Filters.EdgeDetector;
+import Filters.FilterChain;
+import Filters.FloatFilter;
+import Utility.ScheduledTask;
+import Utility.Scheduler;
 import Utility.TimerInterface;
 import lejos.hardware.sensor.EV3ColorSensor;
-import lejos.hardware.sensor.SensorMode;
-import lejos.robotics.filter.MeanFilter;
-import lejos.utility.Timer;
 import lejos.utility.TimerListener;
 
 /***
@@ -12,15 +14,26 @@ import lejos.utility.TimerListener;
  */
 public class LightSensor implements DataProvider<Float>, TimerListener,
 				TimerInterface, SwitchableFilter {
+	/**
+	 * Kind of the poller in the MetricsRegistry
+	 */
+	@SuppressWarnings("nls")
+	private static final String METRICS_KIND = "light";
+
 	/**
 	 * Suggested sampling rate for that sensor as an interval in ms.
 	 */
 	public static final int TICK_RATE = 5;
 
 	/**
-	 * Lock object for mutual exclusion
+	 * Edge detector fed with every sample, may be null
 	 */
-	private final Object lock = new Object();
+	private volatile EdgeDetector edgeDetector = null;
+
+	/**
+	 * History of the last samples
+	 */
+	private final SampleHistory history = new SampleHistory(SampleHistory.DEFAULT_CAPACITY);
 
 	/**
 	 * Array of floats holding the sensor data
@@ -28,24 +41,49 @@ public class LightSensor implements DataProvider<Float>, TimerListener,
 	private float[] lsData;
 
 	/**
-	 * Average filter for the sensor
+	 * Filter applied to the sensor data
 	 */
-	private MeanFilter lsFilter;
+	private FloatFilter lsFilter;
 
 	/**
-	 * Sensor mode for reading data
+	 * Timer for automatic polling
 	 */
-	private SensorMode lsMode;
+	private ScheduledTask lsTimer;
 
 	/**
-	 * Timer for automatic polling
+	 * Health of the poller
+	 */
+	private final SensorMetrics metrics = new SensorMetrics();
+
+	/**
+	 * Policy choosing the polling rate, may be null
 	 */
-	private Timer lsTimer;
+	private volatile AdaptivePollingPolicy pollingPolicy = null;
+
+	/**
+	 * Receiver of every published sample, may be null
+	 */
+	private volatile SampleSink sink = null;
+
+	/**
+	 * Last sample published to the readers
+	 */
+	private final SampleSnapshot snapshot;
+
+	/**
+	 * Source of the samples
+	 */
+	private final SampleSource source;
+
+	/**
+	 * Triggers evaluated on every sample
+	 */
+	private final TriggerSet triggers = new TriggerSet();
 
 	/**
 	 * Use filtering
 	 */
-	private boolean useFilter;
+	private volatile boolean useFilter;
 
 	/**
 	 * Constructs a light sensor poller with a user defined sampling rate
@@ -57,18 +95,57 @@ public class LightSensor implements DataProvider<Float>, TimerListener,
 	 */
 	public LightSensor(	EV3ColorSensor pEV3ColorSensor, boolean autostart,
 						boolean useFilter, int window) {
-		assert(pEV3ColorSensor != null);
-		// - Get the red sensor reading mode
-		this.lsMode = pEV3ColorSensor.getRedMode();
+		this(pEV3ColorSensor, autostart, useFilter,
+				new FilterChain().addAverage(window));
+	}
+
+	/**
+	 * Constructs a light sensor poller filtering the data with a user supplied
+	 * filter, e.g. a FilterChain
+	 * 
+	 * @param pEV3ColorSensor An instance of a valid pEV3ColorSensor
+	 * @param autostart Start polling automatically or not
+	 * @param useFilter Makes the output of the sensor filtered
+	 * @param filter Filter applied to the sensor data
+	 */
+	public LightSensor(	EV3ColorSensor pEV3ColorSensor, boolean autostart,
+						boolean useFilter, FloatFilter filter) {
+		this(EV3SampleSource.red(pEV3ColorSensor), autostart, useFilter,
+				filter);
+	}
+
+	/**
+	 * Constructs a light sensor poller reading the intensities from a source of
+	 * samples, e.g. a ReplaySampleSource
+	 * 
+	 * @param source Source of the intensities
+	 * @param autostart Start polling automatically or not
+	 * @param useFilter Makes the output of the sensor filtered
+	 * @param filter Filter applied to the sensor data
+	 */
+	public LightSensor(SampleSource source, boolean autostart,
+							boolean useFilter, FloatFilter filter) {
+		assert(source != null);
+		assert(filter != null);
+		this.source = source;
 		// - Allocate size for samples
-		this.lsData = new float[this.lsMode.sampleSize()];
-		// - Initialize a mean filter
-		this.lsFilter = new MeanFilter(this.lsMode, window);
+		this.lsData = new float[source.sampleSize()];
+		this.snapshot = new SampleSnapshot(this.lsData.length);
+		this.lsFilter = filter;
 		// - Create a timer
-		this.lsTimer = new Timer(LightSensor.TICK_RATE, this);
+		this.lsTimer = Scheduler.SENSING.schedule(this, LightSensor.TICK_RATE);
 		this.useFilter = useFilter;
 		if (autostart)
-			this.lsTimer.start();
+			start();
+	}
+
+	/**
+	 * A getter for the last intensity that never blocks nor allocates
+	 * 
+	 * @return Last value of intensity of the sensor in the range of [0.0, 1.0]
+	 */
+	public float getIntensity() {
+		return this.snapshot.get(0);
 	}
 
 	/**
@@ -79,26 +156,77 @@ public class LightSensor implements DataProvider<Float>, TimerListener,
 	@SuppressWarnings("boxing")
 	@Override
 	public Float[] getSample() {
-		Float[] r = new Float[this.lsData.length];
+		float[] data = new float[this.snapshot.getChannelCount()];
+		this.snapshot.read(data, 0);
 
-		synchronized (this.lock) {
-			for (int i = 0; i < this.lsData.length; i++)
-				r[i] = this.lsData[i];
-		}
+		Float[] r = new Float[data.length];
+		for (int i = 0; i < data.length; i++)
+			r[i] = data[i];
 
 		return r;
 	}
 
+	/**
+	 * @see Sensors.DataProvider#getMetrics()
+	 */
+	@Override
+	public SensorMetrics getMetrics() {
+		return this.metrics;
+	}
+
+	/**
+	 * @see Sensors.DataProvider#getHistory()
+	 */
+	@Override
+	public SampleHistory getHistory() {
+		return this.history;
+	}
+
 	/**
 	 * @return True is filtering is used on the sensor and false otherwise
 	 */
 	@Override
 	public boolean isUseFilter() {
-		synchronized (this.lock) {
-			return this.useFilter;
-		}
+		return this.useFilter;
+	}
+
+	/**
+	 * Installs an edge detector fed with every sample on the polling thread,
+	 * at the full rate of the sensor
+	 * 
+	 * @param detector Edge detector, null to remove it
+	 */
+	public void setEdgeDetector(EdgeDetector detector) {
+		this.edgeDetector = detector;
 	}
 
+	/**
+	 * @see Sensors.SwitchableFilter#getPollingRate()
+	 */
+	@Override
+	public int getPollingRate() {
+		return this.lsTimer.getDelay();
+	}
+
+	/**
+	 * @see Sensors.DataProvider#setSampleSink(Sensors.SampleSink)
+	 */
+	@Override
+	public void setSampleSink(SampleSink sink) {
+		this.sink = sink;
+	}
+
+	/**
+	 * @see Sensors.SwitchableFilter#setPollingPolicy(Sensors.AdaptivePollingPolicy)
+	 */
+	@Override
+	public void setPollingPolicy(AdaptivePollingPolicy policy) {
+		this.pollingPolicy = policy;
+	}
+
+	/**
+	 * @see Sensors.SwitchableFilter#setPollingRate(int)
+	 */
 	@Override
 	public void setPollingRate(int delay) {
 		this.lsTimer.setDelay(delay);
@@ -111,37 +239,88 @@ public class LightSensor implements DataProvider<Float>, TimerListener,
 	 */
 	@Override
 	public void setUseFilter(boolean useFilter) {
-		synchronized (this.lock) {
-			this.useFilter = useFilter;
-		}
+		this.useFilter = useFilter;
+	}
+
+	/**
+	 * @see Sensors.DataProvider#addTrigger(Sensors.SampleTrigger)
+	 */
+	@Override
+	public void addTrigger(SampleTrigger trigger) {
+		this.triggers.add(trigger);
 	}
 
 	/**
+	 * @see Sensors.DataProvider#readSample(float[], int)
+	 */
+	@Override
+	public long readSample(float[] dst, int offset) {
+		return this.snapshot.read(dst, offset);
+	}
+
+	/**
+	 * @see Sensors.DataProvider#removeTrigger(Sensors.SampleTrigger)
+	 */
+	@Override
+	public void removeTrigger(SampleTrigger trigger) {
+		this.triggers.remove(trigger);
+	}
+
+	/**
+	 * Starts polling, the metrics join the MetricsRegistry and the time spent
+	 * stopped is not counted as missed ticks
+	 *
 	 * @see Utility.TimerInterface#start()
 	 */
 	@Override
 	public void start() {
+		this.metrics.restart();
+		MetricsRegistry.register(METRICS_KIND, this.metrics);
 		this.lsTimer.start();
 	}
 
 	/**
+	 * Stops polling, the metrics leave the MetricsRegistry until the next
+	 * start
+	 *
 	 * @see Utility.TimerInterface#stop()
 	 */
 	@Override
 	public void stop() {
 		this.lsTimer.stop();
+		MetricsRegistry.unregister(this.metrics);
 	}
 
 	/**
-	 * This method fetches and filters a sample from the color sensor.
+	 * This method fetches and filters a sample from the color sensor, publishes
+	 * it to the readers, feeds it to the edge detector, evaluates the triggers
+	 * and adapts the polling rate.
 	 */
 	@Override
 	public void timedOut() {
-		synchronized (this.lock) {
-			if (this.useFilter)
-				this.lsFilter.fetchSample(this.lsData, 0);
-			else
-				this.lsMode.fetchSample(this.lsData, 0);
+		long start = System.nanoTime();
+		long timestamp = this.source.fetchSample(this.lsData, 0);
+		this.metrics.record(start, System.nanoTime(), this.lsTimer.getDelay());
+		// - The red mode provides a single channel
+		if (this.useFilter)
+			this.lsData[0] = this.lsFilter.filterSample(this.lsData[0]);
+		this.snapshot.publish(this.lsData, timestamp);
+		SampleSink s = this.sink;
+		if (s != null)
+			s.put(timestamp, this.lsData);
+		this.history.add(timestamp, this.lsData[0]);
+		this.triggers.evaluate(this.lsData[0], timestamp);
+
+		EdgeDetector detector = this.edgeDetector;
+		if (detector != null)
+			detector.process(this.lsData[0], timestamp);
+
+		AdaptivePollingPolicy policy = this.pollingPolicy;
+		if (policy != null) {
+			int delay = policy.update(this.lsData[0], timestamp,
+										detector != null && detector.isPending());
+			if (delay != this.lsTimer.getDelay())
+				this.lsTimer.setDelay(delay);
 		}
 	}
 }
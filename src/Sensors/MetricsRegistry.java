@@ -0,0 +1,109 @@
+package Sensors;
+
+import java.util.Arrays;
+
+/**
+ * Registry of the metrics of every sensor poller, so the health of the
+ * sensors can be queried from the tests, the LCD or a telemetry link without
+ * holding the pollers. The pollers register themselves when they are created
+ * or started, under their kind and the first free number, e.g. us0, us1,
+ * light0, and unregister when they are stopped, so the registry only holds
+ * the pollers in use.
+ */
+public class MetricsRegistry {
+
+	/**
+	 * Metrics registered, in the same order as the names
+	 */
+	private static SensorMetrics[] metrics = new SensorMetrics[0];
+
+	/**
+	 * Names of the metrics registered
+	 */
+	private static String[] names = new String[0];
+
+	/**
+	 * Static class
+	 */
+	private MetricsRegistry() {
+		assert true;
+	}
+
+	/**
+	 * Finds the metrics of a poller
+	 *
+	 * @param name name given at the registration, e.g. us0
+	 * @return Metrics, null if no poller has that name
+	 */
+	public static synchronized SensorMetrics get(String name) {
+		int i = Arrays.asList(MetricsRegistry.names).indexOf(name);
+		return i < 0 ? null : MetricsRegistry.metrics[i];
+	}
+
+	/**
+	 * @return Names of the metrics registered, in order of registration
+	 */
+	public static synchronized String[] getNames() {
+		return MetricsRegistry.names.clone();
+	}
+
+	/**
+	 * Finds the index of metrics by identity
+	 *
+	 * @param m metrics
+	 * @return Index of the metrics, -1 if they are not registered
+	 */
+	private static int indexOf(SensorMetrics m) {
+		for (int i = 0; i < MetricsRegistry.metrics.length; i++)
+			if (MetricsRegistry.metrics[i] == m)
+				return i;
+		return -1;
+	}
+
+	/**
+	 * Registers the metrics of a poller, registering them again keeps their
+	 * name
+	 *
+	 * @param kind kind of the poller, e.g. us, the first free number is
+	 *            appended to it
+	 * @param m metrics of the poller
+	 * @return Name of the metrics
+	 */
+	public static synchronized String register(String kind, SensorMetrics m) {
+		assert(kind != null);
+		assert(m != null);
+		int i = indexOf(m);
+		if (i >= 0)
+			return MetricsRegistry.names[i];
+
+		int n = 0;
+		while (Arrays.asList(MetricsRegistry.names).contains(kind + n))
+			n++;
+		String name = kind + n;
+
+		int size = MetricsRegistry.names.length;
+		MetricsRegistry.names = Arrays.copyOf(MetricsRegistry.names, size + 1);
+		MetricsRegistry.metrics = Arrays.copyOf(MetricsRegistry.metrics, size + 1);
+		MetricsRegistry.names[size] = name;
+		MetricsRegistry.metrics[size] = m;
+		return name;
+	}
+
+	/**
+	 * Unregisters the metrics of a poller, nothing happens if they are not
+	 * registered
+	 *
+	 * @param m metrics of the poller
+	 */
+	public static synchronized void unregister(SensorMetrics m) {
+		int i = indexOf(m);
+		if (i < 0)
+			return;
+
+		int size = MetricsRegistry.names.length - 1;
+		System.arraycopy(MetricsRegistry.names, i + 1, MetricsRegistry.names, i, size - i);
+		System.arraycopy(MetricsRegistry.metrics, i + 1, MetricsRegistry.metrics, i, size - i);
+		MetricsRegistry.names = Arrays.copyOf(MetricsRegistry.names, size);
+		MetricsRegistry.metrics = Arrays.copyOf(MetricsRegistry.metrics, size);
+	}
+}
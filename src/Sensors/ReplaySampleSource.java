@@ -0,0 +1,240 @@
+package Sensors;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Source of samples replaying a log written by DataCollector: one sample per
+ * line, the channels separated by commas. The log is parsed when the source
+ * is created, the samples are then given one after the other with a virtual
+ * time advancing by the period of the log. Once the log is exhausted the
+ * source starts over or repeats the last sample.
+ * A binary log of a StreamingCollector is replayed with its recorded
+ * timestamps, shifted to start at 0.
+ */
+public class ReplaySampleSource implements SampleSource {
+
+	/**
+	 * Offset added to the recorded timestamps [ms]
+	 */
+	private long base = 0;
+
+	/**
+	 * Number of channels of a sample
+	 */
+	private final int channels;
+
+	/**
+	 * Flag indicating that the last sample was given once and is now repeated
+	 */
+	private boolean exhausted = false;
+
+	/**
+	 * Flag indicating that the replay starts over at the end of the log
+	 */
+	private final boolean loop;
+
+	/**
+	 * Index of the next sample
+	 */
+	private int next = 0;
+
+	/**
+	 * Time between two samples [ms]
+	 */
+	private final long period;
+
+	/**
+	 * Number of samples in the log
+	 */
+	private final int samples;
+
+	/**
+	 * Time of the next sample [ms]
+	 */
+	private long time = 0;
+
+	/**
+	 * Recorded timestamps of the samples [ms], null for a CSV log
+	 */
+	private final long[] times;
+
+	/**
+	 * Samples of the log, 'channels' floats per sample
+	 */
+	private final float[] values;
+
+	/**
+	 * Creates a source replaying a log
+	 * 
+	 * @param log reader of the log, it is read entirely but not closed
+	 * @param period time between two samples of the log [ms], the
+	 *            collectionTick given to DataCollector
+	 * @param scale factor applied to the logged values, e.g. 0.01 to replay
+	 *            the distances in [cm] logged from an UltrasonicSensor in the
+	 *            [m] of the distance mode
+	 * @param loop start over at the end of the log instead of repeating the
+	 *            last sample
+	 * @throws IOException if the log cannot be read or is malformed
+	 */
+	@SuppressWarnings("nls")
+	public ReplaySampleSource(Reader log, long period, float scale, boolean loop)
+			throws IOException {
+		assert(log != null);
+		assert(period > 0);
+		BufferedReader reader = new BufferedReader(log);
+		float[] parsed = new float[64];
+		int n = 0;
+		int width = 0;
+		int lines = 0;
+
+		String line;
+		while ((line = reader.readLine()) != null) {
+			String[] fields = line.split(",");
+			int start = n;
+			for (String f : fields) {
+				f = f.trim();
+				if (f.isEmpty())
+					continue;
+				if (n == parsed.length)
+					parsed = Arrays.copyOf(parsed, 2 * n);
+				try {
+					parsed[n++] = Float.parseFloat(f) * scale;
+				} catch (NumberFormatException e) {
+					throw new IOException("Malformed sample on line " + (lines + 1), e);
+				}
+			}
+
+			// - Skip the empty lines
+			if (n == start)
+				continue;
+			if (width == 0)
+				width = n - start;
+			else if (n - start != width)
+				throw new IOException("Wrong number of channels on line " + (lines + 1));
+			lines++;
+		}
+
+		if (lines == 0)
+			throw new IOException("Empty log");
+
+		this.channels = width;
+		this.samples = lines;
+		this.values = Arrays.copyOf(parsed, n);
+		this.times = null;
+		this.period = period;
+		this.loop = loop;
+	}
+
+	/**
+	 * Creates a source replaying a binary log with its recorded timestamps
+	 * 
+	 * @param log binary log, it must not be empty
+	 * @param scale factor applied to the logged values
+	 * @param loop start over at the end of the log instead of repeating the
+	 *            last sample
+	 */
+	public ReplaySampleSource(BinaryLog log, float scale, boolean loop) {
+		assert(log != null);
+		assert(log.getRecordCount() > 0);
+		this.channels = log.getChannelCount();
+		this.samples = log.getRecordCount();
+		this.times = new long[this.samples];
+		this.values = new float[this.samples * this.channels];
+		for (int r = 0; r < this.samples; r++) {
+			this.times[r] = log.getTime(r);
+			for (int c = 0; c < this.channels; c++)
+				this.values[r * this.channels + c] = log.getValue(r, c) * scale;
+		}
+
+		// - The mean interval of the log spaces the repeated samples and the
+		// - laps of a loop
+		long span = this.times[this.samples - 1] - this.times[0];
+		this.period = this.samples > 1 ? Math.max(1, span / (this.samples - 1)) : 1;
+		this.base = -this.times[0];
+		this.loop = loop;
+	}
+
+	/**
+	 * Creates a source replaying a log file
+	 * 
+	 * @param path path of the log
+	 * @param period time between two samples of the log [ms]
+	 * @param scale factor applied to the logged values
+	 * @param loop start over at the end of the log
+	 * @return Source replaying the file
+	 * @throws IOException if the log cannot be read or is malformed
+	 */
+	@SuppressWarnings("nls")
+	public static ReplaySampleSource fromFile(	String path, long period,
+												float scale, boolean loop)
+			throws IOException {
+		assert(path != null);
+		try (Reader reader = new InputStreamReader(new FileInputStream(path), "UTF-8")) {
+			return new ReplaySampleSource(reader, period, scale, loop);
+		}
+	}
+
+	/**
+	 * Creates a source replaying a binary log file of a StreamingCollector
+	 * 
+	 * @param path path of the log
+	 * @param scale factor applied to the logged values
+	 * @param loop start over at the end of the log
+	 * @return Source replaying the file
+	 * @throws IOException if the log cannot be read, is not a sample log or
+	 *             is empty
+	 */
+	@SuppressWarnings("nls")
+	public static ReplaySampleSource fromBinaryFile(String path, float scale,
+													boolean loop)
+			throws IOException {
+		BinaryLog log = BinaryLog.readFile(path);
+		if (log.getRecordCount() == 0)
+			throw new IOException("Empty log");
+		return new ReplaySampleSource(log, scale, loop);
+	}
+
+	/**
+	 * @see Sensors.SampleSource#fetchSample(float[], int)
+	 */
+	@Override
+	public long fetchSample(float[] sample, int offset) {
+		System.arraycopy(this.values, this.next * this.channels, sample, offset, this.channels);
+
+		long t = this.time;
+		if (this.times != null && !this.exhausted)
+			t = this.base + this.times[this.next];
+		this.time = t + this.period;
+
+		if (this.next + 1 < this.samples) {
+			this.next++;
+		} else if (this.loop) {
+			this.next = 0;
+			if (this.times != null)
+				this.base = this.time - this.times[0];
+		} else {
+			this.exhausted = true;
+		}
+		return t;
+	}
+
+	/**
+	 * @return Number of samples in the log
+	 */
+	public int getSampleCount() {
+		return this.samples;
+	}
+
+	/**
+	 * @see Sensors.SampleSource#sampleSize()
+	 */
+	@Override
+	public int sampleSize() {
+		return this.channels;
+	}
+}
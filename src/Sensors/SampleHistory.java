@@ -0,0 +1,211 @@
+package Sensors;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class keeps the last samples of a poller with their timestamps in a
+ * fixed size primitive ring. The sampling thread adds the samples and any
+ * number of readers query them without locks or allocations, e.g. to find
+ * after the fact when a signal crossed a threshold.
+ * A reader copies the samples then checks that the writer did not overwrite
+ * them meanwhile, and retries otherwise. The queries copy into caller
+ * supplied arrays, oldest sample first.
+ */
+public class SampleHistory {
+
+	/**
+	 * Default number of samples kept
+	 */
+	public static final int DEFAULT_CAPACITY = 256;
+
+	/**
+	 * Number of samples ever added
+	 */
+	private volatile long count = 0;
+
+	/**
+	 * Mask giving the slot of a sample from its sequence number
+	 */
+	private final int mask;
+
+	/**
+	 * Timestamps of the samples [ms]
+	 */
+	private final AtomicLongArray times;
+
+	/**
+	 * Values of the samples as float bits
+	 */
+	private final AtomicIntegerArray values;
+
+	/**
+	 * Creates a history of at least 'capacity' samples. The ring has a power
+	 * of two size and one slot is kept for the sample being written.
+	 *
+	 * @param capacity minimum number of samples kept
+	 */
+	public SampleHistory(int capacity) {
+		assert(capacity > 0 && capacity < (1 << 30));
+		int size = Integer.highestOneBit(capacity) << 1;
+		this.mask = size - 1;
+		this.times = new AtomicLongArray(size);
+		this.values = new AtomicIntegerArray(size);
+	}
+
+	/**
+	 * Adds a sample, must only be called by the sampling thread. The
+	 * timestamps must not decrease.
+	 *
+	 * @param timestamp time of the sample [ms]
+	 * @param value value of the sample
+	 */
+	public void add(long timestamp, float value) {
+		long c = this.count;
+		int slot = (int) c & this.mask;
+		this.times.set(slot, timestamp);
+		this.values.set(slot, Float.floatToRawIntBits(value));
+		this.count = c + 1;
+	}
+
+	/**
+	 * @return Number of samples kept
+	 */
+	public int capacity() {
+		return this.mask;
+	}
+
+	/**
+	 * Copies samples in caller supplied arrays
+	 *
+	 * @param first sequence number of the first sample
+	 * @param n number of samples
+	 * @param dstTimes destination of the timestamps, may be null
+	 * @param dstValues destination of the values, may be null
+	 */
+	private void copy(long first, int n, long[] dstTimes, float[] dstValues) {
+		for (int i = 0; i < n; i++) {
+			int slot = (int) (first + i) & this.mask;
+			if (dstTimes != null)
+				dstTimes[i] = this.times.get(slot);
+			if (dstValues != null)
+				dstValues[i] = Float.intBitsToFloat(this.values.get(slot));
+		}
+	}
+
+	/**
+	 * @return Number of samples ever added
+	 */
+	public long getWriteCount() {
+		return this.count;
+	}
+
+	/**
+	 * Copies the last samples, oldest first
+	 *
+	 * @param n maximum number of samples to copy
+	 * @param dstTimes destination of the timestamps, may be null
+	 * @param dstValues destination of the values, may be null
+	 * @return Number of samples copied
+	 */
+	public int latestN(int n, long[] dstTimes, float[] dstValues) {
+		assert(n >= 0);
+		assert(dstTimes == null || dstTimes.length >= n);
+		assert(dstValues == null || dstValues.length >= n);
+		while (true) {
+			long c = this.count;
+			int k = (int) Math.min(Math.min(n, c), this.mask);
+			copy(c - k, k, dstTimes, dstValues);
+			if (isValid(c - k))
+				return k;
+		}
+	}
+
+	/**
+	 * Checks that a sample copied by a reader was not overwritten meanwhile,
+	 * the slot of the sample being written is considered overwritten
+	 *
+	 * @param first sequence number of the oldest sample copied
+	 * @return True if the copy is valid
+	 */
+	private boolean isValid(long first) {
+		return first > this.count - this.mask - 1;
+	}
+
+	/**
+	 * Copies the samples with a timestamp greater than or equal to 't',
+	 * oldest first. When they do not fit in the arrays the latest ones are
+	 * copied.
+	 *
+	 * @param t time of the oldest sample to copy [ms]
+	 * @param dstTimes destination of the timestamps, may be null
+	 * @param dstValues destination of the values, may be null
+	 * @return Number of samples copied
+	 */
+	public int samplesSince(long t, long[] dstTimes, float[] dstValues) {
+		int max = Integer.MAX_VALUE;
+		if (dstTimes != null)
+			max = dstTimes.length;
+		if (dstValues != null)
+			max = Math.min(max, dstValues.length);
+
+		while (true) {
+			long c = this.count;
+			long oldest = Math.max(0, c - this.mask);
+
+			// - Walk back from the newest sample
+			long first = c;
+			while (first > oldest && c - first < max &&
+					this.times.get((int) (first - 1) & this.mask) >= t)
+				first--;
+
+			int k = (int) (c - first);
+			copy(first, k, dstTimes, dstValues);
+			if (isValid(first))
+				return k;
+		}
+	}
+
+	/**
+	 * Computes the value of the signal at time 't' by linear interpolation of
+	 * the samples around it. Times before the oldest sample or after the
+	 * newest one give the value of that sample.
+	 *
+	 * @param t time [ms]
+	 * @return Value at 't', NaN if there is no sample
+	 */
+	public float valueAt(long t) {
+		while (true) {
+			long c = this.count;
+			if (c == 0)
+				return Float.NaN;
+			long oldest = Math.max(0, c - this.mask);
+
+			// - Binary search of the last sample at or before t
+			long lo = oldest;
+			long hi = c - 1;
+			while (lo < hi) {
+				long mid = (lo + hi + 1) >>> 1;
+				if (this.times.get((int) mid & this.mask) <= t)
+					lo = mid;
+				else
+					hi = mid - 1;
+			}
+
+			int a = (int) lo & this.mask;
+			int b = (int) (lo + 1) & this.mask;
+			long ta = this.times.get(a);
+			float va = Float.intBitsToFloat(this.values.get(a));
+			float value = va;
+			if (lo + 1 < c && ta <= t) {
+				long tb = this.times.get(b);
+				float vb = Float.intBitsToFloat(this.values.get(b));
+				if (tb > ta)
+					value = va + (vb - va) * (t - ta) / (tb - ta);
+			}
+
+			if (isValid(oldest))
+				return value;
+		}
+	}
+}
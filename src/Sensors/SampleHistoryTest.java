@@ -0,0 +1,117 @@
+package Sensors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * SampleHistoryTest
+ */
+public class SampleHistoryTest {
+
+	/**
+	 * testConcurrentRead checks that the samples copied while the writer adds
+	 * new ones are consecutive
+	 *
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testConcurrentRead() throws InterruptedException {
+		final SampleHistory history = new SampleHistory(64);
+		final int samples = 200000;
+
+		Thread writer = new Thread() {
+			@Override
+			public void run() {
+				for (int i = 0; i < samples; i++)
+					history.add(i, i);
+			}
+		};
+		writer.start();
+
+		long[] times = new long[32];
+		float[] values = new float[32];
+		while (writer.isAlive()) {
+			int n = history.latestN(32, times, values);
+			for (int i = 0; i < n; i++) {
+				assertEquals(times[i], (long) values[i]);
+				if (i > 0)
+					assertEquals(times[i - 1] + 1, times[i]);
+			}
+		}
+		writer.join();
+
+		assertEquals(samples, history.getWriteCount());
+	}
+
+	/**
+	 * testLatestN
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testLatestN() {
+		SampleHistory history = new SampleHistory(8);
+		long[] times = new long[20];
+		float[] values = new float[20];
+
+		assertEquals(0, history.latestN(5, times, values));
+		for (int i = 0; i < 20; i++)
+			history.add(i * 5, i);
+
+		assertTrue(history.capacity() >= 8);
+		assertEquals(3, history.latestN(3, times, values));
+		assertEquals(85, times[0]);
+		assertEquals(19.f, values[2], 0.f);
+
+		// - Only the capacity is kept
+		int n = history.latestN(20, times, null);
+		assertEquals(history.capacity(), n);
+		assertEquals(95, times[n - 1]);
+	}
+
+	/**
+	 * testSamplesSince
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testSamplesSince() {
+		SampleHistory history = new SampleHistory(16);
+		for (int i = 0; i < 10; i++)
+			history.add(i * 10, i);
+
+		long[] times = new long[16];
+		float[] values = new float[16];
+		assertEquals(3, history.samplesSince(65, times, values));
+		assertEquals(70, times[0]);
+		assertEquals(9.f, values[2], 0.f);
+
+		// - The latest samples are kept when the arrays are too small
+		long[] small = new long[2];
+		assertEquals(2, history.samplesSince(0, small, null));
+		assertEquals(80, small[0]);
+
+		assertEquals(0, history.samplesSince(100, times, values));
+	}
+
+	/**
+	 * testValueAt
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testValueAt() {
+		SampleHistory history = new SampleHistory(16);
+		assertTrue(Float.isNaN(history.valueAt(0)));
+
+		history.add(100, 1.f);
+		history.add(110, 3.f);
+		history.add(120, 2.f);
+
+		assertEquals(1.f, history.valueAt(50), 0.f);
+		assertEquals(1.f, history.valueAt(100), 0.f);
+		assertEquals(2.f, history.valueAt(105), 0.000001f);
+		assertEquals(2.5f, history.valueAt(115), 0.000001f);
+		assertEquals(2.f, history.valueAt(500), 0.f);
+	}
+}
@@ -0,0 +1,18 @@
+package Sensors;
+
+/**
+ * Interface of the objects receiving every sample published by a sensor
+ * poller, e.g. a StreamingCollector
+ */
+public interface SampleSink {
+
+	/**
+	 * Called on the sampling thread with every published sample.
+	 * Implementations must copy the sample, must not block and must return
+	 * quickly.
+	 *
+	 * @param timestamp time of the sample [ms]
+	 * @param sample channels of the sample, in the units of the sensor mode
+	 */
+	public void put(long timestamp, float[] sample);
+}
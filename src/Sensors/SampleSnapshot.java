@@ -0,0 +1,114 @@
+package Sensors;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * This class publishes the last sample of a poller to any number of readers
+ * without locks or allocations. It is a sequence lock: the single writer makes
+ * the sequence odd while it copies a sample and even when it is done, a reader
+ * retries until it copied a whole sample under the same even sequence. The
+ * sampling thread is never blocked by the readers.
+ * The channels are stored as float bits in an AtomicIntegerArray so every
+ * access is ordered with respect to the sequence.
+ */
+public class SampleSnapshot {
+
+	/**
+	 * Channels of the last sample as float bits
+	 */
+	private final AtomicIntegerArray bits;
+
+	/**
+	 * Sequence number, odd while a sample is written
+	 */
+	private volatile int sequence = 0;
+
+	/**
+	 * Time of the last sample [ms]
+	 */
+	private volatile long timestamp = 0;
+
+	/**
+	 * Creates a snapshot of 'channels' floats initialized to 0
+	 *
+	 * @param channels number of channels of a sample
+	 */
+	public SampleSnapshot(int channels) {
+		assert(channels > 0);
+		this.bits = new AtomicIntegerArray(channels);
+	}
+
+	/**
+	 * Reads one channel of the last sample, a single channel is always
+	 * consistent so it needs no retry
+	 *
+	 * @param channel index of the channel
+	 * @return Value of the channel
+	 */
+	public float get(int channel) {
+		return Float.intBitsToFloat(this.bits.get(channel));
+	}
+
+	/**
+	 * @return Number of channels of a sample
+	 */
+	public int getChannelCount() {
+		return this.bits.length();
+	}
+
+	/**
+	 * @return Number of samples published so far
+	 */
+	public int getPublishCount() {
+		return this.sequence >>> 1;
+	}
+
+	/**
+	 * @return Time of the last sample [ms]
+	 */
+	public long getTimestamp() {
+		return this.timestamp;
+	}
+
+	/**
+	 * Publishes a sample, must only be called by the sampling thread
+	 *
+	 * @param src sample, at least getChannelCount() floats
+	 * @param time time of the sample [ms]
+	 */
+	public void publish(float[] src, long time) {
+		assert(src != null && src.length >= this.bits.length());
+		int s = this.sequence;
+		this.sequence = s + 1;
+		for (int i = 0; i < this.bits.length(); i++)
+			this.bits.set(i, Float.floatToRawIntBits(src[i]));
+		this.timestamp = time;
+		this.sequence = s + 2;
+	}
+
+	/**
+	 * Copies the last sample in a caller supplied array
+	 *
+	 * @param dst destination of the channels
+	 * @param offset index of the first channel in 'dst'
+	 * @return Time of the sample [ms]
+	 */
+	public long read(float[] dst, int offset) {
+		assert(dst != null && dst.length >= offset + this.bits.length());
+		while (true) {
+			int s = this.sequence;
+			// - A sample is being written
+			if ((s & 1) != 0) {
+				Thread.yield();
+				continue;
+			}
+
+			for (int i = 0; i < this.bits.length(); i++)
+				dst[offset + i] = Float.intBitsToFloat(this.bits.get(i));
+			long time = this.timestamp;
+
+			if (this.sequence == s)
+				return time;
+		}
+	}
+}
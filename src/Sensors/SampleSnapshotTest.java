@@ -0,0 +1,49 @@
+package Sensors;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * SampleSnapshotTest
+ */
+public class SampleSnapshotTest {
+
+	/**
+	 * testConcurrentRead checks that a reader never sees a torn sample while
+	 * the writer publishes
+	 *
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testConcurrentRead() throws InterruptedException {
+		final SampleSnapshot snapshot = new SampleSnapshot(4);
+		final int samples = 200000;
+
+		Thread writer = new Thread() {
+			@Override
+			public void run() {
+				float[] sample = new float[4];
+				for (int i = 1; i <= samples; i++) {
+					for (int c = 0; c < sample.length; c++)
+						sample[c] = i;
+					snapshot.publish(sample, i);
+				}
+			}
+		};
+		writer.start();
+
+		float[] dst = new float[5];
+		while (writer.isAlive()) {
+			long time = snapshot.read(dst, 1);
+			for (int c = 1; c < dst.length; c++)
+				assertEquals(time, (long) dst[c]);
+		}
+		writer.join();
+
+		assertEquals(samples, snapshot.getPublishCount());
+		assertEquals(samples, snapshot.getTimestamp());
+		assertEquals(samples, snapshot.get(3), 0.f);
+	}
+}
@@ -0,0 +1,26 @@
+package Sensors;
+
+/**
+ * Interface of the sources of samples read by the pollers. It hides the
+ * hardware so the sensor, filter and localization stack can run on the EV3
+ * with an EV3SampleSource or headless with a ReplaySampleSource or a
+ * SyntheticSampleSource. Headless sources give their own time, so a poller
+ * constructed without autostart can be driven faster than real time by
+ * calling its timedOut method.
+ */
+public interface SampleSource {
+
+	/**
+	 * Fetches the next sample
+	 * 
+	 * @param sample destination of the sample
+	 * @param offset index of the first channel in 'sample'
+	 * @return Time of the sample [ms]
+	 */
+	public long fetchSample(float[] sample, int offset);
+
+	/**
+	 * @return Number of channels of a sample
+	 */
+	public int sampleSize();
+}
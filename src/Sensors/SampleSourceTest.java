@@ -0,0 +1,107 @@
+package Sensors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.Test;
+
+import Filters.EdgeDetector;
+import Filters.FilterChain;
+
+/**
+ * SampleSourceTest
+ */
+public class SampleSourceTest {
+
+	/**
+	 * testLightSensorOnSyntheticLines runs the light sensor and an edge
+	 * detector headless, faster than real time
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testLightSensorOnSyntheticLines() {
+		// - A 50 ms line every second on a 0.5 floor
+		SyntheticSampleSource lines = new SyntheticSampleSource(LightSensor.TICK_RATE).offset(0.5f)
+																						.square(-0.3f, 1000, 0.05f)
+																						.noise(0.01f, 3);
+		LightSensor ls = new LightSensor(lines, false, false, new FilterChain());
+		EdgeDetector ed = EdgeDetector.withHysteresis(0.35f, 0.05f, 2, null);
+		ls.setEdgeDetector(ed);
+
+		for (int i = 0; i < 2000; i++)
+			ls.timedOut();
+
+		// - Ten lines, the first sample is on the first line so it is only
+		// - left, the last edge is the end of the last line
+		assertEquals(19, ed.getEdgeCount());
+		assertEquals(9050, ed.getLastEdgeTime());
+		assertEquals(2000, ls.getHistory().getWriteCount());
+		assertEquals(9995, ls.readSample(new float[1], 0));
+	}
+
+	/**
+	 * testMalformedLog
+	 */
+	@SuppressWarnings({ "static-method", "nls", "unused" })
+	@Test
+	public void testMalformedLog() {
+		try {
+			new ReplaySampleSource(new StringReader("1, 2, \n3, \n"), 40, 1.f, false);
+			fail();
+		} catch (IOException e) {
+			assertEquals("Wrong number of channels on line 2", e.getMessage());
+		}
+	}
+
+	/**
+	 * testMissingSample checks that a missing distance does not fire a
+	 * trigger as if the wall were at 0 cm
+	 *
+	 * @throws IOException if the log cannot be parsed
+	 */
+	@SuppressWarnings({ "static-method", "nls" })
+	@Test
+	public void testMissingSample() throws IOException {
+		ReplaySampleSource log = new ReplaySampleSource(new StringReader("50, \nNaN, \n20, \n"), 40, 0.01f,
+														false);
+		UltrasonicSensor us = new UltrasonicSensor(log, false, false, new FilterChain());
+		SampleTrigger wall = SampleTrigger.fallsBelow(30);
+		us.addTrigger(wall);
+
+		us.timedOut();
+		us.timedOut();
+		assertEquals(0, wall.getFireCount());
+		us.timedOut();
+		assertEquals(1, wall.getFireCount());
+	}
+
+	/**
+	 * testReplay replays an ultrasonic log written by DataCollector, the
+	 * distances are exact in [m] so they are not truncated back in [cm]
+	 *
+	 * @throws IOException if the log cannot be parsed
+	 */
+	@SuppressWarnings({ "static-method", "nls" })
+	@Test
+	public void testReplay() throws IOException {
+		ReplaySampleSource log = new ReplaySampleSource(new StringReader("25, \n50, \n\n200, \n75, \n"), 40, 0.01f,
+														false);
+		UltrasonicSensor us = new UltrasonicSensor(log, false, true, new FilterChain().addMedian(3));
+
+		assertEquals(4, log.getSampleCount());
+		assertEquals(1, log.sampleSize());
+
+		int[] expected = { 25, 37, 50, 75, 75, 75 };
+		for (int i = 0; i < expected.length; i++) {
+			us.timedOut();
+			assertEquals(expected[i], us.getDistanceCm());
+		}
+
+		// - The last sample is repeated with a virtual time
+		float[] sample = new float[1];
+		assertEquals(200, us.readSample(sample, 0));
+	}
+}
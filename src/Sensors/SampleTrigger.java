@@ -0,0 +1,255 @@
+package Sensors;
+
+/**
+ * Condition on the samples of a sensor, evaluated by the sampling thread at
+ * the full rate of the sensor. When the condition becomes true the trigger
+ * fires: its listener is called and the threads waiting on it are woken up,
+ * so a consumer sleeps until something happens instead of polling the sensor
+ * in a loop, e.g.:
+ * SampleTrigger wall = SampleTrigger.fallsBelow(30);
+ * usSensor.addTrigger(wall);
+ * wall.await(0);
+ * usSensor.removeTrigger(wall);
+ * The thresholds are in the units of the primitive getter of the sensor,
+ * e.g. centimeters for UltrasonicSensor.getDistanceCm.
+ * The conditions are edge triggered: a threshold trigger fires when the
+ * samples cross the threshold, and fires at its first sample if the
+ * condition already holds. It fires again only after the samples went back.
+ */
+public class SampleTrigger {
+
+	/**
+	 * Conditions supported by the triggers
+	 */
+	private enum Condition {
+		/**
+		 * The sample changed by more than the threshold since the last firing
+		 */
+		CHANGES_BY,
+		/**
+		 * The sample went below the threshold
+		 */
+		FALLS_BELOW,
+		/**
+		 * The sample went above the threshold
+		 */
+		RISES_ABOVE
+	}
+
+	/**
+	 * Flag indicating that the condition held at the last sample
+	 */
+	private volatile boolean active = false;
+
+	/**
+	 * Condition of the trigger
+	 */
+	private final Condition condition;
+
+	/**
+	 * Number of times the trigger fired
+	 */
+	private volatile long fireCount = 0;
+
+	/**
+	 * Flag indicating that a sample was evaluated, only used by the sampling
+	 * thread
+	 */
+	private boolean initialized = false;
+
+	/**
+	 * Time of the sample that last fired the trigger [ms]
+	 */
+	private volatile long lastTimestamp = 0;
+
+	/**
+	 * Sample that last fired the trigger
+	 */
+	private volatile float lastValue = Float.NaN;
+
+	/**
+	 * Listener called when the trigger fires, may be null
+	 */
+	private volatile TriggerListener listener = null;
+
+	/**
+	 * Lock object the waiting threads wait on
+	 */
+	private final Object lock = new Object();
+
+	/**
+	 * Sample the changes are measured from, only used by the sampling thread
+	 */
+	private float reference = 0.f;
+
+	/**
+	 * Threshold of the condition, or the minimal change
+	 */
+	private final float threshold;
+
+	/**
+	 * Creates a trigger
+	 *
+	 * @param condition condition of the trigger
+	 * @param threshold threshold of the condition, or the minimal change
+	 */
+	private SampleTrigger(Condition condition, float threshold) {
+		this.condition = condition;
+		this.threshold = threshold;
+	}
+
+	/**
+	 * Creates a trigger firing when the sample changed by more than delta since
+	 * the last firing, or since the first sample
+	 *
+	 * @param delta minimal change, positive
+	 * @return New trigger
+	 */
+	public static SampleTrigger changesBy(float delta) {
+		assert(delta > 0.f);
+		return new SampleTrigger(Condition.CHANGES_BY, delta);
+	}
+
+	/**
+	 * Creates a trigger firing when the sample goes below a threshold
+	 *
+	 * @param threshold the trigger fires on samples strictly below it
+	 * @return New trigger
+	 */
+	public static SampleTrigger fallsBelow(float threshold) {
+		return new SampleTrigger(Condition.FALLS_BELOW, threshold);
+	}
+
+	/**
+	 * Creates a trigger firing when the sample goes above a threshold
+	 *
+	 * @param threshold the trigger fires on samples strictly above it
+	 * @return New trigger
+	 */
+	public static SampleTrigger risesAbove(float threshold) {
+		return new SampleTrigger(Condition.RISES_ABOVE, threshold);
+	}
+
+	/**
+	 * Waits until the trigger has fired at least once
+	 *
+	 * @param timeout maximal waiting time [ms], 0 to wait forever
+	 * @return True if the trigger has fired, false on a timeout or an
+	 *         interruption
+	 */
+	public boolean await(long timeout) {
+		assert(timeout >= 0);
+		long deadline = System.currentTimeMillis() + timeout;
+		synchronized (this.lock) {
+			while (this.fireCount == 0) {
+				long wait = 0;
+				if (timeout > 0) {
+					wait = deadline - System.currentTimeMillis();
+					if (wait <= 0)
+						return false;
+				}
+				try {
+					this.lock.wait(wait);
+				} catch (@SuppressWarnings("unused") InterruptedException e) {
+					return this.fireCount != 0;
+				}
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Evaluates the condition on a new sample and fires the trigger if needed,
+	 * called by the sampling thread. It does not allocate and only takes a lock
+	 * when the trigger fires.
+	 *
+	 * @param value new sample
+	 * @param timestamp time of the sample [ms]
+	 * @return True if the trigger fired
+	 */
+	public boolean evaluate(float value, long timestamp) {
+		// - A missing sample neither fires nor re-arms the trigger
+		if (Float.isNaN(value))
+			return false;
+
+		boolean fire;
+		switch (this.condition) {
+			case FALLS_BELOW:
+			case RISES_ABOVE: {
+				boolean holds = this.condition == Condition.FALLS_BELOW	? value < this.threshold
+																		: value > this.threshold;
+				fire = holds && !this.active;
+				this.active = holds;
+				break;
+			}
+			default: {
+				if (!this.initialized) {
+					this.reference = value;
+					fire = false;
+				} else {
+					fire = Math.abs(value - this.reference) > this.threshold;
+					if (fire)
+						this.reference = value;
+				}
+				this.active = fire;
+				break;
+			}
+		}
+		this.initialized = true;
+
+		if (fire) {
+			this.lastTimestamp = timestamp;
+			this.lastValue = value;
+
+			TriggerListener l = this.listener;
+			if (l != null)
+				l.triggered(this, timestamp, value);
+
+			synchronized (this.lock) {
+				this.fireCount++;
+				this.lock.notifyAll();
+			}
+		}
+		return fire;
+	}
+
+	/**
+	 * @return Number of times the trigger fired
+	 */
+	public long getFireCount() {
+		return this.fireCount;
+	}
+
+	/**
+	 * @return Time of the sample that last fired the trigger [ms]
+	 */
+	public long getLastTimestamp() {
+		return this.lastTimestamp;
+	}
+
+	/**
+	 * @return Sample that last fired the trigger, NaN if it never fired
+	 */
+	public float getLastValue() {
+		return this.lastValue;
+	}
+
+	/**
+	 * @return True if the condition held at the last sample, for the change
+	 *         triggers true if the last sample fired the trigger
+	 */
+	public boolean isActive() {
+		return this.active;
+	}
+
+	/**
+	 * Sets the listener called on the sampling thread when the trigger fires
+	 *
+	 * @param l listener, null to remove it
+	 * @return This trigger
+	 */
+	public SampleTrigger setListener(TriggerListener l) {
+		this.listener = l;
+		return this;
+	}
+}
@@ -0,0 +1,114 @@
+package Sensors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import Filters.FilterChain;
+
+/**
+ * SampleTriggerTest
+ */
+public class SampleTriggerTest {
+
+	/**
+	 * testAwait wakes up a waiting thread from another thread
+	 * 
+	 * @throws InterruptedException
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testAwait() throws InterruptedException {
+		final SampleTrigger t = SampleTrigger.risesAbove(1.f);
+		assertFalse(t.await(10));
+
+		Thread sampler = new Thread() {
+			@Override
+			public void run() {
+				for (int i = 0; i < 5; i++) {
+					try {
+						Thread.sleep(10);
+					} catch (@SuppressWarnings("unused") InterruptedException e) {
+						return;
+					}
+					t.evaluate(i, i);
+				}
+			}
+		};
+		sampler.start();
+		assertTrue(t.await(0));
+		assertEquals(2, t.getLastTimestamp());
+		sampler.join();
+	}
+
+	/**
+	 * testChangesBy
+	 */
+	@SuppressWarnings({ "static-method", "boxing", "nls" })
+	@Test
+	public void testChangesBy() {
+		SampleTrigger t = SampleTrigger.changesBy(1.f);
+		float[] samples = { 5.f, 5.5f, 6.5f, 6.f, 5.4f, 5.f, 3.f, Float.NaN, 3.5f };
+		boolean[] fired = { false, false, true, false, true, false, true, false, false };
+
+		for (int i = 0; i < samples.length; i++)
+			assertEquals("sample " + i, fired[i], t.evaluate(samples[i], i));
+		assertEquals(3, t.getFireCount());
+		assertEquals(3.f, t.getLastValue(), 0.f);
+	}
+
+	/**
+	 * testFallsBelow checks that the trigger fires once per crossing and at
+	 * the first sample when the condition already holds
+	 */
+	@SuppressWarnings({ "static-method", "boxing", "nls" })
+	@Test
+	public void testFallsBelow() {
+		SampleTrigger t = SampleTrigger.fallsBelow(30.f);
+		float[] samples = { 20.f, 25.f, 40.f, 30.f, 29.f, 10.f, 50.f };
+		boolean[] fired = { true, false, false, false, true, false, false };
+
+		for (int i = 0; i < samples.length; i++)
+			assertEquals("sample " + i, fired[i], t.evaluate(samples[i], i));
+		assertEquals(2, t.getFireCount());
+		assertEquals(4, t.getLastTimestamp());
+		assertFalse(t.isActive());
+		assertTrue(t.await(0));
+	}
+
+	/**
+	 * testListener registers triggers on an ultrasonic sensor fed with a
+	 * synthetic wall, the thresholds are in [cm]
+	 */
+	@SuppressWarnings({ "static-method", "unused" })
+	@Test
+	public void testListener() {
+		// - A wall 10 cm away for 25% of every second, 60 cm otherwise
+		SyntheticSampleSource walls = new SyntheticSampleSource(UltrasonicSensor.TICK_RATE).offset(0.6f)
+																							.square(-0.5f, 1000, 0.25f);
+		UltrasonicSensor us = new UltrasonicSensor(walls, false, false, new FilterChain());
+
+		final long[] calls = new long[2];
+		SampleTrigger wall = SampleTrigger.fallsBelow(30).setListener(new TriggerListener() {
+			@Override
+			public void triggered(SampleTrigger trigger, long timestamp, float value) {
+				calls[0]++;
+				calls[1] = timestamp;
+			}
+		});
+		SampleTrigger removed = SampleTrigger.risesAbove(30);
+		us.addTrigger(wall);
+		us.addTrigger(removed);
+		us.removeTrigger(removed);
+
+		for (int i = 0; i < 100; i++)
+			us.timedOut();
+
+		assertEquals(4, calls[0]);
+		assertEquals(3000, calls[1]);
+		assertEquals(4, wall.getFireCount());
+		assertEquals(0, removed.getFireCount());
+	}
+}
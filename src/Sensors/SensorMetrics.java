@@ -0,0 +1,224 @@
+package Sensors;
+
+/**
+ * Health of a sensor poller: how old its last sample is, the rate it
+ * achieves, the jitter of its ticks, the ticks it missed and the time it
+ * spends fetching a sample. The poller records every tick on the sampling
+ * thread, the metrics are read from any thread, e.g. through the
+ * MetricsRegistry. The times are taken on the monotonic clock, independently
+ * of the timestamps of the samples.
+ * A tick is missed when the interval since the previous one spans several
+ * periods, e.g. when the scheduler is held by a blocking task. The poller
+ * calls restart when it starts again so that the time it was stopped is
+ * neither missed ticks nor jitter.
+ */
+public class SensorMetrics {
+
+	/**
+	 * Window over which the achieved rate is measured [ns]
+	 */
+	private static final long RATE_WINDOW = 1000000000L;
+
+	/**
+	 * Sum of the fetch times [ns]
+	 */
+	private volatile long fetchSum = 0;
+
+	/**
+	 * Number of intervals measured
+	 */
+	private volatile long intervals = 0;
+
+	/**
+	 * Sum of the deviations of the intervals from the period [ns]
+	 */
+	private volatile long jitterSum = 0;
+
+	/**
+	 * End of the last fetch [ns]
+	 */
+	private volatile long lastEnd = 0;
+
+	/**
+	 * Start of the last fetch [ns]
+	 */
+	private long lastStart = 0;
+
+	/**
+	 * Longest fetch [ns]
+	 */
+	private volatile long maxFetch = 0;
+
+	/**
+	 * Largest deviation of an interval from the period [ns]
+	 */
+	private volatile long maxJitter = 0;
+
+	/**
+	 * Number of missed ticks
+	 */
+	private volatile long missed = 0;
+
+	/**
+	 * Rate achieved over the last complete window [Hz]
+	 */
+	private volatile float rate = 0.f;
+
+	/**
+	 * Number of samples fetched
+	 */
+	private volatile long samples = 0;
+
+	/**
+	 * Whether the next tick follows a recorded one, false before the first
+	 * tick and after a restart
+	 */
+	private volatile boolean ticking = false;
+
+	/**
+	 * Number of samples fetched in the current window
+	 */
+	private long windowSamples = 0;
+
+	/**
+	 * Start of the current window [ns]
+	 */
+	private long windowStart = 0;
+
+	/**
+	 * @return Mean time spent fetching a sample [ns]
+	 */
+	public long getMeanFetchTime() {
+		long n = this.samples;
+		return n == 0 ? 0 : this.fetchSum / n;
+	}
+
+	/**
+	 * @return Mean deviation of the intervals between two ticks from the
+	 *         period [ns]
+	 */
+	public long getMeanJitter() {
+		long n = this.intervals;
+		return n == 0 ? 0 : this.jitterSum / n;
+	}
+
+	/**
+	 * @return Longest time spent fetching a sample [ns]
+	 */
+	public long getMaxFetchTime() {
+		return this.maxFetch;
+	}
+
+	/**
+	 * @return Largest deviation of an interval between two ticks from the
+	 *         period [ns]
+	 */
+	public long getMaxJitter() {
+		return this.maxJitter;
+	}
+
+	/**
+	 * @return Number of ticks missed
+	 */
+	public long getMissedTicks() {
+		return this.missed;
+	}
+
+	/**
+	 * @return Rate achieved over the last second [Hz], 0 before the first
+	 *         second
+	 */
+	public float getRate() {
+		return this.rate;
+	}
+
+	/**
+	 * @return Time since the last sample was fetched [ms], -1 if no sample
+	 *         was fetched
+	 */
+	public long getSampleAge() {
+		return getSampleAge(System.nanoTime());
+	}
+
+	/**
+	 * @param now current time on the monotonic clock [ns]
+	 * @return Time since the last sample was fetched [ms], -1 if no sample
+	 *         was fetched
+	 */
+	public long getSampleAge(long now) {
+		if (this.samples == 0)
+			return -1;
+		return (now - this.lastEnd) / 1000000L;
+	}
+
+	/**
+	 * @return Number of samples fetched
+	 */
+	public long getSampleCount() {
+		return this.samples;
+	}
+
+	/**
+	 * Records a tick, called by the sampling thread
+	 *
+	 * @param start start of the fetch on the monotonic clock [ns]
+	 * @param end end of the fetch on the monotonic clock [ns]
+	 * @param period period of the poller at that tick [ms]
+	 */
+	public void record(long start, long end, int period) {
+		assert(period > 0);
+		long periodNs = period * 1000000L;
+
+		if (this.ticking) {
+			long interval = start - this.lastStart;
+			long deviation = Math.abs(interval - periodNs);
+			this.jitterSum += deviation;
+			this.intervals++;
+			if (deviation > this.maxJitter)
+				this.maxJitter = deviation;
+			// - The interval rounded to a number of periods
+			long periods = (interval + periodNs / 2) / periodNs;
+			if (periods > 1)
+				this.missed += periods - 1;
+		} else {
+			this.windowStart = start;
+			this.windowSamples = 0;
+		}
+
+		long fetch = end - start;
+		this.fetchSum += fetch;
+		if (fetch > this.maxFetch)
+			this.maxFetch = fetch;
+
+		this.windowSamples++;
+		if (start - this.windowStart >= RATE_WINDOW) {
+			this.rate = (this.windowSamples - 1) * 1e9f / (start - this.windowStart);
+			this.windowStart = start;
+			this.windowSamples = 1;
+		}
+
+		this.lastStart = start;
+		this.lastEnd = end;
+		this.samples++;
+		this.ticking = true;
+	}
+
+	/**
+	 * Marks a restart of the poller, the next tick starts a new series of
+	 * intervals and a new rate window, the totals are kept
+	 */
+	public void restart() {
+		this.ticking = false;
+	}
+
+	/**
+	 * @return Short description for the LCD, e.g. "25Hz a3 m0": the rate, the
+	 *         age [ms] and the missed ticks
+	 */
+	@SuppressWarnings("nls")
+	@Override
+	public String toString() {
+		return Math.round(getRate()) + "Hz a" + getSampleAge() + " m" +
+				getMissedTicks();
+	}
+}
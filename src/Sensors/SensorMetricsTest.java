@@ -0,0 +1,106 @@
+package Sensors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import Filters.FilterChain;
+
+/**
+ * SensorMetricsTest
+ */
+public class SensorMetricsTest {
+
+	/**
+	 * testRegistry finds the metrics of a started poller by name
+	 */
+	@SuppressWarnings({ "static-method", "nls" })
+	@Test
+	public void testRegistry() {
+		int before = MetricsRegistry.getNames().length;
+		UltrasonicSensor us = new UltrasonicSensor(new SyntheticSampleSource(40), false, false,
+													new FilterChain());
+
+		// - A poller that is not started is not registered
+		assertEquals(before, MetricsRegistry.getNames().length);
+		us.start();
+		String[] names = MetricsRegistry.getNames();
+		assertEquals(before + 1, names.length);
+		assertTrue(names[before].startsWith("us"));
+		assertTrue(us.getMetrics() == MetricsRegistry.get(names[before]));
+
+		long samples = us.getMetrics().getSampleCount();
+		for (int i = 0; i < 10; i++)
+			us.timedOut();
+		assertTrue(MetricsRegistry.get(names[before]).getSampleCount() >= samples + 10);
+		assertTrue(MetricsRegistry.get("none") == null);
+
+		// - A stopped poller leaves the registry, registering twice keeps
+		// - one entry
+		us.stop();
+		assertEquals(before, MetricsRegistry.getNames().length);
+		assertTrue(MetricsRegistry.get(names[before]) == null);
+		String name = MetricsRegistry.register("us", us.getMetrics());
+		assertEquals(name, MetricsRegistry.register("us", us.getMetrics()));
+		assertEquals(before + 1, MetricsRegistry.getNames().length);
+		MetricsRegistry.unregister(us.getMetrics());
+		assertEquals(before, MetricsRegistry.getNames().length);
+	}
+
+	/**
+	 * testRestart checks that the time a 5 ms poller was stopped is neither
+	 * missed ticks nor jitter
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testRestart() {
+		SensorMetrics m = new SensorMetrics();
+		long ms = 1000000L;
+		long t = 0;
+		for (int i = 0; i < 10; i++, t += 5 * ms)
+			m.record(t, t + ms / 10, 5);
+
+		// - Stopped for 2 s
+		m.restart();
+		t += 2000 * ms;
+		for (int i = 0; i < 10; i++, t += 5 * ms)
+			m.record(t, t + ms / 10, 5);
+
+		assertEquals(20, m.getSampleCount());
+		assertEquals(0, m.getMissedTicks());
+		assertEquals(0, m.getMaxJitter());
+		assertEquals(0, m.getMeanJitter());
+	}
+
+	/**
+	 * testStall replays the ticks of a 5 ms poller held for 23 ms by a
+	 * blocking task
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testStall() {
+		SensorMetrics m = new SensorMetrics();
+		assertEquals(-1, m.getSampleAge(0));
+
+		long ms = 1000000L;
+		long t = 0;
+		for (int i = 0; i < 100; i++, t += 5 * ms)
+			m.record(t, t + ms / 10, 5);
+		// - Stalled, then a slow fetch
+		t += 18 * ms;
+		m.record(t, t + 2 * ms, 5);
+		for (int i = 0; i < 200; i++) {
+			t += 5 * ms;
+			m.record(t, t + ms / 10, 5);
+		}
+
+		assertEquals(301, m.getSampleCount());
+		assertEquals(4, m.getMissedTicks());
+		assertEquals(18 * ms, m.getMaxJitter());
+		assertEquals(2 * ms, m.getMaxFetchTime());
+		assertEquals(18 * ms / 300, m.getMeanJitter());
+		assertEquals(200.f, m.getRate(), 5.f);
+		assertEquals(7, m.getSampleAge(t + ms / 10 + 7 * ms));
+	}
+}
@@ -0,0 +1,312 @@
+package Sensors;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Collector writing the samples of a sensor to a binary log, see BinaryLog
+ * for the format. The sampling thread only copies each sample into a
+ * preallocated ring, it never blocks nor allocates: when the ring is full the
+ * sample is dropped and counted. A low priority writer thread drains the ring
+ * into a direct buffer written to the file when full, so the flash is
+ * accessed in large blocks and the capture runs at the full rate of the
+ * sensor without perturbing the control threads.
+ * The ring has a single producer: a collector receives the samples of one
+ * poller, e.g. provider.setSampleSink(collector). The log is converted to CSV
+ * with BinaryLogConverter and replayed with ReplaySampleSource.fromBinaryFile.
+ */
+public class StreamingCollector implements SampleSink, AutoCloseable {
+
+	/**
+	 * Size of the write buffer [bytes]
+	 */
+	private static final int BUFFER_SIZE = 16384;
+
+	/**
+	 * Default number of samples of the ring
+	 */
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	/**
+	 * Maximal time the records stay in the write buffer [ms]
+	 */
+	private static final int FLUSH_PERIOD = 1000;
+
+	/**
+	 * Sleep time of the writer thread between two drains [ms]
+	 */
+	private static final int WRITER_PERIOD = 20;
+
+	/**
+	 * Write buffer, only used by the writer thread
+	 */
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+	/**
+	 * Number of channels of a sample
+	 */
+	private final int channels;
+
+	/**
+	 * Number of samples dropped because the ring was full, written by the
+	 * sampling thread
+	 */
+	private volatile long drops = 0;
+
+	/**
+	 * Error of the writer thread, null while the writes succeed
+	 */
+	private volatile IOException error = null;
+
+	/**
+	 * File written by the writer thread
+	 */
+	private final FileChannel file;
+
+	/**
+	 * Number of samples put in the ring, written by the sampling thread
+	 */
+	private volatile long head = 0;
+
+	/**
+	 * Index mask of the ring, its size minus one
+	 */
+	private final int mask;
+
+	/**
+	 * Flag indicating that the collector accepts samples
+	 */
+	private volatile boolean open = true;
+
+	/**
+	 * Flag indicating that the sampling thread is in put, so close waits for
+	 * the sample being copied before the last drain
+	 */
+	private volatile boolean putting = false;
+
+	/**
+	 * Number of samples taken from the ring, written by the writer thread
+	 */
+	private volatile long tail = 0;
+
+	/**
+	 * Timestamps of the samples of the ring [ms]
+	 */
+	private final long[] times;
+
+	/**
+	 * Channels of the samples of the ring, 'channels' floats per sample
+	 */
+	private final float[] values;
+
+	/**
+	 * Writer thread
+	 */
+	private final Thread writer;
+
+	/**
+	 * Flag indicating that the writer thread drains the ring periodically
+	 */
+	private volatile boolean writing = true;
+
+	/**
+	 * Creates the log file, writes its header and starts the writer thread
+	 *
+	 * @param path path of the log
+	 * @param channels number of channels of a sample
+	 * @param capacity minimal number of samples of the ring, rounded up to a
+	 *            power of two
+	 * @throws IOException if the file cannot be created
+	 */
+	@SuppressWarnings({ "nls", "resource" })
+	public StreamingCollector(String path, int channels, int capacity)
+			throws IOException {
+		assert(path != null);
+		assert(channels > 0);
+		assert(capacity > 0);
+		assert(BinaryLog.recordSize(channels) <= BUFFER_SIZE);
+
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity)
+			size <<= 1;
+		this.mask = size - 1;
+		this.channels = channels;
+		this.times = new long[size];
+		this.values = new float[size * channels];
+
+		this.file = new FileOutputStream(path).getChannel();
+		this.buffer.putInt(BinaryLog.MAGIC);
+		this.buffer.putInt(BinaryLog.VERSION);
+		this.buffer.putInt(channels);
+
+		this.writer = new Thread("collector") {
+			@Override
+			public void run() {
+				writeRecords();
+			}
+		};
+		this.writer.setDaemon(true);
+		this.writer.setPriority(Thread.MIN_PRIORITY);
+		this.writer.start();
+	}
+
+	/**
+	 * Waits until a number of samples were collected
+	 *
+	 * @param count number of samples
+	 * @param timeout maximal waiting time [ms], 0 to wait forever
+	 * @return True if the samples were collected, false on a timeout, an
+	 *         interruption or an error of the writer
+	 */
+	public boolean awaitSamples(long count, long timeout) {
+		long deadline = System.currentTimeMillis() + timeout;
+		while (this.head + this.drops < count) {
+			if (this.error != null)
+				return false;
+			if (timeout > 0 && System.currentTimeMillis() >= deadline)
+				return false;
+			try {
+				Thread.sleep(WRITER_PERIOD);
+			} catch (@SuppressWarnings("unused") InterruptedException e) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Stops accepting samples, writes the collected ones and closes the file
+	 *
+	 * @throws IOException if a write failed
+	 */
+	@Override
+	public void close() throws IOException {
+		// - A put that saw the collector open publishes its sample before the
+		// - writer stops, a later put sees it closed
+		this.open = false;
+		while (this.putting)
+			Thread.yield();
+		this.writing = false;
+		try {
+			this.writer.join();
+		} catch (@SuppressWarnings("unused") InterruptedException e) {
+			assert true;
+		}
+		if (this.error != null)
+			throw this.error;
+	}
+
+	/**
+	 * Takes the samples of the ring into the write buffer, called by the
+	 * writer thread
+	 *
+	 * @throws IOException if a write failed
+	 */
+	private void drain() throws IOException {
+		int size = BinaryLog.recordSize(this.channels);
+		long t = this.tail;
+		long h = this.head;
+		while (t < h) {
+			if (this.buffer.remaining() < size)
+				flushBuffer();
+
+			int slot = (int) (t & this.mask);
+			this.buffer.putLong(this.times[slot]);
+			for (int c = 0; c < this.channels; c++)
+				this.buffer.putFloat(this.values[slot * this.channels + c]);
+			t++;
+		}
+		// - Frees the slots for the sampling thread
+		this.tail = t;
+	}
+
+	/**
+	 * Writes the write buffer to the file, called by the writer thread
+	 *
+	 * @throws IOException if a write failed
+	 */
+	private void flushBuffer() throws IOException {
+		this.buffer.flip();
+		while (this.buffer.hasRemaining())
+			this.file.write(this.buffer);
+		this.buffer.clear();
+	}
+
+	/**
+	 * @return Number of samples dropped because the ring was full
+	 */
+	public long getDropCount() {
+		return this.drops;
+	}
+
+	/**
+	 * @return Number of samples accepted in the ring
+	 */
+	public long getSampleCount() {
+		return this.head;
+	}
+
+	/**
+	 * Copies a sample into the ring, or drops it if the ring is full. It is
+	 * called by a single sampling thread.
+	 *
+	 * @see Sensors.SampleSink#put(long, float[])
+	 */
+	@Override
+	public void put(long timestamp, float[] sample) {
+		this.putting = true;
+		try {
+			if (!this.open || this.error != null)
+				return;
+
+			long h = this.head;
+			if (h - this.tail > this.mask) {
+				this.drops++;
+				return;
+			}
+			int slot = (int) (h & this.mask);
+			this.times[slot] = timestamp;
+			System.arraycopy(sample, 0, this.values, slot * this.channels, this.channels);
+			// - Publishes the sample to the writer thread
+			this.head = h + 1;
+		} finally {
+			this.putting = false;
+		}
+	}
+
+	/**
+	 * Drains the ring until the collector is closed, then writes the remaining
+	 * samples and closes the file. Runs on the writer thread.
+	 */
+	void writeRecords() {
+		try {
+			long lastFlush = System.currentTimeMillis();
+			while (this.writing) {
+				drain();
+				long now = System.currentTimeMillis();
+				if (now - lastFlush >= FLUSH_PERIOD) {
+					flushBuffer();
+					lastFlush = now;
+				}
+				try {
+					Thread.sleep(WRITER_PERIOD);
+				} catch (@SuppressWarnings("unused") InterruptedException e) {
+					assert true;
+				}
+			}
+			drain();
+			flushBuffer();
+		} catch (IOException e) {
+			this.error = e;
+		} finally {
+			try {
+				this.file.close();
+			} catch (IOException e) {
+				if (this.error == null)
+					this.error = e;
+			}
+		}
+	}
+}
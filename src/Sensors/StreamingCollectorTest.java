@@ -0,0 +1,129 @@
+package Sensors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+import Filters.FilterChain;
+
+/**
+ * StreamingCollectorTest
+ */
+public class StreamingCollectorTest {
+
+	/**
+	 * testCollect streams a synthetic ultrasonic sensor to a log and reads it
+	 * back
+	 *
+	 * @throws IOException
+	 */
+	@SuppressWarnings({ "static-method", "nls" })
+	@Test
+	public void testCollect() throws IOException {
+		File f = File.createTempFile("usSensor", ".bin");
+		f.deleteOnExit();
+
+		UltrasonicSensor us = new UltrasonicSensor(new SyntheticSampleSource(40).sine(1.f, 4000),
+													false, false, new FilterChain());
+		try (StreamingCollector c = new StreamingCollector(f.getPath(), 1, 8192)) {
+			us.setSampleSink(c);
+			for (int i = 0; i < 5000; i++)
+				us.timedOut();
+			us.setSampleSink(null);
+			assertTrue(c.awaitSamples(5000, 1000));
+			assertEquals(0, c.getDropCount());
+		}
+
+		BinaryLog log = BinaryLog.readFile(f.getPath());
+		assertEquals(1, log.getChannelCount());
+		assertEquals(5000, log.getRecordCount());
+		assertEquals(f.length(), BinaryLog.HEADER_SIZE + 5000 * BinaryLog.recordSize(1));
+		for (int i = 0; i < 5000; i++)
+			assertEquals(40L * i, log.getTime(i));
+		assertEquals(1.f, log.getValue(25, 0), 1e-6f);
+
+		// - The replay gives back the recorded samples and timestamps
+		ReplaySampleSource replay = ReplaySampleSource.fromBinaryFile(f.getPath(), 1.f, true);
+		float[] s = new float[1];
+		for (int i = 0; i <= 5025; i++)
+			assertEquals(40L * i, replay.fetchSample(s, 0));
+		assertEquals(1.f, s[0], 1e-6f);
+	}
+
+	/**
+	 * testCloseWhilePutting checks that every sample accepted while the
+	 * collector closes is written
+	 *
+	 * @throws Exception
+	 */
+	@SuppressWarnings({ "static-method", "nls" })
+	@Test
+	public void testCloseWhilePutting() throws Exception {
+		File f = File.createTempFile("closing", ".bin");
+		f.deleteOnExit();
+
+		final StreamingCollector c = new StreamingCollector(f.getPath(), 1, 1 << 16);
+		Thread producer = new Thread() {
+			@Override
+			public void run() {
+				float[] sample = new float[1];
+				for (int i = 0; i < 1000000; i++) {
+					sample[0] = i;
+					c.put(i, sample);
+				}
+			}
+		};
+		producer.start();
+		while (c.getSampleCount() < 1000)
+			Thread.yield();
+		c.close();
+		producer.join();
+
+		BinaryLog log = BinaryLog.readFile(f.getPath());
+		assertEquals(c.getSampleCount(), log.getRecordCount());
+	}
+
+	/**
+	 * testConvert converts a log with a cut record to CSV
+	 *
+	 * @throws IOException
+	 */
+	@SuppressWarnings({ "static-method", "nls" })
+	@Test
+	public void testConvert() throws IOException {
+		byte[] bytes = new byte[BinaryLog.HEADER_SIZE + 2 * BinaryLog.recordSize(2) + 5];
+		ByteBuffer b = ByteBuffer.wrap(bytes);
+		b.putInt(BinaryLog.MAGIC).putInt(BinaryLog.VERSION).putInt(2);
+		b.putLong(100).putFloat(0.5f).putFloat(2.f);
+		b.putLong(110).putFloat(0.25f).putFloat(3.f);
+
+		BinaryLog log = BinaryLog.read(new ByteArrayInputStream(bytes));
+		assertEquals(2, log.getRecordCount());
+
+		StringWriter out = new StringWriter();
+		BinaryLogConverter.toCsv(log, out);
+		assertEquals(String.format("100, 0.5, 2.0%n110, 0.25, 3.0%n"), out.toString());
+	}
+
+	/**
+	 * testNotALog
+	 */
+	@SuppressWarnings({ "static-method", "nls" })
+	@Test
+	public void testNotALog() {
+		try {
+			BinaryLog.read(new ByteArrayInputStream("25, 50\n".getBytes()));
+			fail();
+		} catch (IOException e) {
+			assertEquals("Not a sample log", e.getMessage());
+		}
+	}
+}
@@ -5,13 +5,28 @@ package Sensors;
  */
 public interface SwitchableFilter {
 
+	/**
+	 * @return Polling period currently used by the sensor [ms], chosen by the
+	 *         polling policy if one is set
+	 */
+	public int getPollingRate();
+
 	/**
 	 * @return True is filtering is used on the sensor and false otherwise
 	 */
 	public boolean isUseFilter();
 
 	/**
-	 * Sets the polling rate of the sensor
+	 * Sets a policy choosing the polling rate from the motion of the robot and
+	 * from the samples, it overrides setPollingRate
+	 * 
+	 * @param policy polling policy, null to keep the current rate
+	 */
+	public void setPollingPolicy(AdaptivePollingPolicy policy);
+
+	/**
+	 * Sets the polling rate of the sensor, a polling policy changes it again
+	 * at the next sample
 	 * 
 	 * @param delay
 	 */
@@ -0,0 +1,186 @@
+package Sensors;
+
+import java.util.Random;
+
+/**
+ * Source of generated single channel samples, used to exercise the sensor
+ * stack without hardware. The signal is the sum of the configured
+ * components, e.g. grid lines seen by the light sensor:
+ * new SyntheticSampleSource(5).offset(0.5f).square(-0.3f, 1000, 0.05f)
+ * .noise(0.01f, 1).
+ * The time starts at 0 and advances by the period at every sample.
+ */
+public class SyntheticSampleSource implements SampleSource {
+
+	/**
+	 * Standard deviation of the gaussian noise
+	 */
+	private float noise = 0.f;
+
+	/**
+	 * Constant part of the signal
+	 */
+	private float offset = 0.f;
+
+	/**
+	 * Time between two samples [ms]
+	 */
+	private final long period;
+
+	/**
+	 * Generator of the noise and of the spikes
+	 */
+	private Random random = new Random(0);
+
+	/**
+	 * Amplitude of the sine wave
+	 */
+	private float sineAmplitude = 0.f;
+
+	/**
+	 * Period of the sine wave [ms]
+	 */
+	private long sinePeriod = 1;
+
+	/**
+	 * Probability of a spike at every sample
+	 */
+	private float spikeProbability = 0.f;
+
+	/**
+	 * Value of the spikes, replaces the signal
+	 */
+	private float spikeValue = 0.f;
+
+	/**
+	 * Amplitude of the pulses of the square wave
+	 */
+	private float squareAmplitude = 0.f;
+
+	/**
+	 * Fraction of the period the square wave is pulsed
+	 */
+	private float squareDuty = 0.f;
+
+	/**
+	 * Period of the square wave [ms]
+	 */
+	private long squarePeriod = 1;
+
+	/**
+	 * Time of the next sample [ms]
+	 */
+	private long time = 0;
+
+	/**
+	 * Creates a source of a signal equal to 0
+	 * 
+	 * @param period time between two samples [ms]
+	 */
+	public SyntheticSampleSource(long period) {
+		assert(period > 0);
+		this.period = period;
+	}
+
+	/**
+	 * @see Sensors.SampleSource#fetchSample(float[], int)
+	 */
+	@Override
+	public long fetchSample(float[] sample, int offset) {
+		long t = this.time;
+		this.time += this.period;
+
+		float v = this.offset;
+		if (this.sineAmplitude != 0.f)
+			v += this.sineAmplitude * (float) Math.sin(2 * Math.PI * (t % this.sinePeriod) / this.sinePeriod);
+		if (t % this.squarePeriod < this.squareDuty * this.squarePeriod)
+			v += this.squareAmplitude;
+		if (this.noise != 0.f)
+			v += this.noise * (float) this.random.nextGaussian();
+		if (this.spikeProbability != 0.f && this.random.nextFloat() < this.spikeProbability)
+			v = this.spikeValue;
+
+		sample[offset] = v;
+		return t;
+	}
+
+	/**
+	 * Adds gaussian noise to the signal
+	 * 
+	 * @param sigma standard deviation of the noise
+	 * @param seed seed of the generator, the same seed gives the same signal
+	 * @return this
+	 */
+	public SyntheticSampleSource noise(float sigma, long seed) {
+		assert(sigma >= 0.f);
+		this.noise = sigma;
+		this.random = new Random(seed);
+		return this;
+	}
+
+	/**
+	 * Sets the constant part of the signal
+	 * 
+	 * @param value constant
+	 * @return this
+	 */
+	public SyntheticSampleSource offset(float value) {
+		this.offset = value;
+		return this;
+	}
+
+	/**
+	 * @see Sensors.SampleSource#sampleSize()
+	 */
+	@Override
+	public int sampleSize() {
+		return 1;
+	}
+
+	/**
+	 * Adds a sine wave to the signal
+	 * 
+	 * @param amplitude amplitude of the wave
+	 * @param wavePeriod period of the wave [ms]
+	 * @return this
+	 */
+	public SyntheticSampleSource sine(float amplitude, long wavePeriod) {
+		assert(wavePeriod > 0);
+		this.sineAmplitude = amplitude;
+		this.sinePeriod = wavePeriod;
+		return this;
+	}
+
+	/**
+	 * Replaces some samples by spikes, like the 255 cm readings of the
+	 * ultrasonic sensor
+	 * 
+	 * @param probability probability of a spike at every sample
+	 * @param value value of the spikes
+	 * @return this
+	 */
+	public SyntheticSampleSource spikes(float probability, float value) {
+		assert(probability >= 0.f && probability <= 1.f);
+		this.spikeProbability = probability;
+		this.spikeValue = value;
+		return this;
+	}
+
+	/**
+	 * Adds pulses at the beginning of every period of a square wave
+	 * 
+	 * @param amplitude amplitude of the pulses
+	 * @param wavePeriod period of the wave [ms]
+	 * @param duty fraction of the period the wave is pulsed
+	 * @return this
+	 */
+	public SyntheticSampleSource square(float amplitude, long wavePeriod,
+										float duty) {
+		assert(wavePeriod > 0);
+		assert(duty >= 0.f && duty <= 1.f);
+		this.squareAmplitude = amplitude;
+		this.squarePeriod = wavePeriod;
+		this.squareDuty = duty;
+		return this;
+	}
+}
@@ -0,0 +1,17 @@
+package Sensors;
+
+/**
+ * Interface of the objects notified when a SampleTrigger fires
+ */
+public interface TriggerListener {
+
+	/**
+	 * Called on the sampling thread when a trigger fires, before the threads
+	 * waiting on the trigger are woken up. Implementations must return quickly.
+	 *
+	 * @param trigger trigger that fired
+	 * @param timestamp time of the sample that fired the trigger [ms]
+	 * @param value sample that fired the trigger
+	 */
+	public void triggered(SampleTrigger trigger, long timestamp, float value);
+}
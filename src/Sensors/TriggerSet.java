@@ -0,0 +1,59 @@
+package Sensors;
+
+import java.util.Arrays;
+
+/**
+ * Triggers registered on a sensor poller. The set is copied on every change so
+ * the sampling thread iterates over it without locking nor allocating.
+ */
+final class TriggerSet {
+
+	/**
+	 * Empty set
+	 */
+	private static final SampleTrigger[] NONE = new SampleTrigger[0];
+
+	/**
+	 * Registered triggers, replaced on every change
+	 */
+	private volatile SampleTrigger[] triggers = NONE;
+
+	/**
+	 * Registers a trigger, it is evaluated from the next sample
+	 *
+	 * @param trigger trigger to add
+	 */
+	synchronized void add(SampleTrigger trigger) {
+		assert(trigger != null);
+		SampleTrigger[] t = Arrays.copyOf(this.triggers, this.triggers.length + 1);
+		t[t.length - 1] = trigger;
+		this.triggers = t;
+	}
+
+	/**
+	 * Evaluates every trigger on a new sample, called by the sampling thread
+	 *
+	 * @param value new sample
+	 * @param timestamp time of the sample [ms]
+	 */
+	void evaluate(float value, long timestamp) {
+		for (SampleTrigger t : this.triggers)
+			t.evaluate(value, timestamp);
+	}
+
+	/**
+	 * Unregisters a trigger, nothing happens if it is not registered
+	 *
+	 * @param trigger trigger to remove
+	 */
+	synchronized void remove(SampleTrigger trigger) {
+		int i = Arrays.asList(this.triggers).indexOf(trigger);
+		if (i < 0)
+			return;
+
+		SampleTrigger[] t = new SampleTrigger[this.triggers.length - 1];
+		System.arraycopy(this.triggers, 0, t, 0, i);
+		System.arraycopy(this.triggers, i + 1, t, i, t.length - i);
+		this.triggers = t;
+	}
+}
@@ -1,10 +1,11 @@
 package Sensors;
 
+import Filters.FilterChain;
+import Filters.FloatFilter;
+import Utility.ScheduledTask;
+import Utility.Scheduler;
 import Utility.TimerInterface;
 import lejos.hardware.sensor.EV3UltrasonicSensor;
-import lejos.robotics.SampleProvider;
-import lejos.robotics.filter.MedianFilter;
-import lejos.utility.Timer;
 import lejos.utility.TimerListener;
 
 /**
@@ -12,20 +13,51 @@ import lejos.utility.TimerListener;
  */
 public class UltrasonicSensor implements DataProvider<Integer>, TimerListener,
 				TimerInterface, SwitchableFilter {
+	/**
+	 * Kind of the poller in the MetricsRegistry
+	 */
+	@SuppressWarnings("nls")
+	private static final String METRICS_KIND = "us";
+
 	/**
 	 * Suggested sampling rate for that sensor as an interval in [ms].
 	 */
 	public static final int TICK_RATE = 40;
 
 	/**
-	 * Lock object for mutual exclusion
+	 * History of the last samples
+	 */
+	private final SampleHistory history = new SampleHistory(SampleHistory.DEFAULT_CAPACITY);
+
+	/**
+	 * Health of the poller
+	 */
+	private final SensorMetrics metrics = new SensorMetrics();
+
+	/**
+	 * Policy choosing the polling rate, may be null
+	 */
+	private volatile AdaptivePollingPolicy pollingPolicy = null;
+
+	/**
+	 * Receiver of every published sample, may be null
+	 */
+	private volatile SampleSink sink = null;
+
+	/**
+	 * Last sample published to the readers
 	 */
-	private final Object lock = new Object();
+	private final SampleSnapshot snapshot;
 
 	/**
-	 * Sample provider gives us data from the sensor
+	 * Source of the samples
 	 */
-	private SampleProvider us;
+	private final SampleSource source;
+
+	/**
+	 * Triggers evaluated on every sample
+	 */
+	private final TriggerSet triggers = new TriggerSet();
 
 	/**
 	 * Array of floats holding the sensor data
@@ -35,17 +67,17 @@ public class UltrasonicSensor implements DataProvider<Integer>, TimerListener,
 	/**
 	 * Use filtering
 	 */
-	private boolean useFilter;
+	private volatile boolean useFilter;
 
 	/**
-	 * Median filter for the sensor
+	 * Filter applied to the distance
 	 */
-	private MedianFilter usFilter;
+	private FloatFilter usFilter;
 
 	/**
 	 * Timer for automatic polling
 	 */
-	private Timer usTimer;
+	private ScheduledTask usTimer;
 
 	/**
 	 * Constructs a light sensor poller with a user defined sampling rate passed
@@ -56,21 +88,61 @@ public class UltrasonicSensor implements DataProvider<Integer>, TimerListener,
 	 * @param useFilter Makes the output of the sensor filtered
 	 * @param window Window size of the applied filter
 	 */
-	@SuppressWarnings({ "nls" })
 	public UltrasonicSensor(EV3UltrasonicSensor pEV3UltrasonicSensor,
 							boolean autostart, boolean useFilter, int window) {
-		assert(pEV3UltrasonicSensor != null);
-		// - usDistance provides samples from this instance
-		this.us = pEV3UltrasonicSensor.getMode("Distance");
+		this(pEV3UltrasonicSensor, autostart, useFilter,
+				new FilterChain().addMedian(window));
+	}
+
+	/**
+	 * Constructs an ultrasonic sensor poller filtering the distance with a
+	 * user supplied filter, e.g. a FilterChain
+	 * 
+	 * @param pEV3UltrasonicSensor An instance of a valid EV3UltrasonicSensor
+	 * @param autostart Start polling automatically or not
+	 * @param useFilter Makes the output of the sensor filtered
+	 * @param filter Filter applied to the distance
+	 */
+	public UltrasonicSensor(EV3UltrasonicSensor pEV3UltrasonicSensor,
+							boolean autostart, boolean useFilter,
+							FloatFilter filter) {
+		this(EV3SampleSource.distance(pEV3UltrasonicSensor), autostart,
+				useFilter, filter);
+	}
+
+	/**
+	 * Constructs an ultrasonic sensor poller reading the distances from a
+	 * source of samples, e.g. a ReplaySampleSource
+	 * 
+	 * @param source Source of the distances [m]
+	 * @param autostart Start polling automatically or not
+	 * @param useFilter Makes the output of the sensor filtered
+	 * @param filter Filter applied to the distance
+	 */
+	public UltrasonicSensor(SampleSource source, boolean autostart,
+							boolean useFilter, FloatFilter filter) {
+		assert(source != null);
+		assert(filter != null);
+		this.source = source;
 		// - Allocate size for samples
-		this.usData = new float[this.us.sampleSize()];
-		// - Initialize a mean filter
-		this.usFilter = new MedianFilter(this.us, window);
+		this.usData = new float[source.sampleSize()];
+		this.snapshot = new SampleSnapshot(this.usData.length);
+		this.usFilter = filter;
 		// - Create a timer
-		this.usTimer = new Timer(UltrasonicSensor.TICK_RATE, this);
+		this.usTimer = Scheduler.SENSING.schedule(this, UltrasonicSensor.TICK_RATE);
 		this.useFilter = useFilter;
 		if (autostart)
-			this.usTimer.start();
+			start();
+	}
+
+	/**
+	 * A getter for the filtered distance that never blocks nor allocates
+	 * 
+	 * @return Last distance measured by the sensor [cm] in the range of [0,
+	 *         255]
+	 */
+	public int getDistanceCm() {
+		return (int) (this.snapshot.get(0) * 100.0);
 	}
 
 	/**
@@ -81,26 +153,67 @@ public class UltrasonicSensor implements DataProvider<Integer>, TimerListener,
 	@SuppressWarnings("boxing")
 	@Override
 	public Integer[] getSample() {
-		Integer[] r = new Integer[this.usData.length];
+		float[] data = new float[this.snapshot.getChannelCount()];
+		this.snapshot.read(data, 0);
 
-		synchronized (this.lock) {
-			for (int i = 0; i < this.usData.length; i++)
-				r[i] = (int) (this.usData[i] * 100.0);
-		}
+		Integer[] r = new Integer[data.length];
+		for (int i = 0; i < data.length; i++)
+			r[i] = (int) (data[i] * 100.0);
 
 		return r;
 	}
 
+	/**
+	 * @see Sensors.DataProvider#getMetrics()
+	 */
+	@Override
+	public SensorMetrics getMetrics() {
+		return this.metrics;
+	}
+
+	/**
+	 * @see Sensors.DataProvider#getHistory()
+	 */
+	@Override
+	public SampleHistory getHistory() {
+		return this.history;
+	}
+
 	/**
 	 * @return True is filtering is used on the sensor and false otherwise
 	 */
 	@Override
 	public boolean isUseFilter() {
-		synchronized (this.lock) {
-			return this.useFilter;
-		}
+		return this.useFilter;
+	}
+
+	/**
+	 * @see Sensors.SwitchableFilter#getPollingRate()
+	 */
+	@Override
+	public int getPollingRate() {
+		return this.usTimer.getDelay();
 	}
 
+	/**
+	 * @see Sensors.DataProvider#setSampleSink(Sensors.SampleSink)
+	 */
+	@Override
+	public void setSampleSink(SampleSink sink) {
+		this.sink = sink;
+	}
+
+	/**
+	 * @see Sensors.SwitchableFilter#setPollingPolicy(Sensors.AdaptivePollingPolicy)
+	 */
+	@Override
+	public void setPollingPolicy(AdaptivePollingPolicy policy) {
+		this.pollingPolicy = policy;
+	}
+
+	/**
+	 * @see Sensors.SwitchableFilter#setPollingRate(int)
+	 */
 	@Override
 	public void setPollingRate(int delay) {
 		this.usTimer.setDelay(delay);
@@ -113,37 +226,85 @@ public class UltrasonicSensor implements DataProvider<Integer>, TimerListener,
 	 */
 	@Override
 	public void setUseFilter(boolean useFilter) {
-		synchronized (this.lock) {
-			this.useFilter = useFilter;
-		}
+		this.useFilter = useFilter;
 	}
 
 	/**
+	 * @see Sensors.DataProvider#addTrigger(Sensors.SampleTrigger)
+	 */
+	@Override
+	public void addTrigger(SampleTrigger trigger) {
+		this.triggers.add(trigger);
+	}
+
+	/**
+	 * @see Sensors.DataProvider#readSample(float[], int)
+	 */
+	@Override
+	public long readSample(float[] dst, int offset) {
+		return this.snapshot.read(dst, offset);
+	}
+
+	/**
+	 * @see Sensors.DataProvider#removeTrigger(Sensors.SampleTrigger)
+	 */
+	@Override
+	public void removeTrigger(SampleTrigger trigger) {
+		this.triggers.remove(trigger);
+	}
+
+	/**
+	 * Starts polling, the metrics join the MetricsRegistry and the time spent
+	 * stopped is not counted as missed ticks
+	 *
 	 * @see Utility.TimerInterface#start()
 	 */
 	@Override
 	public void start() {
+		this.metrics.restart();
+		MetricsRegistry.register(METRICS_KIND, this.metrics);
 		this.usTimer.start();
 	}
 
 	/**
+	 * Stops polling, the metrics leave the MetricsRegistry until the next
+	 * start
+	 *
 	 * @see Utility.TimerInterface#stop()
 	 */
 	@Override
 	public void stop() {
 		this.usTimer.stop();
+		MetricsRegistry.unregister(this.metrics);
 	}
 
 	/**
-	 * This method fetches a sample from the ultrasonic sensor
+	 * This method fetches and filters a sample from the ultrasonic sensor,
+	 * publishes it to the readers and evaluates the triggers in [cm]
 	 */
 	@Override
 	public void timedOut() {
-		synchronized (this.lock) {
-			if (this.useFilter)
-				this.usFilter.fetchSample(this.usData, 0);
-			else
-				this.us.fetchSample(this.usData, 0);
+		long start = System.nanoTime();
+		long timestamp = this.source.fetchSample(this.usData, 0);
+		this.metrics.record(start, System.nanoTime(), this.usTimer.getDelay());
+		// - The distance mode provides a single channel
+		if (this.useFilter)
+			this.usData[0] = this.usFilter.filterSample(this.usData[0]);
+		this.snapshot.publish(this.usData, timestamp);
+		SampleSink s = this.sink;
+		if (s != null)
+			s.put(timestamp, this.usData);
+		this.history.add(timestamp, this.usData[0]);
+		// - A missing sample stays NaN, the conversion would make it 0 cm
+		float distance = this.usData[0];
+		this.triggers.evaluate(Float.isNaN(distance) ? Float.NaN : (int) (distance * 100.0),
+								timestamp);
+
+		AdaptivePollingPolicy policy = this.pollingPolicy;
+		if (policy != null) {
+			int delay = policy.update(this.usData[0], timestamp, false);
+			if (delay != this.usTimer.getDelay())
+				this.usTimer.setDelay(delay);
 		}
 	}
 }
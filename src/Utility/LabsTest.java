@@ -1,5 +1,6 @@
 package Utility;
 
+import java.io.IOException;
 import java.util.LinkedList;
 import java.util.Queue;
 
@@ -9,6 +10,7 @@ import lejos.utility.Delay;
 import Controllers.PController;
 import EV3Hardware.Robot;
 import Localization.LightLocalizer;
+import MeasurementDevices.CaptureSession;
 import MeasurementDevices.Odometer;
 import MeasurementDevices.OdometryCorrection;
 import MeasurementDevices.OdometryDisplay;
@@ -41,6 +43,16 @@ public class LabsTest {
 	 */
 	private static final int			BANDWIDTH			= 3;
 
+	/**
+	 * Period of the captures of all the sensors [ms]
+	 */
+	private static final int			CAPTURE_PERIOD		= 5;
+
+	/**
+	 * Duration of the captures of all the sensors [ms]
+	 */
+	private static final int			CAPTURE_TIME		= 10000;
+
 	/**
 	 * Odometry correction instance
 	 */
@@ -111,6 +123,34 @@ public class LabsTest {
 	 */
 	private static final int			US_RATE				= 5;
 
+	/**
+	 * Captures both ultrasonic sensors, the light sensor, the odometer and the
+	 * tachometers into one log for CAPTURE_TIME
+	 * 
+	 * @param usFront front ultrasonic sensor
+	 * @param usAngled angled ultrasonic sensor
+	 * @param light light sensor
+	 */
+	@SuppressWarnings({ "nls", "boxing" })
+	private static void captureAll(	UltrasonicSensor usFront,
+									UltrasonicSensor usAngled,
+									LightSensor light) {
+		if (odo == null)
+			odo = new Odometer(true);
+
+		try (CaptureSession session = new CaptureSession(CAPTURE_PERIOD).addProvider("usFront", usFront)
+																		.addProvider("usAngled", usAngled)
+																		.addProvider("light", light)
+																		.addOdometer(odo)
+																		.addTachometers()) {
+			session.open(String.format("capture-%d.bin", System.currentTimeMillis()));
+			session.start();
+			Delay.msDelay(CAPTURE_TIME);
+		} catch (@SuppressWarnings("unused") IOException e) {
+			Sound.buzz();
+		}
+	}
+
 	/**
 	 * @param args
 	 *            Arguments
@@ -134,6 +174,7 @@ public class LabsTest {
 				Robot.textLCD.clear();
 				Robot.textLCD.drawString("Left: US Sensor", 0, 0);
 				Robot.textLCD.drawString("Right: RedMode Sensor", 0, 1);
+				Robot.textLCD.drawString("Down: All + odometry", 0, 2);
 				button = Button.waitForAnyPress();
 
 				String filtered = (usAngledSampler.isUseFilter()) ? "filtered" : "normal";
@@ -142,9 +183,11 @@ public class LabsTest {
 				Robot.setSpeeds(ROTATION_SPEED_SD, -ROTATION_SPEED_SD);
 
 				if (button == Button.ID_LEFT)
-					DataCollector.collectData(usFrontSampler, "usSensor" + filtered, 1000, UltrasonicSensor.TICK_RATE);
+					DataCollector.streamData(usFrontSampler, "usSensor" + filtered, 1000);
 				else if (button == Button.ID_RIGHT)
-					DataCollector.collectData(lightSampler, "lightSensor" + filteredLight, 1000, LightSensor.TICK_RATE);
+					DataCollector.streamData(lightSampler, "lightSensor" + filteredLight, 1000);
+				else if (button == Button.ID_DOWN)
+					captureAll(usFrontSampler, usAngledSampler, lightSampler);
 
 				Sound.beep();
 			}
@@ -295,7 +338,7 @@ public class LabsTest {
 									Robot.rotateDistance(FORWARD_SPEED_SD, FORWARD_SPEED_SD);
 									Robot.rotateAngle(ROTATION_SPEED_SD, ROTATION_SPEED_SD);
 								}
-								correction.interrupt();
+								correction.stop();
 							}
 							odo.stop();
 							odoDisplay.stop();
@@ -0,0 +1,136 @@
+package Utility;
+
+/**
+ * Kernels on 3x3 matrices and 3 vectors stored row major in double arrays,
+ * e.g. the covariance of a pose. They write into caller supplied arrays and
+ * never allocate, so they can run at the odometer rate. The destination of
+ * a kernel must not be one of its operands unless stated otherwise.
+ */
+public final class Matrix3 {
+
+	/**
+	 * Number of elements of a matrix
+	 */
+	public static final int SIZE = 9;
+
+	/**
+	 * Static class
+	 */
+	private Matrix3() {
+		assert true;
+	}
+
+	/**
+	 * Adds two matrices, dst may be a or b
+	 *
+	 * @param a lhs
+	 * @param b rhs
+	 * @param dst destination of (a + b)
+	 */
+	public static void add(double[] a, double[] b, double[] dst) {
+		for (int i = 0; i < SIZE; i++)
+			dst[i] = a[i] + b[i];
+	}
+
+	/**
+	 * Computes the product of two matrices
+	 *
+	 * @param a lhs
+	 * @param b rhs
+	 * @param dst destination of (a b)
+	 */
+	public static void multiply(double[] a, double[] b, double[] dst) {
+		assert(dst != a && dst != b);
+		for (int r = 0; r < 3; r++)
+			for (int c = 0; c < 3; c++)
+				dst[3 * r + c] = a[3 * r] * b[c] + a[3 * r + 1] * b[3 + c] +
+									a[3 * r + 2] * b[6 + c];
+	}
+
+	/**
+	 * Computes the product of a matrix with the transpose of another
+	 *
+	 * @param a lhs
+	 * @param b rhs, transposed
+	 * @param dst destination of (a b')
+	 */
+	public static void multiplyTransposed(double[] a, double[] b, double[] dst) {
+		assert(dst != a && dst != b);
+		for (int r = 0; r < 3; r++)
+			for (int c = 0; c < 3; c++)
+				dst[3 * r + c] = a[3 * r] * b[3 * c] + a[3 * r + 1] * b[3 * c + 1] +
+									a[3 * r + 2] * b[3 * c + 2];
+	}
+
+	/**
+	 * Computes the product of a matrix with a vector
+	 *
+	 * @param a matrix
+	 * @param v vector
+	 * @param dst destination of (a v)
+	 */
+	public static void multiplyVector(double[] a, double[] v, double[] dst) {
+		assert(dst != v);
+		for (int r = 0; r < 3; r++)
+			dst[r] = a[3 * r] * v[0] + a[3 * r + 1] * v[1] + a[3 * r + 2] * v[2];
+	}
+
+	/**
+	 * Computes the quadratic form of a symmetric matrix
+	 *
+	 * @param a symmetric matrix
+	 * @param v vector
+	 * @return v' a v
+	 */
+	public static double quadratic(double[] a, double[] v) {
+		double q = 0.0;
+		for (int r = 0; r < 3; r++)
+			q += v[r] * (a[3 * r] * v[0] + a[3 * r + 1] * v[1] + a[3 * r + 2] * v[2]);
+		return q;
+	}
+
+	/**
+	 * Sets a matrix to a diagonal one
+	 *
+	 * @param d0 first element of the diagonal
+	 * @param d1 second element of the diagonal
+	 * @param d2 third element of the diagonal
+	 * @param dst destination of the matrix
+	 */
+	public static void setDiagonal(double d0, double d1, double d2, double[] dst) {
+		for (int i = 0; i < SIZE; i++)
+			dst[i] = 0.0;
+		dst[0] = d0;
+		dst[4] = d1;
+		dst[8] = d2;
+	}
+
+	/**
+	 * Averages a matrix with its transpose in place, to remove the rounding
+	 * errors that make a covariance lose its symmetry
+	 *
+	 * @param a matrix
+	 */
+	public static void symmetrize(double[] a) {
+		for (int r = 0; r < 3; r++)
+			for (int c = r + 1; c < 3; c++) {
+				double m = (a[3 * r + c] + a[3 * c + r]) / 2;
+				a[3 * r + c] = m;
+				a[3 * c + r] = m;
+			}
+	}
+
+	/**
+	 * Computes the congruence of a matrix
+	 *
+	 * @param a transformation
+	 * @param b matrix
+	 * @param tmp scratch matrix
+	 * @param dst destination of (a b a')
+	 */
+	public static void transform(double[] a, double[] b, double[] tmp, double[] dst) {
+		assert(tmp != dst);
+		multiply(a, b, tmp);
+		multiplyTransposed(tmp, a, dst);
+	}
+}
@@ -0,0 +1,49 @@
+package Utility;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Matrix3Test
+ */
+public class Matrix3Test {
+
+	/**
+	 * testProducts checks the kernels against products computed by hand
+	 */
+	@SuppressWarnings("static-method")
+	@Test
+	public void testProducts() {
+		double[] a = { 1, 2, 0, 0, 1, 3, 1, 0, 1 };
+		double[] b = { 2, 0, 1, 1, 1, 0, 0, 2, 1 };
+		double[] dst = new double[Matrix3.SIZE];
+
+		Matrix3.multiply(a, b, dst);
+		double[] ab = { 4, 2, 1, 1, 7, 3, 2, 2, 2 };
+		for (int i = 0; i < Matrix3.SIZE; i++)
+			assertEquals(ab[i], dst[i], 1e-12);
+
+		Matrix3.multiplyTransposed(a, b, dst);
+		double[] abt = { 2, 3, 4, 3, 1, 5, 3, 1, 1 };
+		for (int i = 0; i < Matrix3.SIZE; i++)
+			assertEquals(abt[i], dst[i], 1e-12);
+
+		double[] v = { 1, -1, 2 };
+		double[] av = new double[3];
+		Matrix3.multiplyVector(a, v, av);
+		assertEquals(-1, av[0], 1e-12);
+		assertEquals(5, av[1], 1e-12);
+		assertEquals(3, av[2], 1e-12);
+
+		// - a P a' in place with P = I is a a'
+		double[] p = new double[Matrix3.SIZE];
+		double[] tmp = new double[Matrix3.SIZE];
+		Matrix3.setDiagonal(1, 1, 1, p);
+		Matrix3.transform(a, p, tmp, p);
+		Matrix3.multiplyTransposed(a, a, dst);
+		for (int i = 0; i < Matrix3.SIZE; i++)
+			assertEquals(dst[i], p[i], 1e-12);
+		assertEquals(11, Matrix3.quadratic(p, v), 1e-12);
+	}
+}
@@ -0,0 +1,60 @@
+package Utility;
+
+/**
+ * Last wheel speeds commanded to the motors, updated by Robot.setSpeeds and
+ * the other motion helpers of Robot. It lets the sensor pollers adapt their
+ * rate to the motion of the robot without reading the motors.
+ */
+public class MotionState {
+
+	/**
+	 * Commanded speed of the left wheel [deg/s]
+	 */
+	private static volatile int leftSpeed = 0;
+
+	/**
+	 * Commanded speed of the right wheel [deg/s]
+	 */
+	private static volatile int rightSpeed = 0;
+
+	/**
+	 * Static class
+	 */
+	private MotionState() {
+		assert true;
+	}
+
+	/**
+	 * @return Commanded speed of the left wheel [deg/s], negative backward
+	 */
+	public static int getLeftSpeed() {
+		return MotionState.leftSpeed;
+	}
+
+	/**
+	 * @return Commanded speed of the right wheel [deg/s], negative backward
+	 */
+	public static int getRightSpeed() {
+		return MotionState.rightSpeed;
+	}
+
+	/**
+	 * @return Commanded speed of the fastest wheel [deg/s], 0 when the robot
+	 *         is idle
+	 */
+	public static int getWheelSpeed() {
+		return Math.max(Math.abs(MotionState.leftSpeed),
+						Math.abs(MotionState.rightSpeed));
+	}
+
+	/**
+	 * Records the speeds commanded to the motors
+	 *
+	 * @param lSpeed speed of the left wheel [deg/s], negative backward
+	 * @param rSpeed speed of the right wheel [deg/s], negative backward
+	 */
+	public static void setCommandedSpeeds(int lSpeed, int rSpeed) {
+		MotionState.leftSpeed = lSpeed;
+		MotionState.rightSpeed = rSpeed;
+	}
+}
@@ -0,0 +1,235 @@
+package Utility;
+
+import lejos.utility.TimerListener;
+
+/**
+ * Handle of a periodic task run by a Scheduler. It replaces a leJOS Timer:
+ * the task is started, stopped and its period changed the same way, and it
+ * also records how well its deadlines are met. The deadline of a release is
+ * the next release.
+ */
+public class ScheduledTask implements TimerInterface {
+
+	/**
+	 * Number of releases whose execution ended after the deadline
+	 */
+	private volatile long deadlineMisses = 0;
+
+	/**
+	 * Number of executions that threw
+	 */
+	private volatile long failures = 0;
+
+	/**
+	 * Listener called at every release
+	 */
+	final TimerListener listener;
+
+	/**
+	 * Longest execution of the listener [ns]
+	 */
+	private volatile long maxExecution = 0;
+
+	/**
+	 * Longest delay between a release and the start of the execution [ns]
+	 */
+	private volatile long maxLatency = 0;
+
+	/**
+	 * Number of releases skipped because the task was late
+	 */
+	private volatile long overruns = 0;
+
+	/**
+	 * Period of the task [ms]
+	 */
+	private volatile int period;
+
+	/**
+	 * Offset of the first release after a start [ms]
+	 */
+	private final int phase;
+
+	/**
+	 * Time of the next release [ns], guarded by the scheduler
+	 */
+	long release = 0;
+
+	/**
+	 * Number of executions
+	 */
+	private volatile long runs = 0;
+
+	/**
+	 * Flag indicating that the task is released periodically
+	 */
+	private volatile boolean running = false;
+
+	/**
+	 * Scheduler running the task
+	 */
+	private final Scheduler scheduler;
+
+	/**
+	 * Creates a task, only called by the scheduler
+	 *
+	 * @param scheduler scheduler running the task
+	 * @param listener listener called at every release
+	 * @param period period of the task [ms]
+	 * @param phase offset of the first release [ms]
+	 */
+	ScheduledTask(Scheduler scheduler, TimerListener listener, int period, int phase) {
+		this.scheduler = scheduler;
+		this.listener = listener;
+		this.period = period;
+		this.phase = phase;
+	}
+
+	/**
+	 * Records one execution and computes the next release, called on the
+	 * scheduler thread
+	 *
+	 * @param start start of the execution [ns]
+	 * @param end end of the execution [ns]
+	 * @param failed true if the listener threw
+	 */
+	void completed(long start, long end, boolean failed) {
+		long periodNs = this.period * 1000000L;
+		long latency = start - this.release;
+		long execution = end - start;
+
+		this.runs++;
+		if (failed)
+			this.failures++;
+		if (latency > this.maxLatency)
+			this.maxLatency = latency;
+		if (execution > this.maxExecution)
+			this.maxExecution = execution;
+		this.release += periodNs;
+		if (end > this.release)
+			this.deadlineMisses++;
+
+		// - Skip the releases that are already past instead of running the
+		// - task in a burst
+		if (end >= this.release + periodNs) {
+			long skipped = (end - this.release) / periodNs;
+			this.release += skipped * periodNs;
+			this.overruns += skipped;
+		}
+	}
+
+	/**
+	 * @return Period of the task [ms]
+	 */
+	public int getDelay() {
+		return this.period;
+	}
+
+	/**
+	 * @return Number of releases whose execution ended after the deadline
+	 */
+	public long getDeadlineMisses() {
+		return this.deadlineMisses;
+	}
+
+	/**
+	 * @return Number of executions that threw
+	 */
+	public long getFailures() {
+		return this.failures;
+	}
+
+	/**
+	 * @return Longest execution of the task [ns]
+	 */
+	public long getMaxExecutionTime() {
+		return this.maxExecution;
+	}
+
+	/**
+	 * @return Longest delay between a release and the start of its execution
+	 *         [ns], the tick jitter
+	 */
+	public long getMaxLatency() {
+		return this.maxLatency;
+	}
+
+	/**
+	 * @return Number of releases skipped because the task was late
+	 */
+	public long getOverruns() {
+		return this.overruns;
+	}
+
+	/**
+	 * @return Number of executions
+	 */
+	public long getRunCount() {
+		return this.runs;
+	}
+
+	/**
+	 * @return True if the task is released periodically
+	 */
+	public boolean isRunning() {
+		return this.running;
+	}
+
+	/**
+	 * Clears the deadline statistics
+	 */
+	public void resetStatistics() {
+		this.runs = 0;
+		this.deadlineMisses = 0;
+		this.failures = 0;
+		this.overruns = 0;
+		this.maxLatency = 0;
+		this.maxExecution = 0;
+	}
+
+	/**
+	 * Changes the period of the task, it applies from the next release
+	 *
+	 * @param delay new period [ms]
+	 */
+	public void setDelay(int delay) {
+		assert(delay > 0);
+		this.scheduler.setPeriod(this, delay);
+	}
+
+	/**
+	 * Sets the period, only called by the scheduler
+	 *
+	 * @param delay new period [ms]
+	 */
+	void setPeriod(int delay) {
+		this.period = delay;
+	}
+
+	/**
+	 * Marks the task running or stopped, only called by the scheduler
+	 *
+	 * @param state new state
+	 */
+	void setRunning(boolean state) {
+		this.running = state;
+	}
+
+	/**
+	 * The first release happens after the phase of the task
+	 *
+	 * @see Utility.TimerInterface#start()
+	 */
+	@Override
+	public void start() {
+		this.scheduler.start(this, this.phase);
+	}
+
+	/**
+	 * @see Utility.TimerInterface#stop()
+	 */
+	@Override
+	public void stop() {
+		this.scheduler.stop(this);
+	}
+}
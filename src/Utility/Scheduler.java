@@ -0,0 +1,239 @@
+package Utility;
+
+import java.util.Arrays;
+
+import lejos.utility.TimerListener;
+
+/**
+ * This class runs periodic tasks on a single thread, replacing one leJOS
+ * Timer thread per object. When several tasks are due the one with the
+ * shortest period runs first (rate-monotonic order), and every task gets a
+ * phase so tasks of the same period are not released at the same time.
+ * Two shared schedulers are provided: SENSING at the highest thread priority
+ * for the sensor pollers and the odometer, which must never block, and
+ * CONTROL for the controllers and the displays, whose tasks may sleep and
+ * then delay each other.
+ * Late releases are skipped rather than run in a burst, and a task that
+ * throws keeps being released, see ScheduledTask for the recorded deadline
+ * misses, overruns and failures.
+ */
+public class Scheduler {
+
+	/**
+	 * Scheduler of the controllers and of the displays
+	 */
+	public static final Scheduler CONTROL = new Scheduler("control", Thread.NORM_PRIORITY);
+
+	/**
+	 * Scheduler of the sensor pollers and of the odometer
+	 */
+	public static final Scheduler SENSING = new Scheduler("sensing", Thread.MAX_PRIORITY);
+
+	/**
+	 * Lock object for mutual exclusion, also signaled when the tasks change
+	 */
+	private final Object lock = new Object();
+
+	/**
+	 * Name of the thread
+	 */
+	private final String name;
+
+	/**
+	 * Priority of the thread
+	 */
+	private final int priority;
+
+	/**
+	 * Running tasks, sorted by period
+	 */
+	private ScheduledTask[] running = new ScheduledTask[0];
+
+	/**
+	 * Number of tasks created, used to spread the phases
+	 */
+	private int tasks = 0;
+
+	/**
+	 * Thread running the tasks, started with the first task
+	 */
+	private Thread thread = null;
+
+	/**
+	 * Creates a scheduler
+	 *
+	 * @param name name of the thread
+	 * @param priority priority of the thread
+	 */
+	public Scheduler(String name, int priority) {
+		assert(name != null);
+		this.name = name;
+		this.priority = priority;
+	}
+
+	/**
+	 * Runs the tasks as they are released, never returns
+	 */
+	void runTasks() {
+		while (true) {
+			ScheduledTask task = null;
+
+			synchronized (this.lock) {
+				long now = System.nanoTime();
+				long earliest = Long.MAX_VALUE;
+
+				// - The running tasks are sorted by period so the first due
+				// - task has the highest rate-monotonic priority
+				for (ScheduledTask t : this.running) {
+					if (t.release - now <= 0) {
+						task = t;
+						break;
+					}
+					earliest = Math.min(earliest, t.release);
+				}
+
+				if (task == null) {
+					try {
+						if (earliest == Long.MAX_VALUE) {
+							this.lock.wait();
+						} else {
+							long wait = earliest - now;
+							this.lock.wait(wait / 1000000L, (int) (wait % 1000000L));
+						}
+					} catch (@SuppressWarnings("unused") InterruptedException e) {
+						assert true;
+					}
+					continue;
+				}
+			}
+
+			// - A failing task must not end the thread, the other tasks would
+			// - stop silently with it
+			boolean failed = false;
+			long start = System.nanoTime();
+			try {
+				task.listener.timedOut();
+			} catch (@SuppressWarnings("unused") Throwable e) {
+				failed = true;
+			}
+			long end = System.nanoTime();
+
+			synchronized (this.lock) {
+				task.completed(start, end, failed);
+			}
+		}
+	}
+
+	/**
+	 * Creates a task, it does not run until it is started. The phase is chosen
+	 * to spread the tasks.
+	 *
+	 * @param listener listener called at every release
+	 * @param period period of the task [ms]
+	 * @return Handle of the task
+	 */
+	public ScheduledTask schedule(TimerListener listener, int period) {
+		synchronized (this.lock) {
+			return schedule(listener, period, this.tasks % period);
+		}
+	}
+
+	/**
+	 * Creates a task, it does not run until it is started
+	 *
+	 * @param listener listener called at every release
+	 * @param period period of the task [ms]
+	 * @param phase offset of the first release after a start [ms]
+	 * @return Handle of the task
+	 */
+	public ScheduledTask schedule(TimerListener listener, int period, int phase) {
+		assert(listener != null);
+		assert(period > 0);
+		assert(phase >= 0);
+		synchronized (this.lock) {
+			this.tasks++;
+			return new ScheduledTask(this, listener, period, phase);
+		}
+	}
+
+	/**
+	 * Starts releasing a task, called by ScheduledTask.start
+	 *
+	 * @param task task to start
+	 * @param phase offset of the first release [ms]
+	 */
+	void start(ScheduledTask task, int phase) {
+		synchronized (this.lock) {
+			task.release = System.nanoTime() + phase * 1000000L;
+			if (!task.isRunning()) {
+				task.setRunning(true);
+				this.running = Arrays.copyOf(this.running, this.running.length + 1);
+				this.running[this.running.length - 1] = task;
+			}
+			sortByPeriod();
+
+			if (this.thread == null) {
+				this.thread = new Thread(this.name) {
+					@Override
+					public void run() {
+						runTasks();
+					}
+				};
+				this.thread.setDaemon(true);
+				this.thread.setPriority(this.priority);
+				this.thread.start();
+			}
+			this.lock.notifyAll();
+		}
+	}
+
+	/**
+	 * Changes the period of a task, called by ScheduledTask.setDelay
+	 *
+	 * @param task task to change
+	 * @param period new period [ms]
+	 */
+	void setPeriod(ScheduledTask task, int period) {
+		synchronized (this.lock) {
+			task.setPeriod(period);
+			sortByPeriod();
+		}
+	}
+
+	/**
+	 * Sorts the running tasks by period, the periods may have changed
+	 */
+	private void sortByPeriod() {
+		// - Insertion sort, there are only a few tasks
+		for (int i = 1; i < this.running.length; i++) {
+			ScheduledTask t = this.running[i];
+			int j = i;
+			while (j > 0 && this.running[j - 1].getDelay() > t.getDelay()) {
+				this.running[j] = this.running[j - 1];
+				j--;
+			}
+			this.running[j] = t;
+		}
+	}
+
+	/**
+	 * Stops releasing a task, called by ScheduledTask.stop
+	 *
+	 * @param task task to stop
+	 */
+	void stop(ScheduledTask task) {
+		synchronized (this.lock) {
+			if (!task.isRunning())
+				return;
+			task.setRunning(false);
+
+			ScheduledTask[] remaining = new ScheduledTask[this.running.length - 1];
+			int n = 0;
+			for (ScheduledTask t : this.running)
+				if (t != task)
+					remaining[n++] = t;
+			this.running = remaining;
+			this.lock.notifyAll();
+		}
+	}
+}
@@ -0,0 +1,221 @@
+package Utility;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import lejos.utility.TimerListener;
+
+/**
+ * SchedulerTest
+ */
+public class SchedulerTest {
+
+	/**
+	 * Listener counting its calls and recording the order of the calls
+	 */
+	private static class Counter implements TimerListener {
+
+		/**
+		 * Number of calls
+		 */
+		volatile int calls = 0;
+
+		/**
+		 * Duration of a call [ms]
+		 */
+		final long duration;
+
+		/**
+		 * Shared log of the calls
+		 */
+		final StringBuffer log;
+
+		/**
+		 * Name written in the log
+		 */
+		final char name;
+
+		/**
+		 * @param name name written in the log
+		 * @param duration duration of a call [ms]
+		 * @param log shared log of the calls
+		 */
+		Counter(char name, long duration, StringBuffer log) {
+			this.name = name;
+			this.duration = duration;
+			this.log = log;
+		}
+
+		/**
+		 * @see lejos.utility.TimerListener#timedOut()
+		 */
+		@Override
+		public void timedOut() {
+			this.calls++;
+			this.log.append(this.name);
+			if (this.duration > 0) {
+				try {
+					Thread.sleep(this.duration);
+				} catch (@SuppressWarnings("unused") InterruptedException e) {
+					assert true;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Listener throwing at every call
+	 */
+	private static class Thrower implements TimerListener {
+
+		/**
+		 * @see lejos.utility.TimerListener#timedOut()
+		 */
+		@Override
+		public void timedOut() {
+			throw new IllegalStateException();
+		}
+	}
+
+	/**
+	 * Longest wait for a task to be called [ms]
+	 */
+	private static final long TIMEOUT = 5000;
+
+	/**
+	 * Waits until a listener was called a number of times
+	 *
+	 * @param counter listener
+	 * @param calls number of calls
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	private static void awaitCalls(Counter counter, int calls) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + TIMEOUT;
+		while (counter.calls < calls) {
+			assertTrue(System.currentTimeMillis() < deadline);
+			Thread.sleep(1);
+		}
+	}
+
+	/**
+	 * testFailure checks that a task that throws neither stops the other
+	 * tasks nor itself
+	 *
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	@SuppressWarnings({ "static-method", "nls" })
+	@Test
+	public void testFailure() throws InterruptedException {
+		Scheduler scheduler = new Scheduler("failure", Thread.NORM_PRIORITY);
+		Counter counter = new Counter('c', 0, new StringBuffer());
+		ScheduledTask failing = scheduler.schedule(new Thrower(), 5, 0);
+		ScheduledTask task = scheduler.schedule(counter, 5, 0);
+
+		failing.start();
+		task.start();
+		awaitCalls(counter, 5);
+		failing.stop();
+		task.stop();
+
+		long failures = failing.getFailures();
+		assertTrue(failures > 0);
+		assertTrue(failures <= failing.getRunCount());
+		assertEquals(0, task.getFailures());
+	}
+
+	/**
+	 * testOverrun checks that a task longer than its period is counted as
+	 * late instead of running in a burst
+	 *
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	@SuppressWarnings({ "static-method", "nls" })
+	@Test
+	public void testOverrun() throws InterruptedException {
+		Scheduler scheduler = new Scheduler("overrun", Thread.NORM_PRIORITY);
+		Counter slow = new Counter('s', 25, new StringBuffer());
+		ScheduledTask task = scheduler.schedule(slow, 10, 0);
+
+		task.start();
+		awaitCalls(slow, 4);
+		task.stop();
+
+		// - Every execution ends past its deadline and at least one release
+		// - after it, whatever the load of the host
+		long runs = task.getRunCount();
+		assertTrue(runs >= 3);
+		assertTrue(task.getDeadlineMisses() >= runs);
+		assertTrue(task.getOverruns() >= runs);
+		assertTrue(task.getMaxExecutionTime() >= 25000000L);
+	}
+
+	/**
+	 * testRateMonotonicOrder checks that tasks released together run shortest
+	 * period first
+	 *
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	@SuppressWarnings({ "static-method", "nls" })
+	@Test
+	public void testRateMonotonicOrder() throws InterruptedException {
+		Scheduler scheduler = new Scheduler("order", Thread.NORM_PRIORITY);
+		StringBuffer log = new StringBuffer();
+		Counter blocker = new Counter('z', 50, log);
+		ScheduledTask blocking = scheduler.schedule(blocker, 1000, 0);
+		ScheduledTask slow = scheduler.schedule(new Counter('b', 0, log), 50, 0);
+		ScheduledTask fast = scheduler.schedule(new Counter('a', 0, log), 20, 0);
+
+		// - Both tasks are released while the thread is busy, so they are due
+		// - together when it picks the next task
+		blocking.start();
+		awaitCalls(blocker, 1);
+		slow.start();
+		fast.start();
+		long deadline = System.currentTimeMillis() + TIMEOUT;
+		while (log.indexOf("b") < 0) {
+			assertTrue(System.currentTimeMillis() < deadline);
+			Thread.sleep(1);
+		}
+		blocking.stop();
+		slow.stop();
+		fast.stop();
+		assertFalse(slow.isRunning());
+
+		// - The fast task may catch up its late release before the slow one
+		assertTrue(log.toString().startsWith("za"));
+		assertTrue(log.indexOf("b") > 1);
+	}
+
+	/**
+	 * testStartStop
+	 *
+	 * @throws InterruptedException if the test is interrupted
+	 */
+	@SuppressWarnings({ "static-method", "nls" })
+	@Test
+	public void testStartStop() throws InterruptedException {
+		Scheduler scheduler = new Scheduler("start", Thread.NORM_PRIORITY);
+		Counter counter = new Counter('c', 0, new StringBuffer());
+		ScheduledTask task = scheduler.schedule(counter, 5);
+
+		Thread.sleep(20);
+		assertEquals(0, counter.calls);
+
+		task.start();
+		assertTrue(task.isRunning());
+		awaitCalls(counter, 5);
+		task.stop();
+		assertFalse(task.isRunning());
+
+		// - A release picked before the stop may still run once
+		int calls = counter.calls;
+		Thread.sleep(30);
+		assertTrue(counter.calls <= calls + 1);
+
+		task.setDelay(10);
+		assertEquals(10, task.getDelay());
+	}
+}